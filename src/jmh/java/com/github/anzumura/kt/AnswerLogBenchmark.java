@@ -0,0 +1,120 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AnswerLog} throughput: 'append' only adds answers to the current
+ * batch while 'appendSync' waits for each answer to be forced to storage (so
+ * its throughput depends on how many answers share each fsync - try different
+ * thread counts with '-t'). 'read' scans a log of one million answers and
+ * 'compact' merges them into per-user aggregate files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerLogBenchmark {
+  private static final int USERS = 10_000, KANJI = 13_000,
+      ANSWERS = 1_000_000;
+
+  private Path directory;
+  private AnswerLog log;
+
+  private static void delete(Path directory) throws IOException {
+    try (var files = Files.walk(directory)) {
+      for (var path : files.sorted(Comparator.reverseOrder()).toList())
+        Files.delete(path);
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("answers");
+    log = new AnswerLog(directory);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    log.close();
+    delete(directory);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public long append() {
+    final var i = System.nanoTime();
+    return log.append(i % USERS, (int) (i % KANJI), i, (i & 1) == 0, 500);
+  }
+
+  @Benchmark
+  @Threads(32)
+  public long appendSync() {
+    final var i = System.nanoTime();
+    final var sequence =
+        log.append(i % USERS, (int) (i % KANJI), i, (i & 1) == 0, 500);
+    log.sync(sequence);
+    return sequence;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long read(Written w) {
+    final long[] sum = {0};
+    w.log.read((sequence, user, ordinal, time, correct, latency) ->
+        sum[0] += latency);
+    return sum[0];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long compact(Written w) {
+    return w.log.compact();
+  }
+
+  /**
+   * log with {@link #ANSWERS} answers written per iteration
+   */
+  @State(Scope.Benchmark)
+  public static class Written {
+    private Path directory;
+    private AnswerLog log;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+      directory = Files.createTempDirectory("written");
+      log = new AnswerLog(directory);
+      var sequence = 0L;
+      for (var i = 0; i < ANSWERS; ++i)
+        sequence = log.append(i % USERS, i % KANJI, i, i % 3 != 0, i % 2000);
+      log.sync(sequence);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+      log.close();
+      delete(directory);
+    }
+  }
+}
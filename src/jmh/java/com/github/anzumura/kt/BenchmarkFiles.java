@@ -0,0 +1,74 @@
+package com.github.anzumura.kt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.anzumura.kt.ColumnFile.Column;
+
+/**
+ * creates synthetic 'ucd.txt' style files for benchmarks
+ */
+final class BenchmarkFiles {
+  static final Column name = new Column("Name"), radical =
+      new Column("Radical"), strokes = new Column("Strokes"), meaning =
+      new Column("Meaning"), joyo = new Column("Joyo");
+  static final Set<Column> columns =
+      Set.of(name, radical, strokes, meaning, joyo);
+
+  private static final String HEADER = "Name\tRadical\tStrokes\tMeaning\tJoyo";
+  private static final int CJK_START = 0x4e00, CJK_END = 0x9fff,
+      EXTENSION_B_START = 0x20000, RADICAL_START = 0x2f00, RADICALS = 214,
+      MAX_STROKES = 30;
+
+  private BenchmarkFiles() {}
+
+  /**
+   * @param rows number of data rows (not including the header row)
+   * @return path to a new temporary tab delimited file
+   * @throws IOException if creating or writing the file fails
+   */
+  static Path create(int rows) throws IOException {
+    final var path = Files.createTempFile("bench", ".txt");
+    final var lines = new ArrayList<String>(rows + 1);
+    lines.add(HEADER);
+    for (var i = 0; i < rows; ++i)
+      lines.add(String.join("\t", Character.toString(codePoint(i)),
+          Character.toString(RADICAL_START + i % RADICALS),
+          Integer.toString(i % MAX_STROKES + 1), "meaning " + i,
+          i % 2 == 0 ? "Y" : ""));
+    Files.write(path, lines);
+    return path;
+  }
+
+  /**
+   * @param r row from a file created by {@link #create}
+   * @return new UcdKanji for the row
+   */
+  static UcdKanji ucd(Row r) {
+    return new UcdKanji(r.get(name), r.get(radical), r.getUnsignedInt(strokes),
+        r.get(meaning), "", false, List.of(), r.getBoolean(joyo));
+  }
+
+  /**
+   * @param r    row from a file created by {@link #create}
+   * @param pool pool used for the radical (synthetic meanings are all
+   *             different so they aren't pooled)
+   * @return new UcdKanji for the row
+   */
+  static UcdKanji ucd(Row r, StringPool pool) {
+    return new UcdKanji(r.get(name), pool.get(r, radical),
+        r.getUnsignedInt(strokes), r.get(meaning), "", false, List.of(),
+        r.getBoolean(joyo));
+  }
+
+  // unique name for each row (continue in Extension B after the main CJK
+  // block so large files don't produce surrogate code points)
+  static int codePoint(int row) {
+    return CJK_START + row <= CJK_END ? CJK_START + row :
+        EXTENSION_B_START + row;
+  }
+}
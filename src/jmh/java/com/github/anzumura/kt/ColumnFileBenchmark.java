@@ -0,0 +1,107 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.BenchmarkFiles.*;
+
+/**
+ * ColumnFile benchmarks using BufferedReader and memory mapped modes. Except
+ * for 'header', each operation reads one row (files are re-opened when they
+ * run out of rows) so results are per row and the 'gc' profiler reports bytes
+ * allocated per row. Per-cell cost of 'get', 'getUnsignedInt' and 'getBoolean'
+ * is the difference from 'nextRow'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnFileBenchmark {
+  @Param({"1000", "10000", "100000"})
+  private int rows;
+
+  @Param({"false", "true"})
+  private boolean memoryMapped;
+
+  private Path path, headerOnly;
+  private ColumnFile file;
+
+  @Setup
+  public void setup() throws IOException {
+    path = BenchmarkFiles.create(rows);
+    headerOnly = BenchmarkFiles.create(0);
+    file = open(path);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    while (file.nextRow()) {} // read to the end to close the file
+    Files.delete(path);
+    Files.delete(headerOnly);
+  }
+
+  /**
+   * open a file and process the header row (calling 'nextRow' closes the file)
+   */
+  @Benchmark
+  public boolean header() {
+    return open(headerOnly).nextRow();
+  }
+
+  @Benchmark
+  public int nextRow() {
+    return row().currentRow();
+  }
+
+  @Benchmark
+  public String get() {
+    return row().get(meaning);
+  }
+
+  @Benchmark
+  public int getUnsignedInt() {
+    return row().getUnsignedInt(strokes);
+  }
+
+  @Benchmark
+  public boolean getBoolean() {
+    return row().getBoolean(joyo);
+  }
+
+  @Benchmark
+  public void getAll(Blackhole bh) {
+    final var f = row();
+    for (var c : columns)
+      bh.consume(f.get(c));
+  }
+
+  private ColumnFile open(Path p) {
+    return new ColumnFile(p, columns, "\t", memoryMapped);
+  }
+
+  private ColumnFile row() {
+    if (!file.nextRow()) {
+      file = open(path);
+      file.nextRow();
+    }
+    return file;
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.ColumnFile.Column;
+
+/**
+ * shows that the cost of opening a ColumnFile ('open' allocation per operation
+ * with the 'gc' profiler) and looking up values by Column ('get') doesn't
+ * depend on the number of globally registered columns
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnLookupBenchmark {
+  @Param({"0", "100", "1000"})
+  private int registered;
+
+  private Column a, b, c;
+  private Path path;
+  private ColumnFile file;
+
+  @Setup
+  public void setup() throws IOException {
+    a = new Column("A");
+    for (var i = 0; i < registered; ++i)
+      new Column("Registered" + i);
+    b = new Column("B");
+    c = new Column("C");
+    path = Files.createTempFile("bench", ".txt");
+    Files.writeString(path, "A\tB\tC\nx\ty\tz\n");
+    file = new ColumnFile(path, Set.of(a, b, c));
+    file.nextRow();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    file.nextRow(); // closes the file
+    Files.delete(path);
+  }
+
+  /**
+   * open a file and process the header row (calling 'nextRow' reads the only
+   * data row and then the file is closed by the second call)
+   */
+  @Benchmark
+  public boolean open() {
+    final var f = new ColumnFile(path, Set.of(a, b, c));
+    return f.nextRow() && f.nextRow();
+  }
+
+  @Benchmark
+  public void get(Blackhole bh) {
+    bh.consume(file.get(a));
+    bh.consume(file.get(b));
+    bh.consume(file.get(c));
+  }
+}
@@ -0,0 +1,132 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.BenchmarkFiles.*;
+
+/**
+ * compares retained heap of a list of Kanji objects with the same Kanji stored
+ * in a {@link KanjiTable}, and a full load from a file with and without a
+ * {@link StringPool}. Each operation builds the data and reports heap in use
+ * (after GC) minus the baseline via the 'retainedBytes' counter, so look at
+ * that counter rather than the time. 'tableArrays' is the table's own estimate
+ * which doesn't include JVM array headers. For a per-class histogram, run a
+ * benchmark with a breakpoint or sleep and use 'jmap -histo:live'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FootprintBenchmark {
+  private static final int RADICALS = 214, RADICAL_START = 0x2f00,
+      LINK_EVERY = 10;
+
+  @Param({"10000", "100000"})
+  private int rows;
+
+  private Path path;
+
+  @Setup
+  public void setup() throws IOException {
+    path = BenchmarkFiles.create(rows);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(path);
+  }
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long retainedBytes, tableArrays;
+  }
+
+  @Benchmark
+  public Object objects(Counters counters) {
+    final var before = usedHeap();
+    final var kanji = kanji();
+    counters.retainedBytes = usedHeap() - before;
+    return kanji;
+  }
+
+  @Benchmark
+  public Object table(Counters counters) {
+    final var before = usedHeap();
+    final var table = KanjiTable.of(kanji());
+    counters.retainedBytes = usedHeap() - before;
+    counters.tableArrays = table.memoryBytes();
+    return table;
+  }
+
+  @Benchmark
+  public Object load(Counters counters) {
+    final var before = usedHeap();
+    final var kanji =
+        ColumnFile.loadParallel(path, columns, "\t", BenchmarkFiles::ucd);
+    counters.retainedBytes = usedHeap() - before;
+    return kanji;
+  }
+
+  @Benchmark
+  public Object pooledLoad(Counters counters) {
+    final var before = usedHeap();
+    final var pool = new StringPool();
+    final var kanji =
+        ColumnFile.loadParallel(path, columns, "\t", r -> ucd(r, pool));
+    counters.retainedBytes = usedHeap() - before;
+    return kanji;
+  }
+
+  /**
+   * mostly UcdKanji (like a full load) with a JouyouKanji and LinkedOldKanji
+   * pair every 'LINK_EVERY' rows
+   */
+  private List<Kanji> kanji() {
+    final var result = new ArrayList<Kanji>(rows);
+    for (var i = 0; i < rows; ++i) {
+      final var name = Character.toString(BenchmarkFiles.codePoint(i));
+      final var radical = Character.toString(RADICAL_START + i % RADICALS);
+      final var strokes = i % 30 + 1;
+      result.add(switch (i % LINK_EVERY) {
+        case 0 -> new JouyouKanji(name, radical, strokes, "meaning " + i,
+            "ヨミ", Kanji.Kyu.K5, i + 1, Kanji.Level.N3, i + 1, 2010,
+            Kanji.Grade.S);
+        case 1 -> new LinkedOldKanji(name, radical, strokes, result.get(i - 1),
+            0, Kanji.Kyu.None);
+        default -> new UcdKanji(name, radical, strokes, "meaning " + i, "ヨミ",
+            false, List.of(), false);
+      });
+    }
+    return result;
+  }
+
+  private static long usedHeap() {
+    final var memory = ManagementFactory.getMemoryMXBean();
+    for (var i = 0; i < 3; ++i)
+      System.gc();
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * construction cost (including constructor validation) of each Kanji leaf
+ * class
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KanjiBenchmark {
+  private static final String name = "海", radical = "水", meaning = "sea",
+      reading = "カイ、うみ";
+  private static final int strokes = 9, number = 182, frequency = 200,
+      year = 2023;
+  private static final List<String> linkNames = List.of("亜");
+
+  private final JouyouKanji jouyou =
+      new JouyouKanji(name, radical, strokes, meaning, reading, Kyu.K9, number,
+          Level.N4, frequency, year, Grade.G2);
+
+  @Benchmark
+  public Kanji jouyouKanji() {
+    return new JouyouKanji(name, radical, strokes, meaning, reading, Kyu.K9,
+        number, Level.N4, frequency, year, Grade.G2);
+  }
+
+  @Benchmark
+  public Kanji jinmeiKanji() {
+    return new JinmeiKanji(name, radical, strokes, meaning, reading, Kyu.K9,
+        number, Level.N1, frequency, year, JinmeiReason.Names);
+  }
+
+  @Benchmark
+  public Kanji linkedJinmeiKanji() {
+    return new LinkedJinmeiKanji(name, radical, strokes, jouyou, frequency,
+        Kyu.KJ1);
+  }
+
+  @Benchmark
+  public Kanji linkedOldKanji() {
+    return new LinkedOldKanji(name, radical, strokes, jouyou, frequency,
+        Kyu.KJ1);
+  }
+
+  @Benchmark
+  public Kanji frequencyKanji() {
+    return new FrequencyKanji(name, radical, strokes, meaning, reading, true,
+        linkNames, false, Kyu.K1, frequency);
+  }
+
+  @Benchmark
+  public Kanji extraKanji() {
+    return new ExtraKanji(name, radical, strokes, meaning, reading, Kyu.K1,
+        number, "");
+  }
+
+  @Benchmark
+  public Kanji kenteiKanji() {
+    return new KenteiKanji(name, radical, strokes, meaning, reading, true,
+        linkNames, false, Kyu.K1);
+  }
+
+  @Benchmark
+  public Kanji ucdKanji() {
+    return new UcdKanji(name, radical, strokes, meaning, reading, true,
+        linkNames, false);
+  }
+}
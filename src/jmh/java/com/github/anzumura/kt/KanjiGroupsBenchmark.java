@@ -0,0 +1,73 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * 'all Kyu.KJ1 with 12 strokes' by checking the getters of every Kanji
+ * compared with intersecting {@link KanjiGroups} sets
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KanjiGroupsBenchmark {
+  private static final int CJK_START = 0x4e00, RADICAL_START = 0x2f00,
+      RADICALS = 214, MAX_STROKES = 30;
+  private static final Kyu[] kyus = Kyu.values();
+
+  @Param({"3000", "13000"})
+  private int size;
+
+  private List<Kanji> kanji;
+  private KanjiGroups groups;
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>(size);
+    for (var i = 0; i < size; ++i)
+      kanji.add(new KenteiKanji(Character.toString(CJK_START + i),
+          Character.toString(RADICAL_START + i % RADICALS),
+          i % MAX_STROKES + 1, "", "", false, List.of(), false,
+          kyus[i % (kyus.length - 1)])); // skip Kyu.None
+    groups = KanjiGroups.of(kanji);
+  }
+
+  @Benchmark
+  public int[] filter() {
+    final var result = new ArrayList<Integer>();
+    for (var i = 0; i < kanji.size(); ++i) {
+      final var k = kanji.get(i);
+      if (k.getKyu() == Kyu.KJ1 && k.getStrokes() == 12)
+        result.add(i);
+    }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Benchmark
+  public int[] groups() {
+    return groups.get(Kyu.KJ1).and(groups.getStrokes(12)).toArray();
+  }
+
+  @Benchmark
+  public KanjiGroups build() {
+    return KanjiGroups.of(kanji);
+  }
+}
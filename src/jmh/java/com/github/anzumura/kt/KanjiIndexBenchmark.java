@@ -0,0 +1,99 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compares name lookup using {@link KanjiIndex} with a
+ * {@code HashMap<String, Kanji>}. Names are a mix of BMP and supplementary
+ * plane Kanji and every 'MISS_EVERY' name isn't in the index. Each operation
+ * is one lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KanjiIndexBenchmark {
+  private static final int LOOKUPS = 1_024, MISS_EVERY = 8,
+      CJK_START = 0x4e00, EXTENSION_B_START = 0x20000;
+
+  @Param({"3000", "13000"})
+  private int size;
+
+  private KanjiIndex index;
+  private Map<String, Kanji> map;
+  private String[] names;
+  private int[] codePoints;
+
+  @Setup
+  public void setup() {
+    final var kanji = new ArrayList<Kanji>(size);
+    for (var i = 0; i < size; ++i)
+      kanji.add(new UcdKanji(Character.toString(codePoint(i)), "一", 1, "", "",
+          false, List.of(), false));
+    index = KanjiIndex.of(kanji);
+    map = new HashMap<>();
+    for (var k : kanji)
+      map.put(k.getName(), k);
+    names = new String[LOOKUPS];
+    codePoints = new int[LOOKUPS];
+    for (var i = 0; i < LOOKUPS; ++i) {
+      // spread lookups over the whole index (and past the end for misses)
+      final var x = i % MISS_EVERY == 0 ? size + i : i * 7919 % size;
+      codePoints[i] = codePoint(x);
+      names[i] = Character.toString(codePoints[i]);
+    }
+  }
+
+  // most Kanji are in the BMP, but put every tenth one in Extension B
+  private static int codePoint(int i) {
+    return i % 10 == 9 ? EXTENSION_B_START + i : CJK_START + i;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void hashMap(Blackhole bh) {
+    for (var name : names)
+      bh.consume(map.get(name));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void indexByName(Blackhole bh) {
+    for (var name : names)
+      bh.consume(index.ordinal(name));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void indexByCodePoint(Blackhole bh) {
+    for (var codePoint : codePoints)
+      bh.consume(index.ordinal(codePoint));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS)
+  public void indexGet(Blackhole bh) {
+    for (var name : names)
+      bh.consume(index.get(name));
+  }
+}
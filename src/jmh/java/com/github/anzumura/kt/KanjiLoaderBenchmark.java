@@ -0,0 +1,75 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.BenchmarkFiles.*;
+
+/**
+ * loads several independent files with {@link KanjiLoader} using one thread
+ * (files are loaded one after another, like a plain startup sequence) compared
+ * with one thread per file. Files have the same names so most Kanji are
+ * dropped when merging - this measures parsing and building, not indexing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KanjiLoaderBenchmark {
+  private static final int FILES = 6, ROWS = 20_000;
+
+  private final List<Path> paths = new ArrayList<>();
+  private KanjiLoader loader;
+  private ExecutorService single, pool;
+
+  @Setup
+  public void setup() throws IOException {
+    final var stages = new ArrayList<KanjiLoader.Stage<?>>();
+    for (var i = 0; i < FILES; ++i) {
+      paths.add(BenchmarkFiles.create(ROWS));
+      stages.add(KanjiLoader.Stage.of("file" + i, paths.get(i), columns,
+          BenchmarkFiles::ucd));
+    }
+    loader = new KanjiLoader(stages);
+    single = Executors.newSingleThreadExecutor();
+    pool = Executors.newFixedThreadPool(FILES);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    single.shutdown();
+    pool.shutdown();
+    for (var path : paths)
+      Files.delete(path);
+  }
+
+  @Benchmark
+  public KanjiLoader.Result oneThread() {
+    return loader.load(single);
+  }
+
+  @Benchmark
+  public KanjiLoader.Result threadPerFile() {
+    return loader.load(pool);
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.KanjiFilter.*;
+
+/**
+ * evaluates a typical quiz filter (enum values, a range and a negation) with
+ * {@link KanjiQuery} compared with checking the getters of every Kanji. Runs
+ * with several threads since one engine is shared by all users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class KanjiQueryBenchmark {
+  private static final int CJK_START = 0x4e00, RADICAL_START = 0x2f00,
+      RADICALS = 214, MAX_STROKES = 30;
+  private static final Kyu[] kyus = Kyu.values();
+  private static final String excludedRadical =
+      Character.toString(RADICAL_START);
+  private static final KanjiFilter filter = and(or(is(Kyu.KJ1), is(Kyu.K1)),
+      strokes(8, 12), frequency(1, 2500), not(radical(excludedRadical)));
+
+  @Param({"3000", "13000"})
+  private int size;
+
+  private List<Kanji> kanji;
+  private KanjiQuery query;
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>(size);
+    for (var i = 0; i < size; ++i)
+      kanji.add(new FrequencyKanji(Character.toString(CJK_START + i),
+          Character.toString(RADICAL_START + i % RADICALS),
+          i % MAX_STROKES + 1, "", "", false, List.of(), false,
+          kyus[i % (kyus.length - 1)], i + 1)); // skip Kyu.None
+    query = KanjiQuery.of(kanji);
+  }
+
+  @Benchmark
+  public int[] scan() {
+    final var result = new ArrayList<Integer>();
+    for (var i = 0; i < kanji.size(); ++i) {
+      final var k = kanji.get(i);
+      if ((k.getKyu() == Kyu.KJ1 || k.getKyu() == Kyu.K1) &&
+          k.getStrokes() >= 8 && k.getStrokes() <= 12 &&
+          k.getFrequency() >= 1 && k.getFrequency() <= 2500 &&
+          !k.getRadical().equals(excludedRadical))
+        result.add(i);
+    }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Benchmark
+  public int[] query() {
+    return query.select(filter).toArray();
+  }
+}
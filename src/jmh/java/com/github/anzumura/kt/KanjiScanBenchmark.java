@@ -0,0 +1,88 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * calls getters on every Kanji in a mixed list (like a full load) - the 'gc'
+ * profiler's 'gc.alloc.rate.norm' should be close to zero since getters like
+ * 'getNewName' and 'getLink' return Optionals created at construction and
+ * Linked Kanji don't delegate to their link
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KanjiScanBenchmark {
+  private static final int JOUYOU = 2_000, UCD = 10_000, CJK_START = 0x4e00;
+
+  private List<Kanji> kanji;
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>();
+    var next = CJK_START;
+    for (var i = 0; i < JOUYOU; ++i) {
+      final var jouyou = new JouyouKanji(Character.toString(next++), "一", 1,
+          "meaning", "ヨミ", Kyu.K5, i + 1, Level.N3, i + 1, 2010, Grade.S);
+      kanji.add(jouyou);
+      kanji.add(new LinkedOldKanji(Character.toString(next++), "一", 1,
+          jouyou, 0, Kyu.K1));
+      kanji.add(new ExtraKanji(Character.toString(next++), "一", 1, "meaning",
+          "ヨミ", Kyu.K1, i + 1, i % 2 == 0 ? jouyou.getName() : ""));
+    }
+    for (var i = 0; i < UCD; ++i, ++next)
+      kanji.add(new UcdKanji(Character.toString(next), "一", 1, "", "", false,
+          i % 2 == 0 ? List.of(Character.toString(next + 1)) : List.of(),
+          false));
+  }
+
+  @Benchmark
+  public void links(Blackhole bh) {
+    for (var k : kanji) {
+      bh.consume(k.getNewName());
+      bh.consume(k.getLink());
+    }
+  }
+
+  @Benchmark
+  public void all(Blackhole bh) {
+    for (var k : kanji) {
+      bh.consume(k.getName());
+      bh.consume(k.getMeaning());
+      bh.consume(k.getReading());
+      bh.consume(k.getStrokes());
+      bh.consume(k.getKyu());
+      bh.consume(k.getFrequency());
+      bh.consume(k.getOldNames());
+      bh.consume(k.getNewName());
+      bh.consume(k.getLink());
+    }
+  }
+
+  @Benchmark
+  public int newNames() {
+    var count = 0;
+    for (var k : kanji)
+      if (k.getNewName().isPresent())
+        ++count;
+    return count;
+  }
+}
@@ -0,0 +1,64 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.BenchmarkFiles.*;
+
+/**
+ * compares loading a whole file into UcdKanji objects sequentially (via
+ * 'nextRow') and in parallel (via 'ColumnFile.loadParallel')
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+  @Param({"10000", "100000"})
+  private int rows;
+
+  private Path path;
+
+  @Setup
+  public void setup() throws IOException {
+    path = BenchmarkFiles.create(rows);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(path);
+  }
+
+  @Benchmark
+  public List<UcdKanji> sequential() {
+    final var f = new ColumnFile(path, columns, "\t", true);
+    final var result = new ArrayList<UcdKanji>();
+    while (f.nextRow())
+      result.add(ucd(f));
+    return result;
+  }
+
+  @Benchmark
+  public List<UcdKanji> parallel() {
+    return ColumnFile.loadParallel(path, columns, "\t", BenchmarkFiles::ucd);
+  }
+}
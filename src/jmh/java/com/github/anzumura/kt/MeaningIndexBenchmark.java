@@ -0,0 +1,84 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * meaning lookups with {@link MeaningIndex} compared with scanning meanings of
+ * every Kanji. Meanings are built from a small vocabulary so terms have many
+ * postings. Run with the 'gc' profiler to see allocation per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeaningIndexBenchmark {
+  private static final int CJK_START = 0x4e00;
+  private static final String[] vocabulary = {"sea", "ocean", "mountain",
+      "river", "tree", "forest", "word", "speech", "resign", "term", "two",
+      "foreign", "scold", "fragrant", "span", "betray", "search", "season"};
+
+  @Param({"3000", "13000"})
+  private int size;
+
+  private List<Kanji> kanji;
+  private MeaningIndex index;
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>(size);
+    for (var i = 0; i < size; ++i)
+      kanji.add(new UcdKanji(Character.toString(CJK_START + i), "一", 1,
+          vocabulary[i % vocabulary.length] + ", " +
+              vocabulary[i * 7 % vocabulary.length], "", false, List.of(),
+          false));
+    index = MeaningIndex.of(kanji);
+  }
+
+  @Benchmark
+  public int scan() {
+    var count = 0;
+    for (var k : kanji)
+      for (var term : MeaningIndex.terms(k.getMeaning()))
+        if (term.startsWith("sea")) {
+          ++count;
+          break;
+        }
+    return count;
+  }
+
+  @Benchmark
+  public KanjiSet get() {
+    return index.get("sea");
+  }
+
+  @Benchmark
+  public KanjiSet prefix() {
+    return index.getPrefix("sea");
+  }
+
+  @Benchmark
+  public KanjiSet search() {
+    return index.search("sea oc");
+  }
+
+  @Benchmark
+  public MeaningIndex build() {
+    return MeaningIndex.of(kanji);
+  }
+}
@@ -0,0 +1,106 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * generates multiple choice questions with {@link QuestionGenerator} (pools
+ * precomputed once) compared with scanning all Kanji per question for the
+ * most similar ones ('scan' only scores radical and strokes). Each thread has
+ * its own SplittableRandom and choices array so 'generate' shouldn't allocate
+ * (see 'gc.alloc.rate.norm'). 'build' is the cost of creating the pools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionGeneratorBenchmark {
+  private static final int JOUYOU = 2_000, UCD = 10_000, CJK_START = 0x4e00,
+      RADICAL_START = 0x2f00, RADICALS = 214, MAX_STROKES = 30;
+  private static final String[] readings = {"カイ", "ヨウ", "ジ", "シ", "コウ",
+      "セイ", "ショウ", "キ", "ト", "チ"};
+
+  private List<Kanji> kanji;
+  private KanjiData data;
+  private QuestionGenerator questions;
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>();
+    var next = CJK_START;
+    for (var i = 0; i < JOUYOU + UCD; ++i, ++next) {
+      final var name = Character.toString(next);
+      final var radical = Character.toString(RADICAL_START + i % RADICALS);
+      final var strokes = i % MAX_STROKES + 1;
+      final var reading = readings[i % readings.length];
+      kanji.add(i < JOUYOU ?
+          new JouyouKanji(name, radical, strokes, "meaning " + i, reading,
+              Kyu.K5, i + 1, Level.values()[i % 5], i + 1, 2010,
+              Grade.values()[i % 7]) :
+          new UcdKanji(name, radical, strokes, "meaning " + i, reading, false,
+              List.of(), false));
+    }
+    data = KanjiData.of(kanji);
+    questions = data.getQuestions();
+  }
+
+  @Benchmark
+  public int generate(Generator g) {
+    return questions.next(g.random, g.choices);
+  }
+
+  @Benchmark
+  public int scan(Generator g) {
+    final var answer = kanji.get(g.random.nextInt(kanji.size()));
+    // keep the best scores in slots 1 to CHOICES - 1 (slot 0 is the answer)
+    final var best = g.choices;
+    final var scores = new int[best.length];
+    for (var i = 0; i < kanji.size(); ++i) {
+      final var k = kanji.get(i);
+      if (k == answer)
+        continue;
+      var score = k.getRadical().equals(answer.getRadical()) ? 4 : 0;
+      score += Math.max(0, 3 - Math.abs(k.getStrokes() - answer.getStrokes()));
+      for (var j = 1; j < best.length; ++j)
+        if (score > scores[j]) {
+          System.arraycopy(scores, j, scores, j + 1, best.length - j - 1);
+          System.arraycopy(best, j, best, j + 1, best.length - j - 1);
+          scores[j] = score;
+          best[j] = i;
+          break;
+        }
+    }
+    return best[1];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public QuestionGenerator build() {
+    return QuestionGenerator.of(data.getKanji(), data.getQuery().getGroups(),
+        data.getReadings());
+  }
+
+  @State(Scope.Thread)
+  public static class Generator {
+    final SplittableRandom random = new SplittableRandom();
+    final int[] choices = new int[QuestionGenerator.CHOICES];
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * in-process load generator for {@link QuizServer}: each JMH thread is a quiz
+ * user with its own session that repeatedly gets a question and answers it
+ * over HTTP (so one operation is two requests). Use '-t' to change the number
+ * of concurrent users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class QuizServerBenchmark {
+  private static final int JOUYOU = 2_000, CJK_START = 0x4e00;
+
+  private QuizServer server;
+  private HttpClient client;
+  private String base;
+
+  @Setup
+  public void setup() {
+    final var kanji = new ArrayList<Kanji>();
+    for (var i = 0; i < JOUYOU; ++i)
+      kanji.add(new JouyouKanji(Character.toString(CJK_START + i), "一", 1,
+          "meaning " + i, "ヨミ", Kyu.K5, i + 1, Level.values()[i % 5], i + 1,
+          2010, Grade.values()[i % 7]));
+    final var store = new KanjiStore();
+    store.set(KanjiData.of(kanji));
+    server = QuizServer.start(store, new InetSocketAddress("localhost", 0));
+    client = HttpClient.newBuilder()
+        .executor(QuizServer.newExecutor(QuizServer.DEFAULT_THREADS)).build();
+    base = "http://localhost:" + server.getPort();
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.close();
+  }
+
+  private String send(String method, String path)
+      throws IOException, InterruptedException {
+    return client.send(HttpRequest.newBuilder(URI.create(base + path))
+            .method(method, HttpRequest.BodyPublishers.noBody()).build(),
+        HttpResponse.BodyHandlers.ofString()).body();
+  }
+
+  @Benchmark
+  public String questionAndAnswer(User user)
+      throws IOException, InterruptedException {
+    final var question = send("GET", user.session == null ? "/question" :
+        "/question?level=N3&session=" + user.session);
+    if (user.session == null)
+      user.session = question.substring(question.indexOf(':') + 1,
+          question.indexOf(','));
+    return send("POST", "/answer?choice=0&session=" + user.session);
+  }
+
+  @Benchmark
+  public String kanji() throws IOException, InterruptedException {
+    return send("GET", "/kanji?grade=G1&level=N5");
+  }
+
+  @State(Scope.Thread)
+  public static class User {
+    String session;
+  }
+}
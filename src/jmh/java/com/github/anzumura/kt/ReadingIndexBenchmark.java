@@ -0,0 +1,82 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reading lookups with {@link ReadingIndex} compared with scanning the
+ * readings of every Kanji. Readings are synthetic two or three Kana words so
+ * there are many Kanji per reading (like real On readings).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadingIndexBenchmark {
+  private static final int CJK_START = 0x4e00, KANA = 40;
+
+  @Param({"3000", "13000"})
+  private int size;
+
+  private List<Kanji> kanji;
+  private ReadingIndex index;
+
+  private static String kana(int i, char start) {
+    return Character.toString(start + i % KANA);
+  }
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>(size);
+    for (var i = 0; i < size; ++i) {
+      // one On reading (Katakana) and one Kun reading (Hiragana)
+      final var on = kana(i, 'カ') + kana(i / KANA, 'ア');
+      final var kun = kana(i / 7, 'か') + "-" + kana(i, 'あ') + kana(i, 'さ');
+      kanji.add(new UcdKanji(Character.toString(CJK_START + i), "一", 1, "",
+          on + "、" + kun, false, List.of(), false));
+    }
+    index = ReadingIndex.of(kanji);
+  }
+
+  @Benchmark
+  public int[] scan() {
+    final var result = new ArrayList<Integer>();
+    for (var i = 0; i < kanji.size(); ++i)
+      for (var r : kanji.get(i).getReading().split("、"))
+        if (ReadingIndex.normalize(r).equals("かあ")) {
+          result.add(i);
+          break;
+        }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Benchmark
+  public int[] exact() {
+    return index.ordinals("カア");
+  }
+
+  @Benchmark
+  public KanjiSet prefix() {
+    return index.getPrefix("か");
+  }
+
+  @Benchmark
+  public ReadingIndex build() {
+    return ReadingIndex.of(kanji);
+  }
+}
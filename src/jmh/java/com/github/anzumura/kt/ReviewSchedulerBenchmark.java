@@ -0,0 +1,72 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReviewScheduler} with many users: 'answer' updates one card for a
+ * random user (heap update), 'due' gets the next due cards for one user and
+ * 'batchDue' gets them for all users. Setup prints the estimated bytes used by
+ * card data (compare with 'gc.alloc.rate.norm' of an object per card).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReviewSchedulerBenchmark {
+  private static final int USERS = 10_000, CARDS = 300, KANJI = 13_000,
+      DUE = 20, DAY = 24 * 60;
+
+  private final int now = ReviewQueue.minutes(System.currentTimeMillis());
+  private ReviewScheduler scheduler;
+
+  @Setup
+  public void setup() {
+    scheduler = new ReviewScheduler();
+    final var random = new SplittableRandom(1);
+    for (var user = 0; user < USERS; ++user)
+      for (var i = 0; i < CARDS; ++i)
+        scheduler.answer(user, random.nextInt(KANJI), random.nextInt(6),
+            now - random.nextInt(10 * DAY));
+    System.out.printf("%n%,d cards, %,d bytes%n", (long) USERS * CARDS,
+        scheduler.memoryBytes());
+  }
+
+  @Benchmark
+  public int answer(User u) {
+    return scheduler.answer(u.random.nextInt(USERS),
+        u.random.nextInt(KANJI), u.random.nextInt(6), now);
+  }
+
+  @Benchmark
+  public int due(User u) {
+    return scheduler.due(u.random.nextInt(USERS), now + DAY, u.due);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Map<Long, int[]> batchDue() {
+    return scheduler.due(now + DAY, DUE);
+  }
+
+  @State(Scope.Thread)
+  public static class User {
+    final SplittableRandom random = new SplittableRandom();
+    final int[] due = new int[DUE];
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * time to read a snapshot of synthetic UcdKanji (compare with 'LoadBenchmark'
+ * which parses the same number of rows from a text file)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+  @Param({"10000", "100000"})
+  private int rows;
+
+  private Path path;
+
+  @Setup
+  public void setup() throws IOException {
+    final var kanji = new ArrayList<Kanji>(rows);
+    for (var i = 0; i < rows; ++i)
+      kanji.add(new UcdKanji(Character.toString(BenchmarkFiles.codePoint(i)),
+          "一", 1, "meaning " + i, "", false, List.of(), false));
+    path = Files.createTempFile("snapshot", ".bin");
+    KanjiSnapshot.write(path, kanji, 0);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(path);
+  }
+
+  @Benchmark
+  public List<Kanji> read() {
+    return KanjiSnapshot.read(path, 0).orElseThrow();
+  }
+}
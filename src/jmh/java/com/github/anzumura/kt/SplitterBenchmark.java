@@ -0,0 +1,73 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * compares {@link Splitter} with {@code String.split} for different delimiters.
+ * The 'stringSplit' benchmark quotes the delimiter since that's required for
+ * correct results with delimiters like "|" (and it shows the cost of compiling
+ * a regex per row). Each operation is one row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitterBenchmark {
+  private static final int ROWS = 1_000, COLUMNS = 5;
+
+  @Param({"tab", "comma", "pipe"})
+  private String delimiterName;
+
+  private String delimiter;
+  private String[] rows;
+  private Splitter splitter;
+  private String[] values;
+
+  @Setup
+  public void setup() {
+    delimiter = switch (delimiterName) {
+      case "tab" -> "\t";
+      case "comma" -> ",";
+      case "pipe" -> "|";
+      default -> throw new IllegalArgumentException(delimiterName);
+    };
+    rows = new String[ROWS];
+    for (var i = 0; i < ROWS; ++i)
+      rows[i] = String.join(delimiter, Character.toString(0x4e00 + i),
+          Character.toString(0x2f00 + i % 214), Integer.toString(i % 30 + 1),
+          "meaning " + i, i % 2 == 0 ? "Y" : "");
+    splitter = new Splitter(delimiter);
+    values = new String[COLUMNS];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void stringSplit(Blackhole bh) {
+    for (var row : rows)
+      bh.consume(row.split(Pattern.quote(delimiter), -1));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void splitter(Blackhole bh) {
+    for (var row : rows)
+      bh.consume(splitter.split(row, values));
+  }
+}
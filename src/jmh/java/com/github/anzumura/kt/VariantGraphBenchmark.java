@@ -0,0 +1,79 @@
+package com.github.anzumura.kt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * resolves the new form of every Kanji using {@code getNewName()} plus a
+ * {@code HashMap} lookup compared with {@link VariantGraph} traversal. Data is
+ * Jouyou Kanji that each have one LinkedOldKanji plus UcdKanji with
+ * 'simplified' links (each operation is one pass over all Kanji).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantGraphBenchmark {
+  private static final int JOUYOU = 2_000, UCD = 8_000, CJK_START = 0x4e00;
+
+  private List<Kanji> kanji;
+  private Map<String, Kanji> map;
+  private VariantGraph graph;
+
+  @Setup
+  public void setup() {
+    kanji = new ArrayList<>();
+    var next = CJK_START;
+    for (var i = 0; i < JOUYOU; ++i) {
+      final var jouyou = new JouyouKanji(Character.toString(next++), "一", 1,
+          "", "", Kyu.K5, i + 1, Level.N3, i + 1, 2010, Grade.S);
+      kanji.add(jouyou);
+      kanji.add(new LinkedOldKanji(Character.toString(next++), "一", 1,
+          jouyou, 0, Kyu.K1));
+    }
+    for (var i = 0; i < UCD; ++i, ++next)
+      kanji.add(new UcdKanji(Character.toString(next), "一", 1, "", "", false,
+          i % 2 == 0 ? List.of(Character.toString(next + 1)) : List.of(),
+          false));
+    map = new HashMap<>();
+    for (var k : kanji)
+      map.put(k.getName(), k);
+    graph = VariantGraph.of(KanjiIndex.of(kanji));
+  }
+
+  @Benchmark
+  public int names() {
+    var count = 0;
+    for (var k : kanji)
+      if (k.getNewName().map(map::get).isPresent())
+        ++count;
+    return count;
+  }
+
+  @Benchmark
+  public int graph() {
+    var count = 0;
+    for (var i = 0; i < kanji.size(); ++i)
+      if (graph.newerCount(i) > 0 && graph.newer(i, 0) >= 0)
+        ++count;
+    return count;
+  }
+}
@@ -0,0 +1,588 @@
+package com.github.anzumura.kt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * durable append-only log of quiz answers. Answers are fixed size binary
+ * records (user id, time, Kanji ordinal, latency, correct flag and a CRC32C
+ * of the other fields) that are copied to an in-memory batch by
+ * {@link #append} and written by a single 'answer-log' thread. The thread
+ * writes and then forces (fsyncs) everything appended since its last write,
+ * so one fsync covers all answers that arrived while the previous one was in
+ * progress ('group commit'). Callers that need durability call {@link #sync}.
+ * <p>
+ * The log is a directory of 'segment' files named by the sequence number of
+ * their first record. Opening a log scans the last segment (via a memory
+ * mapped buffer) and truncates it after the last complete record with a
+ * matching checksum, so a crash in the middle of a write only loses answers
+ * that were never synced. {@link #compact} starts a new segment and then
+ * merges closed segments into per-user aggregate files (totals per Kanji) and
+ * deletes them. Aggregate files store the sequence number they include up to
+ * so compaction can safely be repeated after a crash. Directories are forced
+ * after creating a segment and after moving aggregate files into place (before
+ * any segments are deleted) so a crash can't lose a file's directory entry.
+ */
+public final class AnswerLog implements AutoCloseable {
+  /**
+   * size of each answer record in bytes
+   */
+  public static final int RECORD_BYTES = 32;
+
+  private static final int MAGIC = 0x4b51414c; // 'KQAL'
+  private static final int AGGREGATE_MAGIC = 0x4b514141; // 'KQAA'
+  private static final int VERSION = 1, HEADER_BYTES = 16;
+  // record field offsets (bytes 25 to 27 are unused)
+  private static final int TIME = 8, ORDINAL = 16, LATENCY = 20, CORRECT = 24,
+      CRC = 28;
+  private static final int BATCH_RECORDS = 8192;
+  // largest multiple of RECORD_BYTES that can be mapped in one buffer
+  private static final long MAP_BYTES =
+      (long) (Integer.MAX_VALUE / RECORD_BYTES) * RECORD_BYTES;
+  private static final Pattern segmentName =
+      Pattern.compile("answers-(\\d+)\\.log");
+  private static final String USERS = "users", AGGREGATE_SUFFIX = ".agg",
+      TEMP_PREFIX = "user", TEMP_SUFFIX = ".tmp";
+
+  private final Path directory;
+  private final long truncated;
+  private final Thread writer;
+  private final Object compactLock = new Object();
+  private final CRC32C crc = new CRC32C(); // guarded by 'this'
+  private FileChannel channel; // only used by 'writer' after construction
+  // 'buffer' is filled by 'append' while 'spare' is written (guarded by 'this')
+  private ByteBuffer buffer = newBuffer(), spare = newBuffer();
+  // sequence numbers: next record, first record that isn't durable and first
+  // record in the current segment (guarded by 'this')
+  private long next, durable, segment;
+  private boolean rotate, closing; // guarded by 'this'
+  private DomainException error; // guarded by 'this'
+
+  /**
+   * open a log (creating {@code directory} if needed) and recover from any
+   * incomplete writes
+   *
+   * @param directory log directory
+   * @throws DomainException if the log can't be opened or is corrupt
+   */
+  public AnswerLog(Path directory) {
+    this.directory = directory;
+    var dropped = 0L;
+    try {
+      Files.createDirectories(directory.resolve(USERS));
+      deleteTempFiles();
+      final var segments = segments();
+      if (segments.isEmpty())
+        channel = create(0);
+      else {
+        segment = segments.get(segments.size() - 1);
+        channel = FileChannel.open(segmentPath(segment), READ, WRITE);
+        final var size = channel.size();
+        if (size < HEADER_BYTES) {
+          // crashed while starting a new segment
+          dropped = size;
+          channel.truncate(0);
+          writeHeader(channel, segment);
+          next = segment;
+        } else {
+          checkHeader(channel, segment);
+          final var count = scan(channel, segment, size, null);
+          final var end = HEADER_BYTES + count * RECORD_BYTES;
+          dropped = size - end;
+          if (dropped > 0) {
+            channel.truncate(end);
+            channel.force(false);
+          }
+          next = segment + count;
+        }
+        channel.position(channel.size());
+      }
+    } catch (IOException e) {
+      throw new DomainException("failed to open answer log: " + e.getMessage());
+    }
+    truncated = dropped;
+    durable = next;
+    writer = new Thread(this::write, "answer-log");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * @return number of bytes removed from the end of the log when it was
+   *     opened (an incomplete or corrupt 'tail' left by a crash)
+   */
+  public long getTruncated() {
+    return truncated;
+  }
+
+  /**
+   * @return sequence number of the next answer (total answers appended
+   *     including answers that have been compacted)
+   */
+  public synchronized long size() {
+    return next;
+  }
+
+  /**
+   * add an answer to the current batch (blocks if the batch is full until the
+   * writer thread takes it)
+   *
+   * @param user    user id
+   * @param ordinal Kanji ordinal
+   * @param time    time of the answer in milliseconds since the epoch
+   * @param correct true if the answer was correct
+   * @param latency time taken to answer in milliseconds
+   * @return sequence number of the answer (can be passed to {@link #sync})
+   * @throws DomainException if an argument is invalid or the log is closed or
+   *                         has failed
+   */
+  public long append(long user, int ordinal, long time, boolean correct,
+      int latency) {
+    if (ordinal < 0)
+      throw new DomainException("invalid ordinal: " + ordinal);
+    if (latency < 0)
+      throw new DomainException("invalid latency: " + latency);
+    synchronized (this) {
+      while (!buffer.hasRemaining() && error == null && !closing)
+        await();
+      checkOpen();
+      if (buffer.position() == 0)
+        notifyAll(); // writer may be waiting for a batch
+      final var start = buffer.position();
+      buffer.putLong(user).putLong(time).putInt(ordinal).putInt(latency)
+          .put((byte) (correct ? 1 : 0)).put((byte) 0).putShort((short) 0);
+      crc.reset();
+      crc.update(buffer.array(), start, CRC);
+      buffer.putInt((int) crc.getValue());
+      return next++;
+    }
+  }
+
+  /**
+   * wait until an answer has been written and forced to storage
+   *
+   * @param sequence sequence number returned by {@link #append}
+   * @throws DomainException if {@code sequence} hasn't been appended, writing
+   *                         fails or the thread is interrupted
+   */
+  public synchronized void sync(long sequence) {
+    if (sequence >= next)
+      throw new DomainException("unknown sequence: " + sequence);
+    while (durable <= sequence && error == null)
+      await();
+    if (error != null)
+      throw error;
+  }
+
+  /**
+   * call {@code visitor} for every durable answer in the log that hasn't been
+   * compacted (in sequence order)
+   *
+   * @param visitor called for each answer
+   * @return number of answers visited
+   * @throws DomainException if reading fails
+   */
+  public long read(Visitor visitor) {
+    synchronized (compactLock) {
+      final long end;
+      synchronized (this) {
+        end = durable;
+      }
+      var count = 0L;
+      for (var base : segments()) {
+        if (base >= end)
+          break;
+        final var path = segmentPath(base);
+        try (var in = FileChannel.open(path)) {
+          final var bytes = HEADER_BYTES +
+                            Math.min(end - base, (in.size() - HEADER_BYTES) /
+                                                 RECORD_BYTES) * RECORD_BYTES;
+          count += scan(in, base, bytes, visitor);
+        } catch (IOException e) {
+          throw new DomainException("failed to read '" + path + "': " +
+                                    e.getMessage());
+        }
+      }
+      return count;
+    }
+  }
+
+  /**
+   * start a new segment and merge all closed segments into per-user aggregate
+   * files (appends can continue while this runs, but only one compaction runs
+   * at a time)
+   *
+   * @return number of answers merged into aggregate files
+   * @throws DomainException if reading or writing fails
+   */
+  public long compact() {
+    synchronized (compactLock) {
+      final long end;
+      synchronized (this) {
+        checkOpen();
+        if (next > segment) {
+          final var target = next;
+          rotate = true;
+          notifyAll();
+          while (segment < target && error == null && !closing)
+            await();
+          checkOpen();
+        }
+        end = segment;
+      }
+      final var users = new HashMap<Long, Aggregates>();
+      final var closed = segments().stream().filter(x -> x < end).toList();
+      var count = 0L;
+      for (var base : closed) {
+        final var path = segmentPath(base);
+        try (var in = FileChannel.open(path)) {
+          checkHeader(in, base);
+          final var records = (in.size() - HEADER_BYTES) / RECORD_BYTES;
+          if (scan(in, base, in.size(), (sequence, user, ordinal, time,
+              correct, latency) -> users.computeIfAbsent(user,
+                  this::readAggregates)
+              .add(sequence, ordinal, time, correct, latency)) != records)
+            throw new DomainException("corrupt answer log: " +
+                                      path.getFileName());
+          count += records;
+        } catch (IOException e) {
+          throw new DomainException("failed to read '" + path + "': " +
+                                    e.getMessage());
+        }
+      }
+      for (var i : users.entrySet())
+        writeAggregates(i.getKey(), i.getValue(), end);
+      try {
+        // make the moves durable before deleting the only other copy of the
+        // answers (deletes don't need forcing since 'through' makes it safe
+        // to compact a segment again)
+        if (!users.isEmpty())
+          force(directory.resolve(USERS));
+        for (var base : closed)
+          Files.delete(segmentPath(base));
+      } catch (IOException e) {
+        throw new DomainException("failed to delete segment: " +
+                                  e.getMessage());
+      }
+      return count;
+    }
+  }
+
+  /**
+   * @param user user id
+   * @return totals per Kanji (sorted by ordinal) for answers that have been
+   *     compacted for {@code user}
+   * @throws DomainException if reading fails or the file is corrupt
+   */
+  public List<Aggregate> getAggregates(long user) {
+    synchronized (compactLock) {
+      return readAggregates(user).toList();
+    }
+  }
+
+  /**
+   * write any remaining answers and stop the writer thread
+   *
+   * @throws DomainException if writing fails
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closing)
+        return;
+      closing = true;
+      notifyAll();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new DomainException("failed to close answer log: " +
+                                e.getMessage());
+    }
+    synchronized (this) {
+      if (error != null)
+        throw error;
+    }
+  }
+
+  private static ByteBuffer newBuffer() {
+    return ByteBuffer.allocate(BATCH_RECORDS * RECORD_BYTES);
+  }
+
+  // visit records from the start of 'channel' to 'end' (stops at the first
+  // incomplete record or checksum mismatch) and return the number visited
+  private static long scan(FileChannel channel, long base, long end,
+      Visitor visitor) throws IOException {
+    final var crc = new CRC32C();
+    var count = 0L;
+    for (var start = (long) HEADER_BYTES; start + RECORD_BYTES <= end;
+         start += MAP_BYTES) {
+      final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, start,
+          Math.min(MAP_BYTES, (end - start) / RECORD_BYTES * RECORD_BYTES));
+      final var size = buffer.capacity();
+      for (var i = 0; i < size; i += RECORD_BYTES, ++count) {
+        crc.reset();
+        crc.update(buffer.limit(i + CRC).position(i));
+        buffer.limit(size);
+        if ((int) crc.getValue() != buffer.getInt(i + CRC))
+          return count;
+        if (visitor != null)
+          visitor.visit(base + count, buffer.getLong(i),
+              buffer.getInt(i + ORDINAL), buffer.getLong(i + TIME),
+              buffer.get(i + CORRECT) != 0, buffer.getInt(i + LATENCY));
+      }
+    }
+    return count;
+  }
+
+  private static void writeHeader(FileChannel channel, long base)
+      throws IOException {
+    final var header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC)
+        .putInt(VERSION).putLong(base).flip();
+    while (header.hasRemaining())
+      channel.write(header);
+    channel.force(false);
+  }
+
+  private void checkHeader(FileChannel channel, long base) throws IOException {
+    final var header = ByteBuffer.allocate(HEADER_BYTES);
+    channel.read(header, 0);
+    if (header.hasRemaining() || header.getInt(0) != MAGIC ||
+        header.getInt(4) != VERSION || header.getLong(8) != base)
+      throw new DomainException("corrupt answer log: " +
+                                segmentPath(base).getFileName());
+  }
+
+  private Path segmentPath(long base) {
+    return directory.resolve("answers-" + base + ".log");
+  }
+
+  private Path aggregatePath(long user) {
+    return directory.resolve(USERS).resolve(user + AGGREGATE_SUFFIX);
+  }
+
+  // sorted base sequence numbers of all segments
+  private List<Long> segments() {
+    try (var files = Files.list(directory)) {
+      return files.map(x -> segmentName.matcher(x.getFileName().toString()))
+          .filter(x -> x.matches()).map(x -> Long.parseLong(x.group(1)))
+          .sorted().toList();
+    } catch (IOException e) {
+      throw new DomainException("failed to list answer log: " +
+                                e.getMessage());
+    }
+  }
+
+  private FileChannel create(long base) throws IOException {
+    final var result = FileChannel.open(segmentPath(base), CREATE_NEW, WRITE);
+    writeHeader(result, base);
+    force(directory);
+    return result;
+  }
+
+  // force a directory so entries for files created (or moved) in it survive a
+  // crash (forcing a file doesn't include its directory entry)
+  private static void force(Path dir) throws IOException {
+    try (var channel = FileChannel.open(dir, READ)) {
+      channel.force(true);
+    }
+  }
+
+  // remove temporary files left by a crash during 'writeAggregates'
+  private void deleteTempFiles() throws IOException {
+    try (var files = Files.newDirectoryStream(directory.resolve(USERS),
+        TEMP_PREFIX + "*" + TEMP_SUFFIX)) {
+      for (var file : files)
+        Files.delete(file);
+    }
+  }
+
+  private void checkOpen() {
+    if (error != null)
+      throw error;
+    if (closing)
+      throw new DomainException("answer log is closed");
+  }
+
+  // must be called while holding the lock on 'this'
+  private void await() {
+    try {
+      wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DomainException("interrupted while waiting for answer log");
+    }
+  }
+
+  // runs on the writer thread until the log is closed or a write fails
+  private void write() {
+    try {
+      for (;;) {
+        final ByteBuffer batch;
+        final long end;
+        final boolean newSegment;
+        synchronized (this) {
+          while (buffer.position() == 0 && !rotate && !closing)
+            wait();
+          if (buffer.position() == 0 && closing)
+            return;
+          batch = buffer;
+          buffer = spare;
+          spare = batch;
+          end = next;
+          newSegment = rotate;
+          rotate = false;
+          notifyAll(); // appends may be waiting for space
+        }
+        batch.flip();
+        if (batch.hasRemaining()) {
+          while (batch.hasRemaining())
+            channel.write(batch);
+          channel.force(false);
+        }
+        batch.clear();
+        if (newSegment) {
+          channel.close();
+          channel = create(end);
+        }
+        synchronized (this) {
+          durable = end;
+          if (newSegment)
+            segment = end;
+          notifyAll();
+        }
+      }
+    } catch (IOException e) {
+      synchronized (this) {
+        error = new DomainException("failed to write answer log: " +
+                                    e.getMessage());
+        notifyAll();
+      }
+    } catch (InterruptedException e) {
+      // not expected since the thread is private (and stopped by 'close')
+    }
+  }
+
+  private Aggregates readAggregates(long user) {
+    final var path = aggregatePath(user);
+    final var result = new Aggregates();
+    if (!Files.exists(path))
+      return result;
+    try {
+      final var in = ByteBuffer.wrap(Files.readAllBytes(path));
+      if (in.getInt() != AGGREGATE_MAGIC || in.getInt() != VERSION)
+        throw new DomainException("corrupt aggregate file: " +
+                                  path.getFileName());
+      result.through = in.getLong();
+      for (var i = in.getInt(); i > 0; --i) {
+        final var a = new Aggregate(in.getInt(), in.getInt(), in.getInt(),
+            in.getLong(), in.getLong());
+        result.totals.put(a.ordinal, a);
+      }
+      return result;
+    } catch (IOException e) {
+      throw new DomainException("failed to read '" + path + "': " +
+                                e.getMessage());
+    } catch (BufferUnderflowException e) {
+      throw new DomainException("corrupt aggregate file: " +
+                                path.getFileName());
+    }
+  }
+
+  // write to a temporary file first so readers never see a partial file
+  private void writeAggregates(long user, Aggregates aggregates, long through) {
+    final var path = aggregatePath(user);
+    final var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeInt(AGGREGATE_MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(through);
+      out.writeInt(aggregates.totals.size());
+      for (var a : aggregates.totals.values()) {
+        out.writeInt(a.ordinal);
+        out.writeInt(a.answers);
+        out.writeInt(a.correct);
+        out.writeLong(a.latency);
+        out.writeLong(a.last);
+      }
+      final var temp =
+          Files.createTempFile(path.getParent(), TEMP_PREFIX, TEMP_SUFFIX);
+      try (var file = FileChannel.open(temp, WRITE)) {
+        final var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining())
+          file.write(buffer);
+        file.force(false);
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new DomainException("failed to write '" + path + "': " +
+                                e.getMessage());
+    }
+  }
+
+  /**
+   * called for each answer read from a log
+   */
+  @FunctionalInterface
+  public interface Visitor {
+    void visit(long sequence, long user, int ordinal, long time,
+        boolean correct, int latency);
+  }
+
+  /**
+   * totals for one user and Kanji
+   *
+   * @param ordinal Kanji ordinal
+   * @param answers number of answers
+   * @param correct number of correct answers
+   * @param latency total latency in milliseconds
+   * @param last    time of the latest answer in milliseconds since the epoch
+   */
+  public record Aggregate(int ordinal, int answers, int correct, long latency,
+                          long last) {}
+
+  /**
+   * aggregates for one user being merged during compaction
+   */
+  private static final class Aggregates {
+    private final Map<Integer, Aggregate> totals = new TreeMap<>();
+    private long through; // answers before this sequence are already included
+
+    void add(long sequence, int ordinal, long time, boolean correct,
+        int latency) {
+      if (sequence < through)
+        return;
+      final var a = totals.get(ordinal);
+      totals.put(ordinal, a == null ?
+          new Aggregate(ordinal, 1, correct ? 1 : 0, latency, time) :
+          new Aggregate(ordinal, a.answers + 1, a.correct + (correct ? 1 : 0),
+              a.latency + latency, Math.max(a.last, time)));
+    }
+
+    List<Aggregate> toList() {
+      return new ArrayList<>(totals.values());
+    }
+  }
+}
@@ -2,64 +2,123 @@ package com.github.anzumura.kt;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * class for loading data from a delimiter separated file with a header row
  * containing the column names
  */
-public class ColumnFile {
-  private static final HashMap<String, Integer> allColumns = new HashMap<>();
-  private static final int COLUMN_NOT_FOUND = -1, NO_MAX_VALUE = -1;
+public class ColumnFile implements Row {
+  // global registry of column numbers (Columns can be created concurrently)
+  private static final ConcurrentHashMap<String, Integer> allColumns =
+      new ConcurrentHashMap<>();
+  private static final AtomicInteger nextColumnNumber = new AtomicInteger();
+  private static final int NO_MAX_VALUE = -1;
+  // parallel loading uses a few chunks per thread to balance the work, but
+  // chunks shouldn't be too small (to avoid overhead for small files)
+  private static final int CHUNKS_PER_THREAD = 4, MIN_CHUNK_BYTES = 64 * 1024;
 
   private final String fileName;
-  private final String delimiter;
+  private final Splitter splitter;
   private final BufferedReader reader;
+  private final FileChannel channel;
+  private final RowScanner scanner;
   private final String[] rowValues;
-  private final int[] columnToPosition;
+  // start and end offsets of each value (only used when memory-mapped)
+  private final int[] valueStarts, valueEnds;
+  private final ColumnPositions columnToPosition;
+  // number of globally registered columns when this file was created
+  private final int registeredColumns;
   private int currentRow = 0;
   private boolean closed = false;
 
   /**
    * create a ColumnFile and processes the first 'header' row. Column order in
    * the file is determined by reading the 'header' row - each header name must
-   * be unique and exactly match the name of a Column in {@code columns}.
+   * be unique and exactly match the name of a Column in {@code columns}. The
+   * delimiter is a literal String (it's not treated as a regular expression).
    *
-   * @param path      text file to be read and processed
-   * @param columns   set of columns in the file
-   * @param delimiter column delimiter
-   * @throws DomainException path doesn't exist or failed to read headers or
-   *                         headers don't match {@code columns}
+   * <p>
+   * If {@code memoryMapped} is true then the file is mapped into memory and
+   * rows are scanned directly from UTF-8 bytes. In this mode String values are
+   * only created when {@link #get} is called (and {@link #getUnsignedInt} and
+   * {@link #getBoolean} don't create any Strings).
+   *
+   * @param path         text file to be read and processed
+   * @param columns      set of columns in the file
+   * @param delimiter    column delimiter
+   * @param memoryMapped true to read the file via a memory mapped buffer
+   * @throws DomainException path doesn't exist, delimiter is empty, failed to
+   *                         read headers or headers don't match
+   *                         {@code columns}
    */
-  public ColumnFile(Path path, Set<Column> columns, String delimiter) {
+  public ColumnFile(
+      Path path, Set<Column> columns, String delimiter, boolean memoryMapped) {
     if (columns.isEmpty())
       throw new DomainException("must specify at least one column");
 
     fileName = path.getFileName().toString();
-    this.delimiter = delimiter;
+    splitter = new Splitter(delimiter);
     rowValues = new String[columns.size()];
-    columnToPosition = new int[allColumns.size()];
-    Arrays.fill(columnToPosition, COLUMN_NOT_FOUND);
+    registeredColumns = nextColumnNumber.get();
 
     // process the 'header' row
     try {
-      reader = Files.newBufferedReader(path);
-      var headerRow = reader.readLine();
+      String headerRow;
+      if (memoryMapped) {
+        reader = null;
+        channel = FileChannel.open(path);
+        scanner = new RowScanner(map(channel),
+            delimiter.getBytes(StandardCharsets.UTF_8));
+        valueStarts = new int[columns.size()];
+        valueEnds = new int[columns.size()];
+        headerRow = scanner.nextRow() ? scanner.row() : null;
+      } else {
+        reader = Files.newBufferedReader(path);
+        channel = null;
+        scanner = null;
+        valueStarts = valueEnds = null;
+        headerRow = reader.readLine();
+      }
       if (headerRow == null)
         throw error("missing header row");
-      processHeaderRow(headerRow, columns);
+      columnToPosition = processHeaderRow(headerRow, columns);
     } catch (IOException e) {
       throw new DomainException("failed to read header row: " + e.getMessage());
     }
   }
 
+  /**
+   * calls {@link #ColumnFile(Path, Set, String, boolean)} with memoryMapped set
+   * to false
+   *
+   * @param path      text file to be read and processed
+   * @param columns   set of columns in the file
+   * @param delimiter column delimiter
+   */
+  public ColumnFile(Path path, Set<Column> columns, String delimiter) {
+    this(path, columns, delimiter, false);
+  }
+
   /**
    * calls {@link #ColumnFile(Path, Set, String)} with delimiter set to 'tab'
    *
@@ -70,8 +129,87 @@ public class ColumnFile {
     this(path, columns, "\t");
   }
 
+  /**
+   * create a ColumnFile for a chunk of a memory-mapped file (if scanner is
+   * non-null) or a snapshot of a single row (if scanner is null)
+   *
+   * @param file    file that has already processed its header row
+   * @param scanner scanner for the chunk (or null for a snapshot)
+   * @param values  array for row values (populated for a snapshot)
+   * @param row     number of rows in the file before the chunk (or the row
+   *                number for a snapshot)
+   */
+  private ColumnFile(
+      ColumnFile file, RowScanner scanner, String[] values, int row) {
+    fileName = file.fileName;
+    splitter = file.splitter;
+    reader = null;
+    channel = null;
+    this.scanner = scanner;
+    rowValues = values;
+    valueStarts = scanner == null ? null : new int[values.length];
+    valueEnds = scanner == null ? null : new int[values.length];
+    columnToPosition = file.columnToPosition;
+    registeredColumns = file.registeredColumns;
+    currentRow = row;
+  }
+
+  /**
+   * load all data rows of a file in parallel. The file is memory-mapped and the
+   * rows after the header are split into chunks (aligned on row boundaries)
+   * which are processed on ForkJoinPool common pool threads. Each chunk has its
+   * own row values so {@code mapper} can be called concurrently, but it should
+   * only use the {@code Row} it's given while it's being called.
+   * <p>
+   * Unlike {@link #nextRow}, processing stops at the first bad row (though row
+   * numbers in exception messages are still correct).
+   *
+   * @param path      text file to be read and processed
+   * @param columns   set of columns in the file
+   * @param delimiter column delimiter
+   * @param mapper    function called for each row
+   * @param <T>       type returned by {@code mapper}
+   * @return unmodifiable list of {@code mapper} results in file order
+   * @throws DomainException if opening the file or processing any row fails
+   */
+  public static <T> List<T> loadParallel(Path path, Set<Column> columns,
+      String delimiter, Function<? super Row, ? extends T> mapper) {
+    return loadParallel(path, columns, delimiter, mapper, 0);
+  }
+
+  /**
+   * same as {@link #loadParallel(Path, Set, String, Function)}, but allows
+   * specifying the number of chunks (for testing)
+   *
+   * @param chunks number of chunks, 0 means choose based on file size and the
+   *               number of threads
+   */
+  static <T> List<T> loadParallel(Path path, Set<Column> columns,
+      String delimiter, Function<? super Row, ? extends T> mapper, int chunks) {
+    final var file = new ColumnFile(path, columns, delimiter, true);
+    try {
+      return file.loadChunks(mapper, chunks);
+    } finally {
+      try {
+        file.closeReader();
+      } catch (IOException e) {
+        // don't hide an exception from loading (and the data is loaded anyway)
+      }
+    }
+  }
+
   private static int getColumnNumber(String name) {
-    return allColumns.computeIfAbsent(name, k -> allColumns.size());
+    // try 'get' first since it never locks (computeIfAbsent can lock a bin)
+    final var number = allColumns.get(name);
+    return number != null ? number : allColumns.computeIfAbsent(name,
+        k -> nextColumnNumber.getAndIncrement());
+  }
+
+  private static ByteBuffer map(FileChannel channel) throws IOException {
+    final var size = channel.size();
+    if (size > Integer.MAX_VALUE)
+      throw new IOException("file too large to map: " + size + " bytes");
+    return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
   }
 
   /**
@@ -84,6 +222,7 @@ public class ColumnFile {
   /**
    * @return current row number, 0 indicated no data rows have been read yet
    */
+  @Override
   public int currentRow() {
     return currentRow;
   }
@@ -102,30 +241,66 @@ public class ColumnFile {
       throw new DomainException("file: '" + fileName + "' has been closed");
     if (processNextRow())
       return true;
-    try {
-      closeReader();
-      closed = true;
-    } catch (IOException e) {
-      throw new DomainException("failed to close reader: " + e.getMessage());
-    }
+    close();
     return false;
   }
 
+  /**
+   * calls {@link #stream(boolean)} with reuseRow set to false
+   *
+   * @return stream of the remaining rows
+   */
+  public Stream<Row> stream() {
+    return stream(false);
+  }
+
+  /**
+   * create a lazily evaluated stream of the remaining rows in this file. Rows
+   * are only read as the stream is consumed so operations like 'findFirst' or
+   * 'limit' stop reading early. The file is closed when the stream is
+   * exhausted or closed (use try-with-resources if the stream might not be
+   * fully consumed) and this ColumnFile shouldn't be used directly after
+   * calling this method.
+   * <p>
+   * If {@code reuseRow} is true then the same Row object is passed for each row
+   * (avoiding allocation), but it's only valid until the next row is read so
+   * it must not be stored or collected (mapping it to another object is fine).
+   * Otherwise each row is a separate Row object with its own values.
+   * <p>
+   * Streams for memory-mapped files can be split (on row boundaries) for use
+   * in parallel streams, other streams are sequential only. A bad row causes an
+   * exception to be thrown and ends the stream.
+   *
+   * @param reuseRow true to use the same Row object for every row
+   * @return stream of the remaining rows
+   * @throws DomainException if this file has been closed
+   */
+  public Stream<Row> stream(boolean reuseRow) {
+    if (closed)
+      throw new DomainException("file: '" + fileName + "' has been closed");
+    if (scanner != null) {
+      final var cursor =
+          new ColumnFile(this, scanner.range(scanner.position(), scanner.end()),
+              new String[numColumns()], currentRow);
+      close(); // the mapped buffer is still valid after closing the channel
+      return StreamSupport.stream(new RowSpliterator(cursor, reuseRow), false);
+    }
+    return StreamSupport.stream(new RowSpliterator(this, reuseRow), false)
+        .onClose(() -> {
+          if (!closed)
+            close();
+        });
+  }
+
   /**
    * @param column column contained in this file
    * @return string value for the given {@code column} in current row
    * @throws DomainException if nextRow hasn't been called yet or the given
    *                         column isn't part of this file
    */
+  @Override
   public String get(Column column) {
-    if (currentRow == 0)
-      throw error("'nextRow' must be called before calling 'get'");
-    if (column.getNumber() >= columnToPosition.length)
-      throw error("unrecognized column '" + column + "'");
-    final var pos = columnToPosition[column.getNumber()];
-    if (pos == COLUMN_NOT_FOUND)
-      throw error("invalid column '" + column + "'");
-    return rowValues[pos];
+    return value(position(column));
   }
 
   /**
@@ -134,8 +309,9 @@ public class ColumnFile {
    * @throws DomainException if {@link #get} fails or value can't be converted
    *                         to an unsigned int
    */
+  @Override
   public int getUnsignedInt(Column column) {
-    return processUnsignedInt(get(column), column, NO_MAX_VALUE);
+    return getUnsignedInt(column, NO_MAX_VALUE);
   }
 
   /**
@@ -146,8 +322,13 @@ public class ColumnFile {
    * @throws DomainException if unable to get unsigned int less than or equal to
    *                         {@code maxValue}
    */
+  @Override
   public int getUnsignedInt(Column column, int maxValue) {
-    return processUnsignedInt(get(column), column, maxValue);
+    final var pos = position(column);
+    final var result = processUnsignedInt(pos, column);
+    if (maxValue >= 0 && maxValue < result)
+      throw error("exceeded max value of " + maxValue, column, value(pos));
+    return result;
   }
 
   /**
@@ -155,8 +336,17 @@ public class ColumnFile {
    * @return true for "Y" or "T", false for "N", "F" or ""
    * @throws DomainException if {@link #get} fails or value is unrecognized
    */
+  @Override
   public boolean getBoolean(Column column) {
-    final var s = get(column);
+    final var pos = position(column);
+    if (isMappedValue(pos)) {
+      final var b = scanner.singleByte(valueStarts[pos], valueEnds[pos]);
+      if (b == 'Y' || b == 'T')
+        return true;
+      if (b == 'N' || b == 'F' || b == RowScanner.EMPTY)
+        return false;
+    }
+    final var s = value(pos);
     return switch (s) {
       case "Y", "T" -> true;
       case "N", "F", "" -> false;
@@ -169,43 +359,54 @@ public class ColumnFile {
   }
 
   protected void closeReader() throws IOException {
-    reader.close();
+    if (channel != null)
+      channel.close();
+    else if (reader != null)
+      reader.close();
+  }
+
+  private void close() {
+    try {
+      closeReader();
+      closed = true;
+    } catch (IOException e) {
+      throw new DomainException("failed to close reader: " + e.getMessage());
+    }
   }
 
-  private void processHeaderRow(String row, Set<Column> columns) {
+  private ColumnPositions processHeaderRow(String row, Set<Column> columns) {
     final var cols = columns.stream()
         .collect(Collectors.toMap(Column::getName, Function.identity()));
     final var foundCols = new HashSet<String>();
-    var pos = 0;
-    for (var header : row.split(delimiter)) {
+    final var columnNumbers = new int[columns.size()];
+    for (int pos = 0, start = 0; start >= 0; ++pos) {
+      final var end = splitter.indexOf(row, start);
+      final var header =
+          end < 0 ? row.substring(start) : row.substring(start, end);
       if (!foundCols.add(header))
         throw error("duplicate header '" + header + "'");
       final var c = cols.remove(header);
       if (c == null)
         throw error("unrecognized header '" + header + "'");
-      columnToPosition[c.getNumber()] = pos++;
+      columnNumbers[pos] = c.getNumber();
+      start = end < 0 ? -1 : end + splitter.length();
     }
     if (cols.size() == 1)
       throw error("column '" + cols.keySet().iterator().next() + "' not found");
     if (cols.size() > 1)
       throw error(cols.size() + " columns not found: '" + cols.keySet().stream()
           .sorted().collect(Collectors.joining("', '")) + "'");
+    return new ColumnPositions(columnNumbers);
   }
 
   private boolean processNextRow() {
+    if (scanner != null)
+      return processNextMappedRow();
     try {
       final var row = readRow();
       if (row != null) {
         ++currentRow;
-        var pos = 0;
-        // pass -1 to split to force it to keep empty strings at the end
-        for (var field : row.split(delimiter, -1)) {
-          if (pos == numColumns())
-            throw error("too many columns");
-          rowValues[pos++] = field;
-        }
-        if (pos < numColumns())
-          throw error("not enough columns");
+        checkValues(splitter.split(row, rowValues));
         return true;
       }
     } catch (IOException e) {
@@ -214,16 +415,105 @@ public class ColumnFile {
     return false;
   }
 
-  private int processUnsignedInt(String s, Column column, int max) {
-    int result;
+  private boolean processNextMappedRow() {
+    if (!scanner.nextRow())
+      return false;
+    ++currentRow;
+    Arrays.fill(rowValues, null);
+    checkValues(scanner.split(valueStarts, valueEnds));
+    return true;
+  }
+
+  private <T> List<T> loadChunks(
+      Function<? super Row, ? extends T> mapper, int chunks) {
+    final int start = scanner.position(), end = scanner.end();
+    if (chunks <= 0)
+      chunks = Math.max(1, Math.min(
+          ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD,
+          (end - start) / MIN_CHUNK_BYTES));
+    // split into roughly equal size chunks that start at the beginning of rows
+    final var bounds = new int[chunks + 1];
+    bounds[0] = start;
+    bounds[chunks] = end;
+    for (var i = 1; i < chunks; ++i)
+      bounds[i] = scanner.rowBoundary(Math.max(bounds[i - 1],
+          start + (int) ((long) (end - start) * i / chunks)));
+    // count rows per chunk so that row numbers (used in error messages) are
+    // correct when the chunks are processed
+    final var firstRows = IntStream.range(0, chunks).parallel()
+        .map(i -> scanner.range(bounds[i], bounds[i + 1]).countRows())
+        .toArray();
+    for (int i = 0, rows = 0; i < chunks; ++i) {
+      final var chunkRows = firstRows[i];
+      firstRows[i] = rows;
+      rows += chunkRows;
+    }
+    return IntStream.range(0, chunks).parallel()
+        .mapToObj(i -> new ColumnFile(this,
+            scanner.range(bounds[i], bounds[i + 1]), new String[numColumns()],
+            firstRows[i]))
+        .<T>flatMap(f -> f.mapRows(mapper).stream()).toList();
+  }
+
+  private <T> List<T> mapRows(Function<? super Row, ? extends T> mapper) {
+    final var result = new ArrayList<T>();
+    while (processNextMappedRow())
+      result.add(mapper.apply(this));
+    return result;
+  }
+
+  // create a copy of the current row
+  private Row snapshot() {
+    final var values = new String[numColumns()];
+    for (var pos = 0; pos < values.length; ++pos)
+      values[pos] = value(pos);
+    return new ColumnFile(this, null, values, currentRow);
+  }
+
+  private void checkValues(int values) {
+    if (values > numColumns())
+      throw error("too many columns");
+    if (values < numColumns())
+      throw error("not enough columns");
+  }
+
+  private int position(Column column) {
+    if (currentRow == 0)
+      throw error("'nextRow' must be called before calling 'get'");
+    if (column.getNumber() >= registeredColumns)
+      throw error("unrecognized column '" + column + "'");
+    final var pos = columnToPosition.get(column.getNumber());
+    if (pos == ColumnPositions.NOT_FOUND)
+      throw error("invalid column '" + column + "'");
+    return pos;
+  }
+
+  // returns true if the value at 'pos' hasn't been converted to a String yet
+  private boolean isMappedValue(int pos) {
+    return scanner != null && rowValues[pos] == null;
+  }
+
+  private String value(int pos) {
+    // values are created on demand (and then cached) when memory-mapped
+    if (isMappedValue(pos))
+      rowValues[pos] = scanner.string(valueStarts[pos], valueEnds[pos]);
+    return rowValues[pos];
+  }
+
+  private int processUnsignedInt(int pos, Column column) {
+    if (isMappedValue(pos)) {
+      final var result = scanner.unsignedInt(valueStarts[pos], valueEnds[pos]);
+      if (result >= 0)
+        return (int) result;
+      // fall through to use the String value (which can handle non-ASCII
+      // digits and creates the error message)
+    }
+    final var s = value(pos);
     try {
-      result = Integer.parseUnsignedInt(s);
+      return Integer.parseUnsignedInt(s);
     } catch (NumberFormatException e) {
       throw error("convert to unsigned int failed", column, s);
     }
-    if (max >= 0 && max < result)
-      throw error("exceeded max value of " + max, column, s);
-    return result;
   }
 
   private DomainException error(String msg) {
@@ -242,6 +532,66 @@ public class ColumnFile {
     return result;
   }
 
+  /**
+   * Spliterator over the rows of a ColumnFile. For memory-mapped files the
+   * 'cursor' is a chunk that can be split in half (on a row boundary).
+   */
+  private static final class RowSpliterator implements Spliterator<Row> {
+    private static final int MIN_SPLIT_BYTES = 1024;
+
+    private final boolean reuseRow;
+    private ColumnFile cursor;
+    private boolean done = false;
+
+    RowSpliterator(ColumnFile cursor, boolean reuseRow) {
+      this.cursor = cursor;
+      this.reuseRow = reuseRow;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+      if (done)
+        return false;
+      if (!cursor.nextRow()) {
+        done = true;
+        return false;
+      }
+      action.accept(reuseRow ? cursor : cursor.snapshot());
+      return true;
+    }
+
+    @Override
+    public Spliterator<Row> trySplit() {
+      final var s = cursor.scanner;
+      if (done || s == null || s.end() - s.position() < MIN_SPLIT_BYTES)
+        return null;
+      final int start = s.position(), end = s.end();
+      final var mid = s.rowBoundary(start + (end - start) / 2);
+      if (mid >= end)
+        return null;
+      final var prefix = s.range(start, mid);
+      final var rows = cursor.currentRow;
+      final var result = new RowSpliterator(new ColumnFile(cursor, prefix,
+          new String[cursor.numColumns()], rows), reuseRow);
+      cursor = new ColumnFile(cursor, s.range(mid, end),
+          new String[cursor.numColumns()],
+          rows + s.range(start, mid).countRows());
+      return result;
+    }
+
+    @Override
+    public long estimateSize() {
+      // use remaining bytes as an estimate (unknown for non-mapped files)
+      final var s = cursor.scanner;
+      return done ? 0 : s == null ? Long.MAX_VALUE : s.end() - s.position();
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL;
+    }
+  }
+
   /**
    * represents a column in a {@code ColumnFile}. Instances are used to get
    * values from each row and the same Column instance can be used in multiple
@@ -278,6 +628,11 @@ public class ColumnFile {
       return other instanceof Column x && number == x.number;
     }
 
+    @Override
+    public int hashCode() {
+      return number;
+    }
+
     @Override
     public String toString() {
       return name;
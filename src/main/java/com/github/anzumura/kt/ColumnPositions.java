@@ -0,0 +1,70 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+
+/**
+ * maps global column numbers to positions in a ColumnFile. The table is sized
+ * based on the number of columns in the file (not the total number of
+ * registered columns or the largest column number): it's an open addressing
+ * table with at least twice as many slots as columns and linear probing, so
+ * lookup is usually one array access plus a compare.
+ */
+final class ColumnPositions {
+  /**
+   * returned by {@link #get} if a column number isn't in the table
+   */
+  static final int NOT_FOUND = -1;
+
+  private static final int EMPTY = -1;
+
+  private final int shift;
+  private final int[] numbers, positions;
+
+  /**
+   * @param columnNumbers column numbers (globally unique and non-negative)
+   *                      indexed by position
+   */
+  ColumnPositions(int[] columnNumbers) {
+    final var size = Math.max(2, nextPowerOfTwo(2 * columnNumbers.length));
+    shift = Integer.SIZE - Integer.numberOfTrailingZeros(size);
+    numbers = new int[size];
+    positions = new int[size];
+    Arrays.fill(numbers, EMPTY);
+    for (var pos = 0; pos < columnNumbers.length; ++pos) {
+      var slot = slot(columnNumbers[pos]);
+      while (numbers[slot] != EMPTY)
+        slot = (slot + 1) & (size - 1);
+      numbers[slot] = columnNumbers[pos];
+      positions[slot] = pos;
+    }
+  }
+
+  private static int nextPowerOfTwo(int x) {
+    return x <= 1 ? 1 : Integer.highestOneBit(x - 1) << 1;
+  }
+
+  // use the high bits of a multiplicative hash so column numbers that only
+  // differ in their high bits still spread over the table
+  private int slot(int number) {
+    return (number * 0x9e3779b9) >>> shift;
+  }
+
+  /**
+   * @param number column number
+   * @return position of the column or {@link #NOT_FOUND}
+   */
+  int get(int number) {
+    for (var slot = slot(number); numbers[slot] != EMPTY;
+         slot = (slot + 1) & (numbers.length - 1))
+      if (numbers[slot] == number)
+        return positions[slot];
+    return NOT_FOUND;
+  }
+
+  /**
+   * @return number of slots in the table
+   */
+  int size() {
+    return numbers.length;
+  }
+}
@@ -9,7 +9,7 @@ import java.util.Optional;
  * also not supposed to be in 'frequency.txt'.
  */
 public final class ExtraKanji extends Kanji.Numbered {
-  private final String newName;
+  private final Optional<String> newName; // created once to avoid allocation
 
   /**
    * see Kanji class 'get' methods for details on parameters
@@ -19,7 +19,8 @@ public final class ExtraKanji extends Kanji.Numbered {
       Kyu kyu, int number, String newName) {
     super(new Fields(name, radical, strokes),
         new LoadedFields(meaning, reading), new NumberedFields(kyu, number));
-    this.newName = newName.isEmpty() ? null : newName;
+    this.newName =
+        newName.isEmpty() ? Optional.empty() : Optional.of(newName);
   }
 
   @Override
@@ -29,6 +30,6 @@ public final class ExtraKanji extends Kanji.Numbered {
 
   @Override
   public Optional<String> getNewName() {
-    return Optional.ofNullable(newName);
+    return newName;
   }
 }
@@ -247,26 +247,36 @@ public abstract sealed class Kanji permits Kanji.Loaded, Kanji.Linked {
       LinkedJinmeiKanji, LinkedOldKanji {
 
     private final LinkedFields fields;
+    // values from 'link' are copied (and Optionals are created once) so that
+    // getters don't delegate or allocate (links are immutable)
+    private final String meaning, reading;
+    private final Optional<Kanji> link;
+    private final Optional<String> newName;
 
     protected Linked(
         Fields fields, LinkedFields linked) {
       super(fields);
       this.fields = linked;
+      // 'link' is checked by derived classes (so allow null here)
+      link = Optional.ofNullable(linked.link);
+      meaning = link.map(Kanji::getMeaning).orElse(null);
+      reading = link.map(Kanji::getReading).orElse(null);
+      newName = link.map(Kanji::getName);
     }
 
     @Override
     public String getMeaning() {
-      return fields.link.getMeaning();
+      return meaning;
     }
 
     @Override
     public String getReading() {
-      return fields.link.getReading();
+      return reading;
     }
 
     @Override
     public Optional<String> getNewName() {
-      return Optional.of(fields.link.getName());
+      return newName;
     }
 
     @Override
@@ -286,7 +296,7 @@ public abstract sealed class Kanji permits Kanji.Loaded, Kanji.Linked {
 
     @Override
     public Optional<Kanji> getLink() {
-      return Optional.of(fields.link);
+      return link;
     }
 
     /**
@@ -338,11 +348,14 @@ public abstract sealed class Kanji permits Kanji.Loaded, Kanji.Linked {
       UcdKanji {
 
     private final OtherFields fields;
+    private final Optional<String> newName; // created once to avoid allocation
 
     protected Other(
         Fields fields, LoadedFields loaded, OtherFields other) {
       super(fields, loaded);
       this.fields = other;
+      newName = other.linkNames.isEmpty() || other.oldLinks ? Optional.empty() :
+          Optional.of(other.linkNames.get(0));
     }
 
     @Override
@@ -352,8 +365,7 @@ public abstract sealed class Kanji permits Kanji.Loaded, Kanji.Linked {
 
     @Override
     public Optional<String> getNewName() {
-      return fields.linkNames.isEmpty() || fields.oldLinks ? Optional.empty() :
-          Optional.of(fields.linkNames.get(0));
+      return newName;
     }
 
     @Override
@@ -361,6 +373,21 @@ public abstract sealed class Kanji permits Kanji.Loaded, Kanji.Linked {
       return fields.linkedReadings;
     }
 
+    /**
+     * @return true if {@link #getLinkNames} are 'old names' as opposed to 'new
+     *     names' (only the first 'new name' is returned by {@link #getNewName})
+     */
+    public boolean hasOldLinks() {
+      return fields.oldLinks;
+    }
+
+    /**
+     * @return all link names loaded from 'ucd.txt' (usually empty)
+     */
+    public List<String> getLinkNames() {
+      return fields.linkNames;
+    }
+
     /**
      * additional fields for Other Kanji classes
      */
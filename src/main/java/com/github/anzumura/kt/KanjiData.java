@@ -0,0 +1,157 @@
+package com.github.anzumura.kt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static com.github.anzumura.kt.Kanji.Type;
+
+/**
+ * immutable snapshot of all loaded Kanji plus lists and indexes built from
+ * them. A new instance is created for each (re)load and published as a whole
+ * (see {@link KanjiStore}) so readers always see a consistent set of Kanji and
+ * indexes. All members are immutable so an instance can be shared by any
+ * number of threads without locking.
+ */
+public final class KanjiData {
+  private static final Type[] types = Type.values();
+  private static final KanjiData EMPTY = new KanjiData(List.of());
+
+  private final List<Kanji> kanji;
+  private final List<List<Kanji>> typeLists;
+  private final KanjiIndex index;
+  private final KanjiQuery query;
+  private final ReadingIndex readings;
+  private final MeaningIndex meanings;
+  private final VariantGraph variants;
+  private final QuestionGenerator questions;
+
+  private KanjiData(List<? extends Kanji> kanji) {
+    index = KanjiIndex.of(kanji);
+    this.kanji = index.getKanji();
+    final var lists = new ArrayList<List<Kanji>>(types.length);
+    for (var i = 0; i < types.length; ++i)
+      lists.add(new ArrayList<>());
+    for (var k : this.kanji)
+      lists.get(k.getType().ordinal()).add(k);
+    lists.replaceAll(List::copyOf);
+    typeLists = List.copyOf(lists);
+    query = KanjiQuery.of(this.kanji);
+    readings = ReadingIndex.of(this.kanji);
+    meanings = MeaningIndex.of(this.kanji);
+    variants = VariantGraph.of(index);
+    questions = QuestionGenerator.of(this.kanji, query.getGroups(), readings);
+  }
+
+  /**
+   * @return snapshot with no Kanji (used before the first load completes)
+   */
+  public static KanjiData empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @param kanji list of Kanji (names must be unique)
+   * @return new snapshot
+   * @throws DomainException if a name isn't a single code point or is a
+   *                         duplicate
+   */
+  public static KanjiData of(List<? extends Kanji> kanji) {
+    return new KanjiData(kanji);
+  }
+
+  /**
+   * merge Kanji from multiple sources by {@link Type} precedence: when names
+   * are the same the Kanji with the lowest Type ordinal is kept (and for the
+   * same Type the one from the earliest source)
+   *
+   * @param sources Kanji from each source in source order
+   * @return merged list in Type order (then source order within a Type)
+   */
+  static List<Kanji> merge(List<? extends List<? extends Kanji>> sources) {
+    final var all = new ArrayList<Kanji>();
+    for (var kanji : sources)
+      all.addAll(kanji);
+    all.sort(Comparator.comparing(Kanji::getType)); // stable sort
+    final var names = new HashSet<String>();
+    final var result = new ArrayList<Kanji>(all.size());
+    for (var k : all)
+      if (names.add(k.getName()))
+        result.add(k);
+    return result;
+  }
+
+  /**
+   * @return number of Kanji
+   */
+  public int size() {
+    return kanji.size();
+  }
+
+  /**
+   * @return all Kanji (ordinals used by indexes are positions in this list)
+   */
+  public List<Kanji> getKanji() {
+    return kanji;
+  }
+
+  /**
+   * @param type Kanji type
+   * @return Kanji of {@code type} in the same order as {@link #getKanji}
+   */
+  public List<Kanji> getKanji(Type type) {
+    return typeLists.get(type.ordinal());
+  }
+
+  /**
+   * @return index of Kanji by name
+   */
+  public KanjiIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * @return query engine (which includes {@link KanjiGroups})
+   */
+  public KanjiQuery getQuery() {
+    return query;
+  }
+
+  /**
+   * @return index of Kanji by reading
+   */
+  public ReadingIndex getReadings() {
+    return readings;
+  }
+
+  /**
+   * @return index of Kanji by meaning keywords
+   */
+  public MeaningIndex getMeanings() {
+    return meanings;
+  }
+
+  /**
+   * @return links between old and new forms of Kanji
+   */
+  public VariantGraph getVariants() {
+    return variants;
+  }
+
+  /**
+   * @return multiple choice question generator
+   */
+  public QuestionGenerator getQuestions() {
+    return questions;
+  }
+
+  /**
+   * @param name Kanji name
+   * @return Kanji or empty if there's no Kanji with the given name
+   */
+  public Optional<Kanji> get(String name) {
+    return index.get(name);
+  }
+}
@@ -0,0 +1,115 @@
+package com.github.anzumura.kt;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * immutable predicate for selecting Kanji. Filters are evaluated by
+ * {@link KanjiQuery#select} which turns each filter into a {@link KanjiSet} so
+ * combining filters is done with word-parallel bitset operations. Filters are
+ * records so they can be shared between threads and used as map keys (for
+ * example, to cache results of common filters).
+ */
+public sealed interface KanjiFilter {
+  /**
+   * numeric Kanji values that support range filters
+   */
+  enum Field {
+    Strokes, Frequency, Year
+  }
+
+  /**
+   * matches Kanji with the given Type, Grade, Level, Kyu or JinmeiReason
+   */
+  record Is(Enum<?> value) implements KanjiFilter {
+    public Is {
+      if (!(value instanceof Type || value instanceof Grade ||
+          value instanceof Level || value instanceof Kyu ||
+          value instanceof JinmeiReason))
+        throw new DomainException("unsupported value: " + value);
+    }
+  }
+
+  /**
+   * matches Kanji with the given radical
+   */
+  record Radical(String radical) implements KanjiFilter {}
+
+  /**
+   * matches Kanji where {@code field} is in the range [min, max]
+   */
+  record Range(Field field, int min, int max) implements KanjiFilter {}
+
+  /**
+   * matches Kanji that match all filters (so an empty list matches all Kanji)
+   */
+  record And(List<KanjiFilter> filters) implements KanjiFilter {
+    public And {
+      filters = List.copyOf(filters);
+    }
+  }
+
+  /**
+   * matches Kanji that match any filter (so an empty list doesn't match)
+   */
+  record Or(List<KanjiFilter> filters) implements KanjiFilter {
+    public Or {
+      filters = List.copyOf(filters);
+    }
+  }
+
+  record Not(KanjiFilter filter) implements KanjiFilter {}
+
+  static KanjiFilter is(Type type) {
+    return new Is(type);
+  }
+
+  static KanjiFilter is(Grade grade) {
+    return new Is(grade);
+  }
+
+  static KanjiFilter is(Level level) {
+    return new Is(level);
+  }
+
+  static KanjiFilter is(Kyu kyu) {
+    return new Is(kyu);
+  }
+
+  static KanjiFilter is(JinmeiReason reason) {
+    return new Is(reason);
+  }
+
+  static KanjiFilter radical(String radical) {
+    return new Radical(radical);
+  }
+
+  static KanjiFilter strokes(int min, int max) {
+    return new Range(Field.Strokes, min, max);
+  }
+
+  /**
+   * Kanji without a frequency have frequency 0 so use a minimum of at least 1
+   * to only match Kanji that have a frequency
+   */
+  static KanjiFilter frequency(int min, int max) {
+    return new Range(Field.Frequency, min, max);
+  }
+
+  static KanjiFilter year(int min, int max) {
+    return new Range(Field.Year, min, max);
+  }
+
+  static KanjiFilter and(KanjiFilter... filters) {
+    return new And(List.of(filters));
+  }
+
+  static KanjiFilter or(KanjiFilter... filters) {
+    return new Or(List.of(filters));
+  }
+
+  static KanjiFilter not(KanjiFilter filter) {
+    return new Not(filter);
+  }
+}
@@ -0,0 +1,130 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * immutable secondary indexes for a loaded list of Kanji. Each value of Type,
+ * Grade, Level, Kyu and JinmeiReason as well as each radical and stroke count
+ * has a {@link KanjiSet} of the Kanji with that value (sets use ordinals, i.e.,
+ * positions in the list). Sets are built once so multi-criteria queries are
+ * just bitset intersections, for example:
+ * <pre>{@code
+ *   groups.get(Kyu.KJ1).and(groups.getStrokes(12))
+ * }</pre>
+ */
+public final class KanjiGroups {
+  private final KanjiSet empty;
+  private final KanjiSet[] types, grades, levels, kyus, reasons, strokes;
+  private final Map<String, KanjiSet> radicals;
+
+  private KanjiGroups(List<? extends Kanji> kanji) {
+    final var size = kanji.size();
+    empty = KanjiSet.empty(size);
+    final var typeBits = new long[Type.values().length][];
+    final var gradeBits = new long[Grade.values().length][];
+    final var levelBits = new long[Level.values().length][];
+    final var kyuBits = new long[Kyu.values().length][];
+    final var reasonBits = new long[JinmeiReason.values().length][];
+    var strokeBits = new long[0][];
+    final var radicalBits = new HashMap<String, long[]>();
+    for (var i = 0; i < size; ++i) {
+      final var k = kanji.get(i);
+      set(typeBits, k.getType().ordinal(), i, size);
+      set(gradeBits, k.getGrade().ordinal(), i, size);
+      set(levelBits, k.getLevel().ordinal(), i, size);
+      set(kyuBits, k.getKyu().ordinal(), i, size);
+      set(reasonBits, k.getReason().ordinal(), i, size);
+      if (k.getStrokes() >= strokeBits.length)
+        strokeBits = Arrays.copyOf(strokeBits, k.getStrokes() + 1);
+      set(strokeBits, k.getStrokes(), i, size);
+      KanjiSet.set(radicalBits.computeIfAbsent(k.getRadical(),
+          x -> KanjiSet.words(size)), i);
+    }
+    types = sets(typeBits, size);
+    grades = sets(gradeBits, size);
+    levels = sets(levelBits, size);
+    kyus = sets(kyuBits, size);
+    reasons = sets(reasonBits, size);
+    strokes = sets(strokeBits, size);
+    final var radicalSets = new HashMap<String, KanjiSet>();
+    radicalBits.forEach((r, bits) -> radicalSets.put(r,
+        new KanjiSet(bits, size)));
+    radicals = Map.copyOf(radicalSets);
+  }
+
+  /**
+   * @param kanji list of Kanji
+   * @return new indexes for {@code kanji}
+   */
+  public static KanjiGroups of(List<? extends Kanji> kanji) {
+    return new KanjiGroups(kanji);
+  }
+
+  private static void set(long[][] bits, int value, int ordinal, int size) {
+    if (bits[value] == null)
+      bits[value] = KanjiSet.words(size);
+    KanjiSet.set(bits[value], ordinal);
+  }
+
+  private KanjiSet[] sets(long[][] bits, int size) {
+    final var result = new KanjiSet[bits.length];
+    for (var i = 0; i < bits.length; ++i)
+      result[i] = bits[i] == null ? empty : new KanjiSet(bits[i], size);
+    return result;
+  }
+
+  /**
+   * @return number of Kanji in the list used to build the indexes
+   */
+  public int size() {
+    return empty.capacity();
+  }
+
+  public KanjiSet get(Type type) {
+    return types[type.ordinal()];
+  }
+
+  public KanjiSet get(Grade grade) {
+    return grades[grade.ordinal()];
+  }
+
+  public KanjiSet get(Level level) {
+    return levels[level.ordinal()];
+  }
+
+  public KanjiSet get(Kyu kyu) {
+    return kyus[kyu.ordinal()];
+  }
+
+  public KanjiSet get(JinmeiReason reason) {
+    return reasons[reason.ordinal()];
+  }
+
+  /**
+   * @param radical radical name
+   * @return Kanji with the given radical (empty if there are none)
+   */
+  public KanjiSet getRadical(String radical) {
+    return radicals.getOrDefault(radical, empty);
+  }
+
+  /**
+   * @param count stroke count
+   * @return Kanji with the given stroke count (empty if there are none)
+   */
+  public KanjiSet getStrokes(int count) {
+    return count >= 0 && count < strokes.length ? strokes[count] : empty;
+  }
+
+  /**
+   * @return largest stroke count of any Kanji (0 if there are no Kanji)
+   */
+  public int getMaxStrokes() {
+    return Math.max(strokes.length - 1, 0);
+  }
+}
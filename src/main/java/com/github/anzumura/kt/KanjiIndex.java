@@ -0,0 +1,128 @@
+package com.github.anzumura.kt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * looks up Kanji by name using the Unicode code point of the name as the key.
+ * The index is a two-level dense array: the high bits of a code point select a
+ * 'page' and the low bits select a slot holding the 'ordinal' of a Kanji (its
+ * position in the order used to build the index). Pages without any Kanji
+ * share a single empty page so 'ordinal' lookup is two array accesses (no
+ * hashing, no null checks and no allocation). Kanji names are mostly in a few
+ * BMP blocks so only a small number of pages are allocated.
+ */
+public final class KanjiIndex {
+  /**
+   * returned by the {@code ordinal} methods if a name isn't in the index
+   */
+  public static final int NOT_FOUND = -1;
+
+  private static final int PAGE_BITS = 8, PAGE_SIZE = 1 << PAGE_BITS,
+      PAGE_MASK = PAGE_SIZE - 1;
+  private static final int[] EMPTY_PAGE = new int[PAGE_SIZE];
+
+  static {
+    Arrays.fill(EMPTY_PAGE, NOT_FOUND);
+  }
+
+  private final int[][] pages =
+      new int[(Character.MAX_CODE_POINT >> PAGE_BITS) + 1][];
+  private final List<Kanji> kanji;
+
+  private KanjiIndex(Iterable<? extends Kanji> source) {
+    Arrays.fill(pages, EMPTY_PAGE);
+    final var list = new ArrayList<Kanji>();
+    for (var k : source) {
+      final var codePoint = codePoint(k.getName());
+      if (codePoint == NOT_FOUND)
+        throw new DomainException(
+            "name must be a single code point: '" + k.getName() + "'");
+      var page = pages[codePoint >> PAGE_BITS];
+      if (page == EMPTY_PAGE)
+        pages[codePoint >> PAGE_BITS] = page = EMPTY_PAGE.clone();
+      if (page[codePoint & PAGE_MASK] != NOT_FOUND)
+        throw new DomainException("duplicate name: '" + k.getName() + "'");
+      page[codePoint & PAGE_MASK] = list.size();
+      list.add(k);
+    }
+    kanji = List.copyOf(list);
+  }
+
+  /**
+   * @param kanji Kanji to index (ordinals are assigned in iteration order so
+   *              for a List they match the List positions)
+   * @return new index
+   * @throws DomainException if a name isn't a single code point or if there
+   *                         are duplicate names
+   */
+  public static KanjiIndex of(Iterable<? extends Kanji> kanji) {
+    return new KanjiIndex(kanji);
+  }
+
+  /**
+   * @param name a String
+   * @return code point if {@code name} is a single code point (one char or a
+   *     surrogate pair), otherwise {@link #NOT_FOUND}
+   */
+  public static int codePoint(String name) {
+    return switch (name.length()) {
+      case 1 -> Character.isSurrogate(name.charAt(0)) ? NOT_FOUND :
+          name.charAt(0);
+      case 2 -> Character.isSurrogatePair(name.charAt(0), name.charAt(1)) ?
+          Character.toCodePoint(name.charAt(0), name.charAt(1)) : NOT_FOUND;
+      default -> NOT_FOUND;
+    };
+  }
+
+  /**
+   * @return number of Kanji in the index
+   */
+  public int size() {
+    return kanji.size();
+  }
+
+  /**
+   * @param codePoint Unicode code point
+   * @return ordinal of the Kanji or {@link #NOT_FOUND}
+   */
+  public int ordinal(int codePoint) {
+    return codePoint < 0 || codePoint > Character.MAX_CODE_POINT ? NOT_FOUND :
+        pages[codePoint >> PAGE_BITS][codePoint & PAGE_MASK];
+  }
+
+  /**
+   * @param name Kanji name
+   * @return ordinal of the Kanji or {@link #NOT_FOUND}
+   */
+  public int ordinal(String name) {
+    return ordinal(codePoint(name));
+  }
+
+  /**
+   * @param codePoint Unicode code point
+   * @return Kanji or empty if there's no Kanji for {@code codePoint}
+   */
+  public Optional<Kanji> get(int codePoint) {
+    final var ordinal = ordinal(codePoint);
+    return ordinal == NOT_FOUND ? Optional.empty() :
+        Optional.of(kanji.get(ordinal));
+  }
+
+  /**
+   * @param name Kanji name
+   * @return Kanji or empty if there's no Kanji for {@code name}
+   */
+  public Optional<Kanji> get(String name) {
+    return get(codePoint(name));
+  }
+
+  /**
+   * @return Kanji in the index (in ordinal order)
+   */
+  public List<Kanji> getKanji() {
+    return kanji;
+  }
+}
@@ -0,0 +1,248 @@
+package com.github.anzumura.kt;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.github.anzumura.kt.ColumnFile.Column;
+
+/**
+ * loads Kanji from a set of files as a dependency graph of {@link Stage}s. Each
+ * stage has a 'parse' step (rows of one file via
+ * {@link ColumnFile#loadParallel}) and a 'build' step that creates Kanji from
+ * the parsed rows. Parse steps don't depend on anything so all files are
+ * parsed concurrently on the given executor, but a build step only runs after
+ * the stages it depends on have been built since it may need to look up their
+ * Kanji (like Linked Kanji that need their Jouyou or Jinmei link targets).
+ * <p>
+ * The results of all stages are merged by {@link Kanji.Type} precedence (see
+ * {@link KanjiData#merge}) so the load time is bounded by the slowest chain of
+ * dependent stages instead of the sum of all files.
+ * <p>
+ * Each load creates one {@link StringPool} that's passed to the mappers of all
+ * stages so repeated values (radicals, readings, etc.) share instances across
+ * files, the same as when reading a {@link KanjiSnapshot}.
+ */
+public final class KanjiLoader {
+  private static final String DELIMITER = "\t";
+
+  private final List<Stage<?>> stages;
+  // indexes of all stages each stage depends on (directly or indirectly)
+  private final int[][] dependencies;
+
+  /**
+   * @param stages stages (a stage can only depend on earlier stages)
+   * @throws DomainException if a stage name is repeated or a dependency isn't
+   *                         the name of an earlier stage
+   */
+  public KanjiLoader(List<Stage<?>> stages) {
+    this.stages = List.copyOf(stages);
+    dependencies = new int[this.stages.size()][];
+    final var names = new HashMap<String, Integer>();
+    for (var i = 0; i < this.stages.size(); ++i) {
+      final var stage = this.stages.get(i);
+      final var all = new LinkedHashSet<Integer>();
+      for (var name : stage.dependsOn()) {
+        final var dependency = names.get(name);
+        if (dependency == null)
+          throw new DomainException("stage '" + stage.name() +
+                                    "' depends on unknown stage '" + name +
+                                    "' (dependencies must come first)");
+        all.add(dependency);
+        for (var j : dependencies[dependency])
+          all.add(j);
+      }
+      dependencies[i] = all.stream().mapToInt(Integer::intValue).sorted()
+          .toArray();
+      if (names.put(stage.name(), i) != null)
+        throw new DomainException("duplicate stage: " + stage.name());
+    }
+  }
+
+  /**
+   * load all stages and create a new snapshot
+   *
+   * @param executor executor for parse and build steps (parsing a large file
+   *                 also uses the ForkJoinPool common pool for chunks)
+   * @return new snapshot plus timings
+   * @throws DomainException if parsing or building any stage fails
+   */
+  public Result load(Executor executor) {
+    final var start = System.nanoTime();
+    final var parse = new long[stages.size()];
+    final var build = new long[stages.size()];
+    final var done = new long[stages.size()];
+    final var built = new ArrayList<CompletableFuture<List<Kanji>>>();
+    final var pool = new StringPool();
+    for (var i = 0; i < stages.size(); ++i) {
+      final var deps = new ArrayList<CompletableFuture<List<Kanji>>>();
+      for (var j : dependencies[i])
+        deps.add(built.get(j));
+      built.add(start(stages.get(i), i, deps, executor, pool, parse, build,
+          done));
+    }
+    final List<List<Kanji>> results;
+    try {
+      results = built.stream().map(CompletableFuture::join).toList();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof DomainException d)
+        throw d;
+      throw e;
+    }
+    final var indexStart = System.nanoTime();
+    final var data = KanjiData.of(KanjiData.merge(results));
+    final var end = System.nanoTime();
+    final var timings = new ArrayList<Timing>(stages.size());
+    for (var i = 0; i < stages.size(); ++i)
+      timings.add(new Timing(stages.get(i).name(), results.get(i).size(),
+          Duration.ofNanos(parse[i]), Duration.ofNanos(build[i]),
+          Duration.ofNanos(done[i] - start)));
+    return new Result(data, timings, Duration.ofNanos(end - indexStart),
+        Duration.ofNanos(end - start));
+  }
+
+  // 'join' on the returned future makes the writes to the timing arrays
+  // visible to the caller
+  private static <T> CompletableFuture<List<Kanji>> start(
+      Stage<T> stage, int i, List<CompletableFuture<List<Kanji>>> deps,
+      Executor executor, StringPool pool, long[] parse, long[] build,
+      long[] done) {
+    final var rows = CompletableFuture.supplyAsync(() -> {
+      final var t = System.nanoTime();
+      final List<T> result = ColumnFile.loadParallel(stage.file(),
+          stage.columns(), DELIMITER, row -> stage.mapper().map(row, pool));
+      parse[i] = System.nanoTime() - t;
+      return result;
+    }, executor);
+    final var waitFor = new ArrayList<CompletableFuture<?>>(deps);
+    waitFor.add(rows);
+    return CompletableFuture.allOf(waitFor.toArray(CompletableFuture[]::new))
+        .thenApplyAsync(x -> {
+          final var t = System.nanoTime();
+          final var earlier = deps.isEmpty() ? null : KanjiIndex.of(
+              KanjiData.merge(deps.stream().map(CompletableFuture::join)
+                  .toList()));
+          final List<Kanji> result =
+              List.copyOf(stage.builder().build(rows.join(), earlier));
+          done[i] = System.nanoTime();
+          build[i] = done[i] - t;
+          return result;
+        }, executor);
+  }
+
+  /**
+   * converts a row of a stage's file
+   *
+   * @param <T> type of parsed rows
+   */
+  @FunctionalInterface
+  public interface Mapper<T> {
+    /**
+     * @param row  current row (called concurrently for chunks of large files
+     *             so it shouldn't be kept)
+     * @param pool pool shared by all stages of a load, use it for repeated
+     *             values like radicals, readings and short meanings
+     * @return converted row
+     */
+    T map(Row row, StringPool pool);
+  }
+
+  /**
+   * creates Kanji from the parsed rows of a stage
+   *
+   * @param <T> type of parsed rows
+   */
+  @FunctionalInterface
+  public interface Builder<T> {
+    /**
+     * @param rows    parsed rows in file order
+     * @param earlier Kanji from the stages this stage depends on (directly or
+     *                indirectly) or null if it has no dependencies
+     * @return Kanji for the stage
+     * @throws DomainException if a row is invalid (like a missing link)
+     */
+    List<? extends Kanji> build(List<T> rows, KanjiIndex earlier);
+  }
+
+  /**
+   * one file in the load graph
+   *
+   * @param name      unique stage name (used in timings and dependencies)
+   * @param file      tab delimited file with a header row
+   * @param columns   columns in {@code file}
+   * @param mapper    converts a row
+   * @param builder   creates Kanji from the mapped rows
+   * @param dependsOn names of earlier stages that {@code builder} needs
+   * @param <T>       type of parsed rows
+   */
+  public record Stage<T>(String name, Path file, Set<Column> columns,
+                         Mapper<? extends T> mapper,
+                         Builder<T> builder, List<String> dependsOn) {
+    public Stage {
+      dependsOn = List.copyOf(dependsOn);
+    }
+
+    /**
+     * create a stage that doesn't depend on other stages and creates Kanji
+     * directly from rows
+     *
+     * @param name    unique stage name
+     * @param file    tab delimited file with a header row
+     * @param columns columns in {@code file}
+     * @param mapper  creates a Kanji from a row
+     * @return new stage
+     */
+    public static Stage<Kanji> of(String name, Path file, Set<Column> columns,
+        Mapper<? extends Kanji> mapper) {
+      return new Stage<>(name, file, columns, mapper, (rows, earlier) -> rows,
+          List.of());
+    }
+
+    /**
+     * create a stage whose Kanji are built after its dependencies
+     *
+     * @param name      unique stage name
+     * @param file      tab delimited file with a header row
+     * @param columns   columns in {@code file}
+     * @param mapper    converts a row
+     * @param builder   creates Kanji from the mapped rows
+     * @param dependsOn names of earlier stages
+     * @param <T>       type of parsed rows
+     * @return new stage
+     */
+    public static <T> Stage<T> of(String name, Path file, Set<Column> columns,
+        Mapper<? extends T> mapper, Builder<T> builder,
+        String... dependsOn) {
+      return new Stage<>(name, file, columns, mapper, builder,
+          Arrays.asList(dependsOn));
+    }
+  }
+
+  /**
+   * @param stage stage name
+   * @param kanji number of Kanji created by the stage (before merging)
+   * @param parse time spent parsing the file
+   * @param build time spent building Kanji (not including waiting for
+   *              dependencies)
+   * @param done  time from the start of the load until the stage finished
+   */
+  public record Timing(String stage, int kanji, Duration parse, Duration build,
+                       Duration done) {}
+
+  /**
+   * @param data    merged snapshot
+   * @param timings timing for each stage (in stage order)
+   * @param index   time spent merging and building the snapshot indexes
+   * @param total   total load time
+   */
+  public record Result(KanjiData data, List<Timing> timings, Duration index,
+                       Duration total) {}
+}
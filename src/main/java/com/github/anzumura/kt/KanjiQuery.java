@@ -0,0 +1,134 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.KanjiFilter.*;
+
+/**
+ * evaluates {@link KanjiFilter} predicates for a loaded list of Kanji. Enum and
+ * radical filters use {@link KanjiGroups} and range filters use 'rank' arrays
+ * (ordinals sorted by value) so a range is two binary searches plus setting a
+ * bit for each match. Nothing is scanned per query and instances are immutable
+ * so one instance can be shared by any number of threads.
+ */
+public final class KanjiQuery {
+  private final KanjiGroups groups;
+  private final KanjiSet all;
+  private final Ranks strokes, frequency, year;
+
+  private KanjiQuery(List<? extends Kanji> kanji) {
+    groups = KanjiGroups.of(kanji);
+    all = KanjiSet.empty(kanji.size()).not();
+    strokes = new Ranks(kanji, Kanji::getStrokes);
+    frequency = new Ranks(kanji, Kanji::getFrequency);
+    year = new Ranks(kanji, Kanji::getYear);
+  }
+
+  /**
+   * @param kanji list of Kanji (ordinals in results are positions in the list)
+   * @return new query engine for {@code kanji}
+   */
+  public static KanjiQuery of(List<? extends Kanji> kanji) {
+    return new KanjiQuery(kanji);
+  }
+
+  /**
+   * @return secondary indexes used by this query engine
+   */
+  public KanjiGroups getGroups() {
+    return groups;
+  }
+
+  /**
+   * @param filter filter to evaluate
+   * @return set of Kanji that match {@code filter}
+   */
+  public KanjiSet select(KanjiFilter filter) {
+    if (filter instanceof Is x)
+      return is(x.value());
+    if (filter instanceof Radical x)
+      return groups.getRadical(x.radical());
+    if (filter instanceof Range x)
+      return ranks(x.field()).range(x.min(), x.max(), all.capacity());
+    if (filter instanceof And x) {
+      var result = all;
+      for (var f : x.filters())
+        result = result.and(select(f));
+      return result;
+    }
+    if (filter instanceof Or x) {
+      var result = KanjiSet.empty(all.capacity());
+      for (var f : x.filters())
+        result = result.or(select(f));
+      return result;
+    }
+    return select(((Not) filter).filter()).not();
+  }
+
+  private KanjiSet is(Enum<?> value) {
+    if (value instanceof Type x)
+      return groups.get(x);
+    if (value instanceof Grade x)
+      return groups.get(x);
+    if (value instanceof Level x)
+      return groups.get(x);
+    if (value instanceof Kyu x)
+      return groups.get(x);
+    return groups.get((JinmeiReason) value);
+  }
+
+  private Ranks ranks(Field field) {
+    return switch (field) {
+      case Strokes -> strokes;
+      case Frequency -> frequency;
+      case Year -> year;
+    };
+  }
+
+  /**
+   * ordinals sorted by a numeric value (ties are in ordinal order)
+   */
+  private static final class Ranks {
+    private final int[] values, ordinals;
+
+    Ranks(List<? extends Kanji> kanji, ToIntFunction<Kanji> value) {
+      final var size = kanji.size();
+      // sort 'value, ordinal' pairs packed into longs to avoid boxing
+      final var pairs = new long[size];
+      for (var i = 0; i < size; ++i)
+        pairs[i] = (long) value.applyAsInt(kanji.get(i)) << Integer.SIZE | i;
+      Arrays.sort(pairs);
+      values = new int[size];
+      ordinals = new int[size];
+      for (var i = 0; i < size; ++i) {
+        values[i] = (int) (pairs[i] >> Integer.SIZE);
+        ordinals[i] = (int) pairs[i];
+      }
+    }
+
+    KanjiSet range(int min, int max, int capacity) {
+      final var words = KanjiSet.words(capacity);
+      if (min <= max)
+        for (var i = firstAtLeast(min); i < values.length && values[i] <= max;
+             ++i)
+          KanjiSet.set(words, ordinals[i]);
+      return new KanjiSet(words, capacity);
+    }
+
+    // binary search for the first position with a value >= 'min'
+    private int firstAtLeast(int min) {
+      int low = 0, high = values.length;
+      while (low < high) {
+        final var mid = (low + high) >>> 1;
+        if (values[mid] < min)
+          low = mid + 1;
+        else
+          high = mid;
+      }
+      return low;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package com.github.anzumura.kt;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * keeps a {@link KanjiData} snapshot up to date with a set of data files. Each
+ * file is a {@link Source} with its own parser and the results are cached per
+ * file so a change only re-parses the changed file (plus any later sources
+ * that resolve links against earlier ones, like Linked Kanji). Unchanged files
+ * keep their existing Kanji instances, but indexes are always rebuilt from the
+ * merged list since they're keyed by ordinal (adding or removing a Kanji
+ * shifts the ordinals of all later Kanji).
+ * <p>
+ * Kanji from all sources are merged by {@link Kanji.Type} precedence (a lower
+ * ordinal wins so a Kentei entry never shadows an Extra or Jouyou Kanji with
+ * the same name, but it becomes visible again if the other entry is removed).
+ * A new snapshot is built off to the side and published to a
+ * {@link KanjiStore} so {@link #get} never blocks. If a reload fails (including
+ * unexpected exceptions thrown by a parser) the previous snapshot is kept, the
+ * error is available from {@link #getLastError} and watching continues.
+ */
+public final class KanjiReloader implements AutoCloseable {
+  // wait this long for more events after a change since editors and copy
+  // commands often produce several events for a single update
+  private static final long SETTLE_MILLIS = 50;
+
+  private final Path directory;
+  private final List<Source> sources;
+  private final Map<Path, Integer> sourceIndex = new HashMap<>();
+  private final List<List<? extends Kanji>> parsed; // guarded by 'this'
+  private final KanjiStore store;
+  // shared by all parses so re-parsed files reuse existing instances
+  private final StringPool pool = new StringPool();
+  private volatile RuntimeException lastError;
+  private WatchService watcher; // guarded by 'this'
+  private Thread thread; // guarded by 'this'
+
+  /**
+   * create a reloader (with its own store) and do an initial (full) load
+   *
+   * @param directory data directory
+   * @param sources   sources in precedence order (files are relative to
+   *                  {@code directory} and can be in subdirectories)
+   * @throws DomainException if a source is repeated or the initial load fails
+   */
+  public KanjiReloader(Path directory, List<Source> sources) {
+    this(directory, sources, new KanjiStore());
+  }
+
+  /**
+   * create a reloader and do an initial (full) load
+   *
+   * @param directory data directory
+   * @param sources   sources in precedence order (files are relative to
+   *                  {@code directory} and can be in subdirectories)
+   * @param store     store to publish snapshots to
+   * @throws DomainException if a source is repeated or the initial load fails
+   */
+  public KanjiReloader(Path directory, List<Source> sources, KanjiStore store) {
+    this.directory = directory.toAbsolutePath().normalize();
+    this.sources = List.copyOf(sources);
+    for (var i = 0; i < this.sources.size(); ++i)
+      if (sourceIndex.put(path(this.sources.get(i)), i) != null)
+        throw new DomainException(
+            "duplicate source: " + this.sources.get(i).file());
+    this.store = store;
+    parsed = new ArrayList<>();
+    for (var source : this.sources)
+      parsed.add(source.parser().parse(path(source),
+          source.usesEarlier() ? earlier(parsed) : null, pool));
+    store.set(KanjiData.of(KanjiData.merge(parsed)));
+  }
+
+  // only the name index is needed by parsers so don't build a full KanjiData
+  private static KanjiIndex earlier(List<List<? extends Kanji>> parsed) {
+    return KanjiIndex.of(KanjiData.merge(parsed));
+  }
+
+  /**
+   * @return current snapshot
+   */
+  public KanjiData get() {
+    return store.get();
+  }
+
+  /**
+   * @return error from the most recent reload or empty if it succeeded
+   */
+  public Optional<RuntimeException> getLastError() {
+    return Optional.ofNullable(lastError);
+  }
+
+  /**
+   * start a daemon thread that watches the data directory (and any
+   * subdirectories containing sources) and reloads changed sources. Watching
+   * can be started again after {@link #close}.
+   *
+   * @throws DomainException if watching fails or already started
+   */
+  public synchronized void start() {
+    if (watcher != null)
+      throw new DomainException("already started");
+    WatchService service = null;
+    try {
+      service = directory.getFileSystem().newWatchService();
+      final var dirs = new LinkedHashSet<Path>();
+      for (var path : sourceIndex.keySet())
+        dirs.add(path.getParent());
+      for (var dir : dirs)
+        dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      close(service);
+      throw new DomainException(
+          "failed to watch '" + directory + "': " + e.getMessage());
+    }
+    final var watching = service;
+    watcher = watching;
+    thread = new Thread(() -> watch(watching), "kanji-reloader");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * reload the sources for {@code changed} files (files that aren't sources
+   * are ignored)
+   *
+   * @param changed changed files (absolute or relative to the data directory)
+   * @return true if a new snapshot was published (false if no sources changed
+   *     or the reload failed, see {@link #getLastError})
+   */
+  public synchronized boolean reload(Collection<Path> changed) {
+    final var changedSources = new TreeSet<Integer>();
+    for (var path : changed) {
+      final var i = sourceIndex.get(directory.resolve(path).normalize());
+      if (i != null)
+        changedSources.add(i);
+    }
+    if (changedSources.isEmpty())
+      return false;
+    final var first = changedSources.first();
+    final var updated = new ArrayList<>(parsed);
+    try {
+      for (var i = first; i < sources.size(); ++i) {
+        final var source = sources.get(i);
+        if (changedSources.contains(i) || source.usesEarlier())
+          updated.set(i, source.parser().parse(path(source),
+              source.usesEarlier() ? earlier(updated.subList(0, i)) : null,
+              pool));
+      }
+      final var result = KanjiData.of(KanjiData.merge(updated));
+      for (var i = first; i < sources.size(); ++i)
+        parsed.set(i, updated.get(i));
+      lastError = null;
+      store.set(result);
+      return true;
+    } catch (RuntimeException e) {
+      // keep the previous snapshot for any failure, not just bad data, so an
+      // unexpected parser bug doesn't stop the watch thread
+      lastError = e;
+      return false;
+    }
+  }
+
+  /**
+   * stop watching (the current snapshot is still available), calling this
+   * again without another {@link #start} does nothing
+   */
+  @Override
+  public void close() {
+    final WatchService service;
+    final Thread watching;
+    // don't hold the lock while joining since the thread may be reloading
+    synchronized (this) {
+      if (watcher == null)
+        return;
+      service = watcher;
+      watching = thread;
+      watcher = null;
+      thread = null;
+    }
+    close(service);
+    try {
+      watching.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void close(WatchService service) {
+    if (service != null)
+      try {
+        service.close();
+      } catch (IOException e) {
+        throw new DomainException(
+            "failed to close watcher: " + e.getMessage());
+      }
+  }
+
+  private Path path(Source source) {
+    return directory.resolve(source.file()).normalize();
+  }
+
+  private void watch(WatchService service) {
+    try {
+      for (WatchKey key = service.take(); ; key = service.take()) {
+        final Set<Path> changed = new HashSet<>();
+        do {
+          final var dir = (Path) key.watchable();
+          for (var event : key.pollEvents())
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+              changed.addAll(sourceIndex.keySet()); // events were lost
+            else
+              changed.add(dir.resolve((Path) event.context()));
+          key.reset();
+        } while ((key = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) !=
+                 null);
+        reload(changed);
+      }
+    } catch (ClosedWatchServiceException | InterruptedException e) {
+      // stopped by 'close'
+    }
+  }
+
+  /**
+   * parses one data file
+   */
+  @FunctionalInterface
+  public interface Parser {
+    /**
+     * @param file    file to parse
+     * @param earlier Kanji merged from earlier sources (only provided for
+     *                sources with 'usesEarlier' set, otherwise null)
+     * @param pool    pool for repeated values like radicals and readings
+     *                (the same pool is used for every parse by a reloader)
+     * @return Kanji from {@code file}
+     * @throws DomainException if the file is missing or malformed
+     */
+    List<? extends Kanji> parse(Path file, KanjiIndex earlier,
+        StringPool pool);
+  }
+
+  /**
+   * @param file        data file relative to the data directory
+   * @param usesEarlier true if {@code parser} looks up Kanji from earlier
+   *                    sources (so it needs to re-run when they change)
+   * @param parser      parser for {@code file}
+   */
+  public record Source(String file, boolean usesEarlier, Parser parser) {
+    /**
+     * @param file   data file relative to the data directory
+     * @param parser parser for {@code file} (doesn't use earlier sources)
+     */
+    public Source(String file, Parser parser) {
+      this(file, false, parser);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * immutable set of Kanji 'ordinals' (positions in a loaded list of Kanji)
+ * backed by a bitset. All sets created for the same list have the same
+ * 'capacity' (the size of the list) so they can be combined with one pass over
+ * their words.
+ */
+public final class KanjiSet {
+  private static final int WORD_BITS = 6;
+
+  private final long[] words;
+  private final int capacity, size;
+
+  /**
+   * @param words    bits (ownership is transferred to the new set)
+   * @param capacity number of Kanji in the list
+   */
+  KanjiSet(long[] words, int capacity) {
+    this.words = words;
+    this.capacity = capacity;
+    var size = 0;
+    for (var w : words)
+      size += Long.bitCount(w);
+    this.size = size;
+  }
+
+  /**
+   * @param capacity number of Kanji in the list
+   * @return array of words that can hold {@code capacity} bits
+   */
+  static long[] words(int capacity) {
+    return new long[(capacity + Long.SIZE - 1) >> WORD_BITS];
+  }
+
+  /**
+   * @param words   array created by {@link #words(int)}
+   * @param ordinal bit to set
+   */
+  static void set(long[] words, int ordinal) {
+    words[ordinal >> WORD_BITS] |= 1L << ordinal;
+  }
+
+  /**
+   * @param capacity number of Kanji in the list
+   * @return empty set
+   */
+  public static KanjiSet empty(int capacity) {
+    return new KanjiSet(words(capacity), capacity);
+  }
+
+  /**
+   * @return number of Kanji in the list this set was created for
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return number of Kanji in this set
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the list
+   * @return true if the Kanji is in this set
+   */
+  public boolean contains(int ordinal) {
+    return ordinal >= 0 && ordinal < capacity &&
+        (words[ordinal >> WORD_BITS] & 1L << ordinal) != 0;
+  }
+
+  /**
+   * @param other set created for the same list
+   * @return new set containing Kanji that are in both sets
+   * @throws DomainException if {@code other} has a different capacity
+   */
+  public KanjiSet and(KanjiSet other) {
+    checkCapacity(other);
+    final var result = new long[words.length];
+    for (var i = 0; i < result.length; ++i)
+      result[i] = words[i] & other.words[i];
+    return new KanjiSet(result, capacity);
+  }
+
+  /**
+   * @param other set created for the same list
+   * @return new set containing Kanji that are in either set
+   * @throws DomainException if {@code other} has a different capacity
+   */
+  public KanjiSet or(KanjiSet other) {
+    checkCapacity(other);
+    final var result = new long[words.length];
+    for (var i = 0; i < result.length; ++i)
+      result[i] = words[i] | other.words[i];
+    return new KanjiSet(result, capacity);
+  }
+
+  /**
+   * @param other set created for the same list
+   * @return new set containing Kanji in this set that aren't in {@code other}
+   * @throws DomainException if {@code other} has a different capacity
+   */
+  public KanjiSet andNot(KanjiSet other) {
+    checkCapacity(other);
+    final var result = new long[words.length];
+    for (var i = 0; i < result.length; ++i)
+      result[i] = words[i] & ~other.words[i];
+    return new KanjiSet(result, capacity);
+  }
+
+  /**
+   * @return new set containing all Kanji in the list that aren't in this set
+   */
+  public KanjiSet not() {
+    final var result = new long[words.length];
+    for (var i = 0; i < result.length; ++i)
+      result[i] = ~words[i];
+    // clear bits past 'capacity' in the last word
+    if ((capacity & Long.SIZE - 1) != 0)
+      result[result.length - 1] &= -1L >>> Long.SIZE - capacity;
+    return new KanjiSet(result, capacity);
+  }
+
+  /**
+   * @param action called for each ordinal in the set (in ascending order)
+   */
+  public void forEach(IntConsumer action) {
+    for (var i = 0; i < words.length; ++i)
+      for (var w = words[i]; w != 0; w &= w - 1)
+        action.accept((i << WORD_BITS) + Long.numberOfTrailingZeros(w));
+  }
+
+  /**
+   * @return ordinals in the set (in ascending order)
+   */
+  public int[] toArray() {
+    final var result = new int[size];
+    var pos = 0;
+    for (var i = 0; i < words.length; ++i)
+      for (var w = words[i]; w != 0; w &= w - 1)
+        result[pos++] = (i << WORD_BITS) + Long.numberOfTrailingZeros(w);
+    return result;
+  }
+
+  private void checkCapacity(KanjiSet other) {
+    if (capacity != other.capacity)
+      throw new DomainException("capacity " + other.capacity +
+          " doesn't match " + capacity);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof KanjiSet x && capacity == x.capacity &&
+        Arrays.equals(words, x.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
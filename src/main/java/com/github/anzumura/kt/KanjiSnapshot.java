@@ -0,0 +1,340 @@
+package com.github.anzumura.kt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * reads and writes a compact binary 'snapshot' of a fully loaded list of Kanji
+ * so that startup doesn't need to re-parse all the text files. A snapshot
+ * contains a checksum of the source text files and is only used if the
+ * checksum still matches (otherwise the Kanji are re-loaded and a new snapshot
+ * is written).
+ * <p>
+ * The format is a header (magic, version, checksum and count) followed by one
+ * record per Kanji in list order: a 'Type' byte, common fields and then fields
+ * specific to the type. Enums are stored as ordinal bytes, Strings as a length
+ * followed by UTF-8 bytes and links as the index of the linked Kanji (which
+ * must come earlier in the list).
+ */
+public final class KanjiSnapshot {
+  private static final int MAGIC = 0x4b515353; // 'KQSS'
+  private static final int VERSION = 1, MAX_STRING_BYTES = 0xffff;
+  private static final Type[] types = Type.values();
+  private static final Grade[] grades = Grade.values();
+  private static final Level[] levels = Level.values();
+  private static final Kyu[] kyus = Kyu.values();
+  private static final JinmeiReason[] reasons = JinmeiReason.values();
+
+  private KanjiSnapshot() {}
+
+  /**
+   * read Kanji from {@code snapshot} if it's current, otherwise call
+   * {@code loader} and write a new snapshot
+   *
+   * @param snapshot snapshot file (doesn't need to exist)
+   * @param sources  text files used by {@code loader}
+   * @param loader   loads Kanji from {@code sources}
+   * @return list of Kanji
+   * @throws DomainException if reading sources or writing the snapshot fails
+   */
+  public static List<Kanji> load(
+      Path snapshot, List<Path> sources, Supplier<List<Kanji>> loader) {
+    final var checksum = checksum(sources);
+    Optional<List<Kanji>> result;
+    try {
+      result = read(snapshot, checksum);
+    } catch (DomainException e) {
+      result = Optional.empty(); // corrupt snapshot so re-create it
+    }
+    return result.orElseGet(() -> {
+      final var kanji = loader.get();
+      write(snapshot, kanji, checksum);
+      return kanji;
+    });
+  }
+
+  /**
+   * @param sources files to include in the checksum (order is significant)
+   * @return checksum of file names and contents
+   * @throws DomainException if reading any file fails
+   */
+  public static long checksum(List<Path> sources) {
+    final var crc = new CRC32C();
+    for (var path : sources)
+      try (var channel = FileChannel.open(path)) {
+        crc.update(path.getFileName().toString()
+            .getBytes(StandardCharsets.UTF_8));
+        crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+            channel.size()));
+      } catch (IOException e) {
+        throw new DomainException("failed to read '" + path + "': " +
+            e.getMessage());
+      }
+    return crc.getValue();
+  }
+
+  /**
+   * write a snapshot (a temporary file is written first and then moved to
+   * {@code snapshot} so readers never see a partially written file)
+   *
+   * @param snapshot snapshot file to create or replace
+   * @param kanji    list of Kanji to write
+   * @param checksum checksum of the source files
+   * @throws DomainException if a Kanji links to a Kanji that isn't earlier in
+   *                         the list or writing fails
+   */
+  public static void write(
+      Path snapshot, List<? extends Kanji> kanji, long checksum) {
+    final var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(checksum);
+      out.writeInt(kanji.size());
+      final var indexes = new IdentityHashMap<Kanji, Integer>();
+      for (var k : kanji) {
+        writeKanji(out, k, indexes);
+        indexes.put(k, indexes.size());
+      }
+    } catch (IOException e) {
+      throw new DomainException("failed to write snapshot: " + e.getMessage());
+    }
+    final var dir = snapshot.toAbsolutePath().getParent();
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(dir, "snapshot", ".tmp");
+      try (var file = FileChannel.open(temp, WRITE)) {
+        final var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining())
+          file.write(buffer);
+        file.force(true); // data must be on disk before it's renamed
+      }
+      Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      temp = null;
+      try (var channel = FileChannel.open(dir, READ)) {
+        channel.force(true); // make the rename durable
+      }
+    } catch (IOException e) {
+      throw new DomainException("failed to write snapshot: " + e.getMessage());
+    } finally {
+      deleteTemp(temp);
+    }
+  }
+
+  // remove the temporary file left by a failed write ('temp' is null if the
+  // file was never created or has already been moved)
+  private static void deleteTemp(Path temp) {
+    if (temp != null)
+      try {
+        Files.deleteIfExists(temp);
+      } catch (IOException e) {
+        // keep reporting the original error
+      }
+  }
+
+  /**
+   * read a snapshot (via a memory mapped buffer)
+   *
+   * @param snapshot snapshot file
+   * @param checksum expected checksum of the source files
+   * @return list of Kanji or empty if the snapshot doesn't exist, is from a
+   *     different version or has a different checksum
+   * @throws DomainException if the snapshot is corrupt or reading fails
+   */
+  public static Optional<List<Kanji>> read(Path snapshot, long checksum) {
+    if (!Files.exists(snapshot))
+      return Optional.empty();
+    try (var channel = FileChannel.open(snapshot)) {
+      final var buffer =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION ||
+          buffer.getLong() != checksum)
+        return Optional.empty();
+      return Optional.of(new Reader(buffer).readAll());
+    } catch (IOException e) {
+      throw new DomainException("failed to read snapshot: " + e.getMessage());
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new DomainException("corrupt snapshot: " + snapshot.getFileName());
+    }
+  }
+
+  private static void writeKanji(DataOutputStream out, Kanji k,
+      IdentityHashMap<Kanji, Integer> indexes) throws IOException {
+    out.writeByte(k.getType().ordinal());
+    writeString(out, k.getName());
+    writeString(out, k.getRadical());
+    out.writeShort(k.getStrokes());
+    if (k instanceof Linked) {
+      final var link = indexes.get(k.getLink().orElseThrow());
+      if (link == null)
+        throw new DomainException(
+            "link for '" + k.getName() + "' must come earlier in the list");
+      out.writeInt(link);
+      out.writeInt(k.getFrequency());
+      out.writeByte(k.getKyu().ordinal());
+      return;
+    }
+    writeString(out, k.getMeaning());
+    writeString(out, k.getReading());
+    if (k instanceof Numbered) {
+      out.writeByte(k.getKyu().ordinal());
+      out.writeInt(k.getNumber());
+      if (k instanceof Official) {
+        out.writeByte(k.getLevel().ordinal());
+        out.writeInt(k.getFrequency());
+        out.writeInt(k.getYear());
+        out.writeByte(k instanceof JouyouKanji ? k.getGrade().ordinal() :
+            k.getReason().ordinal());
+      } else if (k instanceof ExtraKanji)
+        writeString(out, k.getNewName().orElse(""));
+      else
+        throw unsupported(k);
+    } else if (k instanceof Other o) {
+      out.writeBoolean(o.hasOldLinks());
+      out.writeShort(o.getLinkNames().size());
+      for (var name : o.getLinkNames())
+        writeString(out, name);
+      out.writeBoolean(o.hasLinkedReading());
+      if (k instanceof Standard) {
+        out.writeByte(k.getKyu().ordinal());
+        if (k instanceof FrequencyKanji)
+          out.writeInt(k.getFrequency());
+      }
+    } else
+      throw unsupported(k);
+  }
+
+  // fail instead of writing a partial record for a class that isn't handled
+  private static DomainException unsupported(Kanji k) {
+    return new DomainException("can't write '" + k.getName() + "': " +
+                               k.getClass().getName() + " isn't supported");
+  }
+
+  private static void writeString(DataOutputStream out, String s)
+      throws IOException {
+    final var bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_STRING_BYTES)
+      throw new DomainException("string too long: '" + s + "'");
+    out.writeShort(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * reads Kanji records from a buffer (positioned after the header). Repeated
+   * values like radicals and readings share instances via a StringPool.
+   */
+  private static final class Reader {
+    private final ByteBuffer buffer;
+    private final int count;
+    private final List<Kanji> result;
+    private final StringPool pool = new StringPool();
+    private byte[] scratch = new byte[256];
+
+    Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+      count = buffer.getInt();
+      result = new ArrayList<>(count);
+    }
+
+    List<Kanji> readAll() {
+      for (var i = 0; i < count; ++i)
+        result.add(readKanji());
+      if (buffer.hasRemaining())
+        throw new IndexOutOfBoundsException("unexpected data");
+      return List.copyOf(result);
+    }
+
+    private Kanji readKanji() {
+      final var type = types[buffer.get()];
+      final var name = readString();
+      final var radical = pool.get(readString());
+      final int strokes = buffer.getShort();
+      return switch (type) {
+        case LinkedJinmei, LinkedOld -> {
+          final var link = result.get(buffer.getInt());
+          final var frequency = buffer.getInt();
+          final var kyu = kyus[buffer.get()];
+          yield type == Type.LinkedJinmei ?
+              new LinkedJinmeiKanji(name, radical, strokes, link, frequency,
+                  kyu) :
+              new LinkedOldKanji(name, radical, strokes, link, frequency, kyu);
+        }
+        case Jouyou, Jinmei, Extra -> {
+          final var meaning = pool.get(readString());
+          final var reading = pool.get(readString());
+          final var kyu = kyus[buffer.get()];
+          final var number = buffer.getInt();
+          if (type == Type.Extra)
+            yield new ExtraKanji(name, radical, strokes, meaning, reading, kyu,
+                number, readString());
+          final var level = levels[buffer.get()];
+          final var frequency = buffer.getInt();
+          final var year = buffer.getInt();
+          final var last = buffer.get();
+          yield type == Type.Jouyou ?
+              new JouyouKanji(name, radical, strokes, meaning, reading, kyu,
+                  number, level, frequency, year, grades[last]) :
+              new JinmeiKanji(name, radical, strokes, meaning, reading, kyu,
+                  number, level, frequency, year, reasons[last]);
+        }
+        case Frequency, Kentei, Ucd -> {
+          final var meaning = pool.get(readString());
+          final var reading = pool.get(readString());
+          final var oldLinks = buffer.get() != 0;
+          final var linkNames = pool.get(readStrings());
+          final var linkedReadings = buffer.get() != 0;
+          if (type == Type.Ucd)
+            yield new UcdKanji(name, radical, strokes, meaning, reading,
+                oldLinks, linkNames, linkedReadings);
+          final var kyu = kyus[buffer.get()];
+          yield type == Type.Kentei ?
+              new KenteiKanji(name, radical, strokes, meaning, reading,
+                  oldLinks, linkNames, linkedReadings, kyu) :
+              new FrequencyKanji(name, radical, strokes, meaning, reading,
+                  oldLinks, linkNames, linkedReadings, kyu, buffer.getInt());
+        }
+      };
+    }
+
+    private List<String> readStrings() {
+      final var size = Short.toUnsignedInt(buffer.getShort());
+      if (size == 0)
+        return List.of();
+      // each String takes at least 2 bytes (for its length)
+      if (size > buffer.remaining() / Short.BYTES)
+        throw new BufferUnderflowException();
+      final var names = new String[size];
+      for (var i = 0; i < size; ++i)
+        names[i] = readString();
+      return List.of(names);
+    }
+
+    private String readString() {
+      final var length = Short.toUnsignedInt(buffer.getShort());
+      if (length == 0)
+        return "";
+      if (length > scratch.length)
+        scratch = new byte[length];
+      buffer.get(scratch, 0, length);
+      return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+  }
+}
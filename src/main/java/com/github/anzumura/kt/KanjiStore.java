@@ -0,0 +1,67 @@
+package com.github.anzumura.kt;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * holds the current {@link KanjiData} snapshot for a service. Readers call
+ * {@link #get} (a single volatile read) and keep using the returned snapshot
+ * for the rest of a request while writers build a complete new snapshot and
+ * then replace the reference. Readers never block and never see a partially
+ * loaded state: before the first load completes they see an empty snapshot.
+ *
+ * <p>Each {@link #set} or {@link #load} call takes a generation number when
+ * it's called and a snapshot is only published if no newer call has already
+ * published one, i.e., if two loads overlap then the one started last wins
+ * even if it finishes first.
+ */
+public final class KanjiStore {
+  private final AtomicLong generations = new AtomicLong();
+  private final AtomicReference<Version> current =
+      new AtomicReference<>(new Version(0, KanjiData.empty()));
+
+  /**
+   * @return current snapshot
+   */
+  public KanjiData get() {
+    return current.get().data();
+  }
+
+  /**
+   * @param data new snapshot (replaces the current one)
+   */
+  public void set(KanjiData data) {
+    publish(generations.incrementAndGet(), data);
+  }
+
+  /**
+   * build a new snapshot on {@code executor} and publish it once it's complete
+   * (the current snapshot is kept if {@code loader} fails or if a newer call
+   * to {@code set} or {@code load} has already published a snapshot)
+   *
+   * @param loader   loads Kanji for the new snapshot
+   * @param executor executor used to run {@code loader} and build indexes
+   * @return future that completes with the current snapshot after publishing
+   *     (the newer snapshot if this load was superseded)
+   */
+  public CompletableFuture<KanjiData> load(
+      Supplier<List<? extends Kanji>> loader, Executor executor) {
+    final var generation = generations.incrementAndGet();
+    return CompletableFuture.supplyAsync(() -> KanjiData.of(loader.get()),
+        executor).thenApply(result -> publish(generation, result));
+  }
+
+  // replace the current snapshot unless it came from a newer generation and
+  // return whichever snapshot is current afterwards
+  private KanjiData publish(long generation, KanjiData data) {
+    return current.accumulateAndGet(new Version(generation, data),
+        (old, next) -> old.generation() > next.generation() ? old : next)
+        .data();
+  }
+
+  private record Version(long generation, KanjiData data) {}
+}
@@ -0,0 +1,452 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * columnar ('struct of arrays') storage for a list of Kanji. Numeric values and
+ * enum ordinals are stored in primitive arrays and all Strings are stored once
+ * in a shared char pool, so a full load is a handful of arrays instead of a
+ * large graph of objects.
+ * <p>
+ * Kanji are identified by 'ordinal' (position in the list used to build the
+ * table). {@link #get} returns a small 'flyweight' {@link Entry} view with the
+ * same getters as Kanji, but String values are created on each call so code
+ * that scans all Kanji should prefer the 'ordinal' methods. An Entry isn't a
+ * Kanji (each Kanji Type has its own leaf class), use {@link #toKanji} to get
+ * Kanji objects back from a table.
+ */
+public final class KanjiTable {
+  /**
+   * returned by {@link #getLink(int)} if a Kanji doesn't have a link
+   */
+  public static final int NO_LINK = -1;
+
+  private static final int NO_STRING = -1;
+  private static final Type[] types = Type.values();
+  private static final Grade[] grades = Grade.values();
+  private static final Level[] levels = Level.values();
+  private static final Kyu[] kyus = Kyu.values();
+  private static final JinmeiReason[] reasons = JinmeiReason.values();
+
+  private final byte[] type, grade, level, kyu, reason;
+  private final short[] strokes;
+  private final int[] frequency, year, number, link;
+  private final boolean[] linkedReading, oldLinks;
+  // String ids (indexes into 'stringStarts')
+  private final int[] name, radical, meaning, reading, newName;
+  // link names of 'Other' Kanji 'i' are
+  // linkNames[linkNameStarts[i]..linkNameStarts[i+1]) and they are old names if
+  // oldLinks[i] is true
+  private final int[] linkNameStarts, linkNames;
+  // String 'id' is chars[stringStarts[id]..stringStarts[id+1])
+  private final char[] chars;
+  private final int[] stringStarts;
+
+  private KanjiTable(List<? extends Kanji> kanji) {
+    final var size = kanji.size();
+    type = new byte[size];
+    grade = new byte[size];
+    level = new byte[size];
+    kyu = new byte[size];
+    reason = new byte[size];
+    strokes = new short[size];
+    frequency = new int[size];
+    year = new int[size];
+    number = new int[size];
+    link = new int[size];
+    linkedReading = new boolean[size];
+    oldLinks = new boolean[size];
+    name = new int[size];
+    radical = new int[size];
+    meaning = new int[size];
+    reading = new int[size];
+    newName = new int[size];
+    linkNameStarts = new int[size + 1];
+    final var pool = new Pool();
+    final var ordinals = new IdentityHashMap<Kanji, Integer>(size);
+    for (var i = 0; i < size; ++i)
+      ordinals.put(kanji.get(i), i);
+    var linkNameCount = 0;
+    for (var k : kanji)
+      if (k instanceof Other o)
+        linkNameCount += o.getLinkNames().size();
+    linkNames = new int[linkNameCount];
+    for (var i = 0; i < size; ++i) {
+      final var k = kanji.get(i);
+      type[i] = (byte) k.getType().ordinal();
+      grade[i] = (byte) k.getGrade().ordinal();
+      level[i] = (byte) k.getLevel().ordinal();
+      kyu[i] = (byte) k.getKyu().ordinal();
+      reason[i] = (byte) k.getReason().ordinal();
+      strokes[i] = (short) k.getStrokes();
+      frequency[i] = k.getFrequency();
+      year[i] = k.getYear();
+      number[i] = k.getNumber();
+      link[i] = k.getLink().map(x -> {
+        final var ordinal = ordinals.get(x);
+        if (ordinal == null)
+          throw new DomainException(
+              "link for '" + k.getName() + "' isn't in the list");
+        return ordinal;
+      }).orElse(NO_LINK);
+      linkedReading[i] = k.hasLinkedReading();
+      name[i] = pool.add(k.getName());
+      radical[i] = pool.add(k.getRadical());
+      meaning[i] = pool.add(k.getMeaning());
+      reading[i] = pool.add(k.getReading());
+      newName[i] = k.getNewName().map(pool::add).orElse(NO_STRING);
+      var pos = linkNameStarts[i];
+      if (k instanceof Other o) {
+        oldLinks[i] = o.hasOldLinks();
+        for (var s : o.getLinkNames())
+          linkNames[pos++] = pool.add(s);
+      }
+      linkNameStarts[i + 1] = pos;
+    }
+    chars = Arrays.copyOf(pool.chars, pool.charCount);
+    stringStarts = Arrays.copyOf(pool.starts, pool.ids.size() + 1);
+  }
+
+  /**
+   * @param kanji list of Kanji (links must refer to Kanji in the list)
+   * @return new table containing the values of all Kanji in {@code kanji}
+   * @throws DomainException if a link refers to a Kanji not in the list
+   */
+  public static KanjiTable of(List<? extends Kanji> kanji) {
+    return new KanjiTable(kanji);
+  }
+
+  /**
+   * @return number of Kanji in the table
+   */
+  public int size() {
+    return type.length;
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return flyweight view of the given position
+   */
+  public Entry get(int ordinal) {
+    return new Entry(this, ordinal);
+  }
+
+  /**
+   * @return new Kanji objects for all Kanji in the table (links refer to
+   *     objects in the returned list)
+   */
+  public List<Kanji> toKanji() {
+    final var result = new Kanji[size()];
+    for (var i = 0; i < result.length; ++i)
+      kanji(i, result);
+    return List.of(result);
+  }
+
+  /**
+   * @return approximate number of bytes used by the arrays in this table
+   */
+  public long memoryBytes() {
+    return Byte.BYTES * length(type, grade, level, kyu, reason) +
+        linkedReading.length + oldLinks.length +
+        Short.BYTES * (long) strokes.length +
+        Integer.BYTES * length(frequency, year, number, link, name, radical,
+            meaning, reading, newName, linkNameStarts, linkNames,
+            stringStarts) +
+        Character.BYTES * (long) chars.length;
+  }
+
+  private static long length(byte[]... arrays) {
+    var result = 0L;
+    for (var a : arrays)
+      result += a.length;
+    return result;
+  }
+
+  private static long length(int[]... arrays) {
+    var result = 0L;
+    for (var a : arrays)
+      result += a.length;
+    return result;
+  }
+
+  // accessors by ordinal (these don't create any objects)
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return Kanji type
+   */
+  public Type getType(int ordinal) {
+    return types[type[ordinal]];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return official school grade ({@code None} if the Kanji has none)
+   */
+  public Grade getGrade(int ordinal) {
+    return grades[grade[ordinal]];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return JLPT level ({@code None} if the Kanji has none)
+   */
+  public Level getLevel(int ordinal) {
+    return levels[level[ordinal]];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return Kentei Kyu ({@code None} if the Kanji has none)
+   */
+  public Kyu getKyu(int ordinal) {
+    return kyus[kyu[ordinal]];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return reason added to Jinmeiyō list ({@code None} unless Jinmei)
+   */
+  public JinmeiReason getReason(int ordinal) {
+    return reasons[reason[ordinal]];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return Kanji stroke count
+   */
+  public int getStrokes(int ordinal) {
+    return strokes[ordinal];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return frequency: 1 for most frequent, 0 means not in top 2,501 list
+   */
+  public int getFrequency(int ordinal) {
+    return frequency[ordinal];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return year Kanji was added to an official list, 0 means none specified
+   */
+  public int getYear(int ordinal) {
+    return year[ordinal];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return row number in custom file (jouyou, jinmei, extra), otherwise 0
+   */
+  public int getNumber(int ordinal) {
+    return number[ordinal];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return ordinal of the linked Kanji or {@link #NO_LINK}
+   */
+  public int getLink(int ordinal) {
+    return link[ordinal];
+  }
+
+  /**
+   * @param ordinal position of a Kanji in the table
+   * @return name of the Kanji (a new String is created for each call)
+   */
+  public String getName(int ordinal) {
+    return string(name[ordinal]);
+  }
+
+  private String string(int id) {
+    return id == NO_STRING ? "" : new String(chars, stringStarts[id],
+        stringStarts[id + 1] - stringStarts[id]);
+  }
+
+  private List<String> linkNames(int ordinal) {
+    final int start = linkNameStarts[ordinal], end =
+        linkNameStarts[ordinal + 1];
+    if (start == end)
+      return List.of();
+    final var result = new String[end - start];
+    for (var i = start; i < end; ++i)
+      result[i - start] = string(linkNames[i]);
+    return List.of(result);
+  }
+
+  // create the Kanji for 'ordinal' (and its link if needed) unless it's
+  // already in 'built'
+  private Kanji kanji(int ordinal, Kanji[] built) {
+    if (built[ordinal] != null)
+      return built[ordinal];
+    final var i = ordinal;
+    final String name = getName(i), radical = string(this.radical[i]),
+        meaning = string(this.meaning[i]), reading = string(this.reading[i]);
+    final int strokes = getStrokes(i);
+    final Kanji result = switch (getType(i)) {
+      case Jouyou -> new JouyouKanji(name, radical, strokes, meaning, reading,
+          getKyu(i), getNumber(i), getLevel(i), getFrequency(i), getYear(i),
+          getGrade(i));
+      case Jinmei -> new JinmeiKanji(name, radical, strokes, meaning, reading,
+          getKyu(i), getNumber(i), getLevel(i), getFrequency(i), getYear(i),
+          getReason(i));
+      case LinkedJinmei -> new LinkedJinmeiKanji(name, radical, strokes,
+          kanji(link[i], built), getFrequency(i), getKyu(i));
+      case LinkedOld -> new LinkedOldKanji(name, radical, strokes,
+          kanji(link[i], built), getFrequency(i), getKyu(i));
+      case Extra -> new ExtraKanji(name, radical, strokes, meaning, reading,
+          getKyu(i), getNumber(i), string(newName[i]));
+      case Frequency -> new FrequencyKanji(name, radical, strokes, meaning,
+          reading, oldLinks[i], linkNames(i), linkedReading[i], getKyu(i),
+          getFrequency(i));
+      case Kentei -> new KenteiKanji(name, radical, strokes, meaning, reading,
+          oldLinks[i], linkNames(i), linkedReading[i], getKyu(i));
+      case Ucd -> new UcdKanji(name, radical, strokes, meaning, reading,
+          oldLinks[i], linkNames(i), linkedReading[i]);
+    };
+    return built[ordinal] = result;
+  }
+
+  /**
+   * builds the shared char pool (each distinct String is only stored once)
+   */
+  private static final class Pool {
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private char[] chars = new char[1024];
+    private int[] starts = new int[256];
+    private int charCount = 0;
+
+    int add(String s) {
+      return ids.computeIfAbsent(s, k -> {
+        final var id = ids.size();
+        if (id + 2 > starts.length)
+          starts = Arrays.copyOf(starts, starts.length * 2);
+        if (charCount + s.length() > chars.length)
+          chars = Arrays.copyOf(chars,
+              Math.max(chars.length * 2, charCount + s.length()));
+        s.getChars(0, s.length(), chars, charCount);
+        charCount += s.length();
+        starts[id + 1] = charCount;
+        return id;
+      });
+    }
+  }
+
+  /**
+   * flyweight view of one Kanji in a KanjiTable (getters match the Kanji
+   * getters with the same names)
+   */
+  public static final class Entry {
+    private final KanjiTable table;
+    private final int ordinal;
+
+    private Entry(KanjiTable table, int ordinal) {
+      this.table = table;
+      this.ordinal = ordinal;
+    }
+
+    /**
+     * @return position of this Kanji in its table
+     */
+    public int getOrdinal() {
+      return ordinal;
+    }
+
+    /**
+     * @return new Kanji object for this entry (including a new object for its
+     *     link if it has one)
+     */
+    public Kanji toKanji() {
+      return table.kanji(ordinal, new Kanji[table.size()]);
+    }
+
+    public Type getType() {
+      return table.getType(ordinal);
+    }
+
+    public String getName() {
+      return table.getName(ordinal);
+    }
+
+    public String getRadical() {
+      return table.string(table.radical[ordinal]);
+    }
+
+    public int getStrokes() {
+      return table.getStrokes(ordinal);
+    }
+
+    public String getMeaning() {
+      return table.string(table.meaning[ordinal]);
+    }
+
+    public String getReading() {
+      return table.string(table.reading[ordinal]);
+    }
+
+    public int getFrequency() {
+      return table.getFrequency(ordinal);
+    }
+
+    public int getYear() {
+      return table.getYear(ordinal);
+    }
+
+    public boolean hasLinkedReading() {
+      return table.linkedReading[ordinal];
+    }
+
+    public List<String> getOldNames() {
+      return table.oldLinks[ordinal] ? table.linkNames(ordinal) : List.of();
+    }
+
+    public Optional<String> getNewName() {
+      final var id = table.newName[ordinal];
+      return id == NO_STRING ? Optional.empty() :
+          Optional.of(table.string(id));
+    }
+
+    public Grade getGrade() {
+      return table.getGrade(ordinal);
+    }
+
+    public Level getLevel() {
+      return table.getLevel(ordinal);
+    }
+
+    public Kyu getKyu() {
+      return table.getKyu(ordinal);
+    }
+
+    public int getNumber() {
+      return table.getNumber(ordinal);
+    }
+
+    public JinmeiReason getReason() {
+      return table.getReason(ordinal);
+    }
+
+    public Optional<Entry> getLink() {
+      final var x = table.getLink(ordinal);
+      return x == NO_LINK ? Optional.empty() : Optional.of(table.get(x));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Entry x && table == x.table &&
+          ordinal == x.ordinal;
+    }
+
+    @Override
+    public int hashCode() {
+      return ordinal;
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package com.github.anzumura.kt;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * inverted index from English words in Kanji meanings to the Kanji with that
+ * word. Meanings are split into lowercase 'terms' (runs of letters or digits)
+ * and the sorted term dictionary is stored in a single char array (so exact
+ * and prefix lookups are binary searches that don't create Strings). Each
+ * term's postings (sorted Kanji ordinals) are stored as deltas encoded as
+ * 'varints' (7 bits per byte) in a single byte array, so most postings only
+ * take one byte.
+ */
+public final class MeaningIndex {
+  private static final int VARINT_BITS = 7, VARINT_MASK = 0x7f,
+      VARINT_MORE = 0x80;
+
+  private final int capacity; // number of Kanji
+  // term 'i' is termChars[termStarts[i]..termStarts[i+1])
+  private final char[] termChars;
+  private final int[] termStarts;
+  // postings of term 'i' are postingBytes[postingStarts[i]..
+  // postingStarts[i+1])
+  private final byte[] postingBytes;
+  private final int[] postingStarts;
+
+  private MeaningIndex(List<? extends Kanji> kanji) {
+    capacity = kanji.size();
+    final var result = new HashMap<String, Postings>();
+    for (var i = 0; i < capacity; ++i) {
+      final var ordinal = i;
+      tokenize(kanji.get(i).getMeaning(),
+          t -> result.computeIfAbsent(t, x -> new Postings()).add(ordinal));
+    }
+    final var terms = result.keySet().toArray(new String[0]);
+    Arrays.sort(terms);
+    termStarts = new int[terms.length + 1];
+    postingStarts = new int[terms.length + 1];
+    final var chars = new StringBuilder();
+    final var bytes = new ByteArrayOutputStream();
+    for (var i = 0; i < terms.length; ++i) {
+      chars.append(terms[i]);
+      termStarts[i + 1] = chars.length();
+      final var postings = result.get(terms[i]);
+      for (int j = 0, previous = 0; j < postings.size(); ++j) {
+        writeVarint(bytes, postings.get(j) - previous);
+        previous = postings.get(j);
+      }
+      postingStarts[i + 1] = bytes.size();
+    }
+    termChars = chars.toString().toCharArray();
+    postingBytes = bytes.toByteArray();
+  }
+
+  /**
+   * @param kanji list of Kanji
+   * @return new index of the meanings of {@code kanji}
+   */
+  public static MeaningIndex of(List<? extends Kanji> kanji) {
+    return new MeaningIndex(kanji);
+  }
+
+  /**
+   * @param text text to split into terms
+   * @return lowercase terms (runs of letters or digits) in {@code text}
+   */
+  public static List<String> terms(String text) {
+    final var result = new ArrayList<String>();
+    tokenize(text, result::add);
+    return result;
+  }
+
+  private static void tokenize(String text, Consumer<String> action) {
+    final var term = new StringBuilder();
+    for (var i = 0; i <= text.length(); ++i)
+      if (i < text.length() && Character.isLetterOrDigit(text.charAt(i)))
+        term.append(Character.toLowerCase(text.charAt(i)));
+      else if (!term.isEmpty()) {
+        action.accept(term.toString());
+        term.setLength(0);
+      }
+  }
+
+  // lowercase each char the same way as 'tokenize' (not locale sensitive)
+  private static String lowerCase(String s) {
+    final var result = new StringBuilder(s.length());
+    for (var i = 0; i < s.length(); ++i)
+      result.append(Character.toLowerCase(s.charAt(i)));
+    return result.toString();
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, int value) {
+    for (; value > VARINT_MASK; value >>>= VARINT_BITS)
+      out.write(value & VARINT_MASK | VARINT_MORE);
+    out.write(value);
+  }
+
+  /**
+   * @return number of distinct terms
+   */
+  public int size() {
+    return termStarts.length - 1;
+  }
+
+  /**
+   * @return approximate number of bytes used by the arrays in this index
+   */
+  public long memoryBytes() {
+    return (long) termChars.length * Character.BYTES + postingBytes.length +
+        (long) (termStarts.length + postingStarts.length) * Integer.BYTES;
+  }
+
+  /**
+   * @param word word to find (case-insensitive)
+   * @return set of Kanji with {@code word} in their meaning
+   */
+  public KanjiSet get(String word) {
+    final var term = lowerCase(word);
+    final var words = KanjiSet.words(capacity);
+    final var i = lowerBound(term);
+    if (i < size() && length(i) == term.length() && startsWith(i, term))
+      decode(i, words);
+    return new KanjiSet(words, capacity);
+  }
+
+  /**
+   * @param prefix start of a word (case-insensitive)
+   * @return set of Kanji with a word in their meaning starting with
+   *     {@code prefix}
+   */
+  public KanjiSet getPrefix(String prefix) {
+    final var term = lowerCase(prefix);
+    final var words = KanjiSet.words(capacity);
+    for (var i = lowerBound(term); i < size() && startsWith(i, term); ++i)
+      decode(i, words);
+    return new KanjiSet(words, capacity);
+  }
+
+  /**
+   * 'search as you type' query: each term in {@code text} is treated as a
+   * prefix and results are Kanji that match all terms
+   *
+   * @param text text to search for
+   * @return set of Kanji matching all terms (empty if there are no terms)
+   */
+  public KanjiSet search(String text) {
+    KanjiSet result = null;
+    for (var term : terms(text))
+      result = result == null ? getPrefix(term) : result.and(getPrefix(term));
+    return result == null ? KanjiSet.empty(capacity) : result;
+  }
+
+  private int length(int term) {
+    return termStarts[term + 1] - termStarts[term];
+  }
+
+  // true if 'term' starts with 'prefix'
+  private boolean startsWith(int term, String prefix) {
+    if (length(term) < prefix.length())
+      return false;
+    for (int i = 0, start = termStarts[term]; i < prefix.length(); ++i)
+      if (termChars[start + i] != prefix.charAt(i))
+        return false;
+    return true;
+  }
+
+  // compare 'term' with 's' (like String.compareTo)
+  private int compare(int term, String s) {
+    final int start = termStarts[term], length = length(term);
+    for (var i = 0; i < Math.min(length, s.length()); ++i)
+      if (termChars[start + i] != s.charAt(i))
+        return termChars[start + i] - s.charAt(i);
+    return length - s.length();
+  }
+
+  // binary search for the first term that is >= 's'
+  private int lowerBound(String s) {
+    int low = 0, high = size();
+    while (low < high) {
+      final var mid = (low + high) >>> 1;
+      if (compare(mid, s) < 0)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  // set bits in 'words' for the postings of 'term'
+  private void decode(int term, long[] words) {
+    final var end = postingStarts[term + 1];
+    for (int pos = postingStarts[term], ordinal = 0; pos < end; ) {
+      var delta = 0;
+      for (var shift = 0; ; shift += VARINT_BITS) {
+        final var b = postingBytes[pos++];
+        delta |= (b & VARINT_MASK) << shift;
+        if ((b & VARINT_MORE) == 0)
+          break;
+      }
+      ordinal += delta;
+      KanjiSet.set(words, ordinal);
+    }
+  }
+}
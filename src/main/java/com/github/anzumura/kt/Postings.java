@@ -0,0 +1,33 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+
+/**
+ * growable array of Kanji ordinals used while building inverted indexes.
+ * Ordinals must be added in ascending order so duplicates (from a Kanji having
+ * the same term more than once) are always at the end and are skipped.
+ */
+final class Postings {
+  private int[] ordinals = new int[4];
+  private int count;
+
+  void add(int ordinal) {
+    if (count > 0 && ordinals[count - 1] == ordinal)
+      return;
+    if (count == ordinals.length)
+      ordinals = Arrays.copyOf(ordinals, count * 2);
+    ordinals[count++] = ordinal;
+  }
+
+  int size() {
+    return count;
+  }
+
+  int get(int i) {
+    return ordinals[i];
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(ordinals, count);
+  }
+}
@@ -0,0 +1,300 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * generates multiple choice questions (one Kanji plus 'distractors' - other
+ * Kanji that are plausible wrong answers). A ranked pool of distractors is
+ * precomputed for each Kanji and stored in one flat int array so generating a
+ * question is a few random numbers and array reads (no scanning, locking or
+ * allocation). Instances are immutable and a caller provides the random
+ * generator (like a per-thread {@link java.util.SplittableRandom}) so any
+ * number of threads can generate questions at the same time.
+ * <p>
+ * Candidates are Kanji with the same radical or a shared reading (or the same
+ * or close stroke count if there aren't enough) and they are scored by
+ * similarity to the answer: radical, stroke count and readings, then same
+ * Grade, Level and Kyu as tie-breakers. Distractors always have a meaning
+ * that's different from the answer and from the other distractors in the pool
+ * (so 'old' variants that share a meaning with the answer are never used). If
+ * there aren't enough similar Kanji then a pool is filled with the nearest
+ * Kanji in list order.
+ */
+public final class QuestionGenerator {
+  /**
+   * number of choices per question (the answer plus 'CHOICES - 1' distractors)
+   */
+  public static final int CHOICES = 4;
+
+  /**
+   * maximum distractors stored per Kanji (distractors for a question are
+   * picked randomly from the pool)
+   */
+  public static final int POOL = 2 * CHOICES;
+
+  private static final int RADICAL = 4, SAME_STROKES = 3, CLOSE_STROKES = 2,
+      READING = 3, SAME_GROUP = 1, MAX_SCORE = 64;
+  // readings shared by more Kanji than this are too common to make Kanji
+  // look similar (like 'コウ' for UCD Kanji)
+  private static final int MAX_READING_KANJI = 256;
+
+  private final List<Kanji> kanji;
+  // pool for ordinal 'i' is from poolStarts[i] to poolStarts[i + 1]
+  private final int[] poolStarts;
+  private final int[] pools;
+  private final int[] askable; // ordinals in 'askableSet'
+  private final KanjiSet askableSet;
+
+  private QuestionGenerator(List<Kanji> kanji, KanjiGroups groups,
+      ReadingIndex readings) {
+    this.kanji = kanji;
+    final var size = kanji.size();
+    poolStarts = new int[size + 1];
+    final var result = new int[size * POOL];
+    final var scorer = new Scorer(kanji);
+    final var pool = new int[POOL];
+    for (var i = 0; i < size; ++i) {
+      final var count = scorer.pool(kanji, groups, readings, i, pool);
+      System.arraycopy(pool, 0, result, poolStarts[i], count);
+      poolStarts[i + 1] = poolStarts[i] + count;
+    }
+    pools = Arrays.copyOf(result, poolStarts[size]);
+    final var words = KanjiSet.words(size);
+    for (var i = 0; i < size; ++i)
+      if (poolSize(i) >= CHOICES - 1 && !kanji.get(i).getMeaning().isEmpty())
+        KanjiSet.set(words, i);
+    askableSet = new KanjiSet(words, size);
+    askable = askableSet.toArray();
+  }
+
+  /**
+   * @param kanji    list of Kanji (ordinals are positions in the list)
+   * @param groups   groups for {@code kanji}
+   * @param readings reading index for {@code kanji}
+   * @return new generator
+   */
+  public static QuestionGenerator of(List<Kanji> kanji, KanjiGroups groups,
+      ReadingIndex readings) {
+    return new QuestionGenerator(kanji, groups, readings);
+  }
+
+  /**
+   * @param ordinal Kanji ordinal
+   * @return number of distractors in the pool for {@code ordinal}
+   */
+  public int poolSize(int ordinal) {
+    return poolStarts[ordinal + 1] - poolStarts[ordinal];
+  }
+
+  /**
+   * @param ordinal Kanji ordinal
+   * @param i       position in the pool (0 is the most similar)
+   * @return ordinal of a distractor
+   */
+  public int pool(int ordinal, int i) {
+    return pools[poolStarts[ordinal] + i];
+  }
+
+  /**
+   * @return Kanji that can be used as answers (they have a meaning and enough
+   *     distractors for {@link #CHOICES} choices)
+   */
+  public KanjiSet getAskable() {
+    return askableSet;
+  }
+
+  /**
+   * fill {@code choices} with a random askable Kanji plus distractors
+   *
+   * @param random  random generator (shouldn't be shared between threads)
+   * @param choices array to fill (length must be from 2 to {@link #CHOICES})
+   * @return index of the answer in {@code choices}
+   * @throws DomainException if no Kanji are askable
+   */
+  public int next(RandomGenerator random, int[] choices) {
+    if (askable.length == 0)
+      throw new DomainException("no Kanji can be asked");
+    return next(random, askable[random.nextInt(askable.length)], choices);
+  }
+
+  /**
+   * fill {@code choices} with {@code answer} plus randomly chosen distractors
+   * from its pool (in random order)
+   *
+   * @param random  random generator (shouldn't be shared between threads)
+   * @param answer  ordinal of the correct answer
+   * @param choices array to fill (must have at least 2 elements)
+   * @return index of {@code answer} in {@code choices}
+   * @throws DomainException if the pool for {@code answer} is too small
+   */
+  public int next(RandomGenerator random, int answer, int[] choices) {
+    final var distractors = choices.length - 1;
+    final var start = poolStarts[answer];
+    final var size = poolStarts[answer + 1] - start;
+    if (distractors < 1 || size < distractors)
+      throw new DomainException("can't create " + choices.length +
+                                " choices for '" + kanji.get(answer).getName() +
+                                "'");
+    // Floyd's algorithm picks 'distractors' distinct pool entries
+    for (int j = size - distractors, n = 0; j < size; ++j, ++n) {
+      final var candidate = pools[start + random.nextInt(j + 1)];
+      choices[n] = contains(choices, n, candidate) ? pools[start + j] :
+          candidate;
+    }
+    final var correct = random.nextInt(choices.length);
+    choices[distractors] = choices[correct];
+    choices[correct] = answer;
+    return correct;
+  }
+
+  private static boolean contains(int[] values, int size, int value) {
+    for (var i = 0; i < size; ++i)
+      if (values[i] == value)
+        return true;
+    return false;
+  }
+
+  /**
+   * scores candidates for one Kanji at a time (arrays are reused between
+   * Kanji so building pools doesn't allocate per candidate)
+   */
+  private static final class Scorer {
+    private static final byte NONE = -1;
+
+    private final int[] scores;
+    private final int[] touched;
+    private final long[] ranked; // packed 'MAX_SCORE - score' and ordinal
+    private final int[] buckets = new int[MAX_SCORE + 1];
+    // strokes and 'tie-breaker' groups (enum ordinals or NONE) copied from
+    // the Kanji so the inner loop only reads arrays
+    private final byte[] grades, levels, kyus;
+    private final short[] strokes;
+    private int touchedCount;
+
+    Scorer(List<Kanji> kanji) {
+      final var size = kanji.size();
+      scores = new int[size];
+      touched = new int[size];
+      ranked = new long[size];
+      grades = new byte[size];
+      levels = new byte[size];
+      kyus = new byte[size];
+      strokes = new short[size];
+      for (var i = 0; i < size; ++i) {
+        final var k = kanji.get(i);
+        grades[i] = group(k.getGrade(), Grade.None);
+        levels[i] = group(k.getLevel(), Level.None);
+        kyus[i] = group(k.getKyu(), Kyu.None);
+        strokes[i] = (short) k.getStrokes();
+      }
+    }
+
+    private static int strokesScore(int x, int y) {
+      final var diff = Math.abs(x - y);
+      return diff == 0 ? SAME_STROKES : diff == 1 ? CLOSE_STROKES : 0;
+    }
+
+    private static byte group(Enum<?> value, Enum<?> none) {
+      return value == none ? NONE : (byte) value.ordinal();
+    }
+
+    int pool(List<Kanji> kanji, KanjiGroups groups, ReadingIndex readings,
+        int answer, int[] pool) {
+      final var k = kanji.get(answer);
+      groups.getRadical(k.getRadical()).forEach(i -> add(i, RADICAL));
+      for (var reading : ReadingIndex.split(k.getReading())) {
+        final var postings = readings.postings(reading);
+        if (postings.length <= MAX_READING_KANJI)
+          for (var i : postings)
+            add(i, READING);
+      }
+      // stroke count groups are large so they're only used to find more
+      // candidates when needed (otherwise strokes only adjust scores)
+      final var strokeGroups = touchedCount < 2 * POOL;
+      if (strokeGroups)
+        for (var s = k.getStrokes() - 1; s <= k.getStrokes() + 1; ++s)
+          if (s > 0 && s <= groups.getMaxStrokes()) {
+            final var score = strokesScore(k.getStrokes(), s);
+            groups.getStrokes(s).forEach(i -> add(i, score));
+          }
+      Arrays.fill(buckets, 0);
+      final byte grade = grades[answer], level = levels[answer],
+          kyu = kyus[answer];
+      for (var t = 0; t < touchedCount; ++t) {
+        final var i = touched[t];
+        if (!strokeGroups)
+          scores[i] += strokesScore(k.getStrokes(), strokes[i]);
+        if (grade != NONE && grades[i] == grade)
+          scores[i] += SAME_GROUP;
+        if (level != NONE && levels[i] == level)
+          scores[i] += SAME_GROUP;
+        if (kyu != NONE && kyus[i] == kyu)
+          scores[i] += SAME_GROUP;
+        scores[i] = Math.min(scores[i], MAX_SCORE);
+        ++buckets[scores[i]];
+      }
+      var count = 0;
+      // take candidates from the highest score down (ordinal order within a
+      // score) until the pool is full. Each pass only sorts enough of the
+      // next highest scores to fill the pool (plus some extra in case some
+      // can't be used) instead of sorting all touched candidates.
+      for (int high = MAX_SCORE + 1, low; count < POOL && high > 1;
+           high = low) {
+        low = high;
+        for (var available = 0; low > 1 && available < 2 * (POOL - count); )
+          available += buckets[--low];
+        var n = 0;
+        for (var t = 0; t < touchedCount; ++t) {
+          final var i = touched[t];
+          if (scores[i] >= low && scores[i] < high)
+            ranked[n++] = (long) (MAX_SCORE - scores[i]) << Integer.SIZE | i;
+        }
+        Arrays.sort(ranked, 0, n);
+        for (var j = 0; j < n && count < POOL; ++j) {
+          final var i = (int) ranked[j];
+          if (usable(kanji, answer, i, pool, count))
+            pool[count++] = i;
+        }
+      }
+      // fill the rest with the nearest Kanji (by ordinal)
+      for (var d = 1; count < POOL && (answer - d >= 0 ||
+                                       answer + d < kanji.size()); ++d) {
+        if (answer - d >= 0 && scores[answer - d] == 0 &&
+            usable(kanji, answer, answer - d, pool, count))
+          pool[count++] = answer - d;
+        if (count < POOL && answer + d < kanji.size() &&
+            scores[answer + d] == 0 &&
+            usable(kanji, answer, answer + d, pool, count))
+          pool[count++] = answer + d;
+      }
+      for (var t = 0; t < touchedCount; ++t)
+        scores[touched[t]] = 0;
+      touchedCount = 0;
+      return count;
+    }
+
+    private void add(int ordinal, int score) {
+      if (scores[ordinal] == 0)
+        touched[touchedCount++] = ordinal;
+      scores[ordinal] += score;
+    }
+
+    // candidate must have a meaning that isn't the same as the answer or any
+    // distractor already in the pool
+    private static boolean usable(List<Kanji> kanji, int answer, int candidate,
+        int[] pool, int count) {
+      final var meaning = kanji.get(candidate).getMeaning();
+      if (candidate == answer || meaning.isEmpty() ||
+          meaning.equals(kanji.get(answer).getMeaning()))
+        return false;
+      for (var i = 0; i < count; ++i)
+        if (meaning.equals(kanji.get(pool[i]).getMeaning()))
+          return false;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,448 @@
+package com.github.anzumura.kt;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.KanjiFilter.*;
+
+/**
+ * lightweight HTTP quiz service built on the JDK 'httpserver' module. Each
+ * request reads the current {@link KanjiData} from a {@link KanjiStore} once
+ * so reloads never block requests. Endpoints (all responses are JSON):
+ * <ul>
+ *   <li>{@code GET /question?session=S&type=T&grade=G&level=L&kyu=K} - new
+ *   multiple choice question (pick the meaning of a Kanji) created by
+ *   {@link QuestionGenerator}. 'session' and the filters are optional, a new
+ *   session is created if it's missing (but only once the filters have been
+ *   checked and match at least one Kanji).</li>
+ *   <li>{@code POST /answer?session=S&choice=N} - answer the current question
+ *   for a session</li>
+ *   <li>{@code GET /kanji?type=T&grade=G&level=L&kyu=K} - Kanji names that
+ *   match all given filters</li>
+ * </ul>
+ * Sessions are small objects in a concurrent map (a few dozen bytes each).
+ * Sessions that haven't been used for {@link SessionLimits#idleTimeout} are
+ * removed and at most {@link SessionLimits#max} sessions are kept, so when the
+ * server is full requests for new sessions get '503 Service Unavailable' until
+ * existing sessions expire. Unexpected errors are returned as '500 Internal
+ * Server Error' (with a JSON body like other errors). By default requests run
+ * on a fixed pool of {@link #DEFAULT_THREADS} platform threads (the project
+ * targets Java 17 so virtual threads aren't available). Requests only do a
+ * little CPU work and never block on I/O other than the exchange itself, so a
+ * bounded pool with queued requests handles many sessions per thread.
+ */
+public final class QuizServer implements AutoCloseable {
+  /**
+   * number of request threads used by {@link #start(KanjiStore,
+   * InetSocketAddress)}
+   */
+  public static final int DEFAULT_THREADS = 64;
+
+  private static final int BACKLOG = 1024;
+  private static final int OK = 200, BAD_REQUEST = 400, NOT_FOUND = 404,
+      BAD_METHOD = 405, CONFLICT = 409, INTERNAL_ERROR = 500,
+      UNAVAILABLE = 503;
+  // idle sessions are removed by a sweep that runs at most this many times per
+  // idle timeout (so a session lives for at most 1.125 times the timeout)
+  private static final int SWEEPS_PER_TIMEOUT = 8;
+
+  private final KanjiStore store;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final SessionLimits limits;
+  private final long idleNanos;
+  private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+  // 'sessions.size' isn't exact while other threads are updating the map
+  private final AtomicInteger sessionCount = new AtomicInteger();
+  private final AtomicLong nextSession = new AtomicLong();
+  private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+  private QuizServer(KanjiStore store, InetSocketAddress address,
+      ExecutorService executor, SessionLimits limits) throws IOException {
+    this.store = store;
+    this.executor = executor;
+    this.limits = limits;
+    idleNanos = limits.idleTimeout.toNanos();
+    server = HttpServer.create(address, BACKLOG);
+    server.createContext("/question", x -> handle(x, "GET", this::question));
+    server.createContext("/answer", x -> handle(x, "POST", this::answer));
+    server.createContext("/kanji", x -> handle(x, "GET", this::kanji));
+    server.setExecutor(executor);
+  }
+
+  /**
+   * start a server with {@link SessionLimits#DEFAULT} limits that runs
+   * requests on {@code newExecutor(DEFAULT_THREADS)}
+   *
+   * @param store   source of Kanji data
+   * @param address address to bind (use port 0 for any free port)
+   * @return running server
+   * @throws DomainException if the server can't be started
+   */
+  public static QuizServer start(KanjiStore store, InetSocketAddress address) {
+    return start(store, address, newExecutor(DEFAULT_THREADS));
+  }
+
+  /**
+   * start a server with {@link SessionLimits#DEFAULT} limits
+   *
+   * @param store    source of Kanji data
+   * @param address  address to bind (use port 0 for any free port)
+   * @param executor executor for requests (shut down by {@link #close})
+   * @return running server
+   * @throws DomainException if the server can't be started
+   */
+  public static QuizServer start(KanjiStore store, InetSocketAddress address,
+      ExecutorService executor) {
+    return start(store, address, executor, SessionLimits.DEFAULT);
+  }
+
+  /**
+   * @param store    source of Kanji data
+   * @param address  address to bind (use port 0 for any free port)
+   * @param executor executor for requests (shut down by {@link #close})
+   * @param limits   limits for the number of sessions and how long they live
+   * @return running server
+   * @throws DomainException if the server can't be started
+   */
+  public static QuizServer start(KanjiStore store, InetSocketAddress address,
+      ExecutorService executor, SessionLimits limits) {
+    try {
+      final var result = new QuizServer(store, address, executor, limits);
+      result.server.start();
+      return result;
+    } catch (IOException e) {
+      executor.shutdown();
+      throw new DomainException("failed to start server: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @param threads number of threads
+   * @return executor with a fixed pool of {@code threads} platform threads
+   *     (tasks wait in a queue when all threads are busy)
+   * @throws DomainException if {@code threads} isn't positive
+   */
+  public static ExecutorService newExecutor(int threads) {
+    if (threads < 1)
+      throw new DomainException("invalid threads: " + threads);
+    return Executors.newFixedThreadPool(threads);
+  }
+
+  /**
+   * @return bound port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * @return number of sessions
+   */
+  public int sessions() {
+    return sessions.size();
+  }
+
+  /**
+   * stop the server (in progress requests are given a short time to finish)
+   */
+  @Override
+  public void close() {
+    server.stop(1);
+    executor.shutdown();
+  }
+
+  private void handle(HttpExchange exchange, String method, Handler handler)
+      throws IOException {
+    var status = OK;
+    String body;
+    try (exchange) {
+      if (!exchange.getRequestMethod().equals(method)) {
+        status = BAD_METHOD;
+        body = error("expected " + method);
+      } else
+        try {
+          body = handler.handle(params(exchange.getRequestURI().getRawQuery()));
+        } catch (RequestException e) {
+          status = e.status;
+          body = error(e.getMessage());
+        } catch (DomainException e) {
+          status = BAD_REQUEST;
+          body = error(e.getMessage());
+        } catch (RuntimeException e) {
+          // don't leak details of unexpected errors to clients
+          status = INTERNAL_ERROR;
+          body = error("internal error");
+        }
+      final var bytes = body.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type",
+          "application/json; charset=utf-8");
+      exchange.sendResponseHeaders(status, bytes.length);
+      exchange.getResponseBody().write(bytes);
+    }
+  }
+
+  private String question(Map<String, String> params) {
+    final var data = store.get();
+    final var questions = data.getQuestions();
+    final var ordinals = data.getQuery().select(filter(params))
+        .and(questions.getAskable()).toArray();
+    if (ordinals.length == 0)
+      throw new RequestException(NOT_FOUND, "no Kanji match the filters");
+    // only create a session once the request is known to be valid
+    final var session = session(params.get("session"));
+    final var random = ThreadLocalRandom.current();
+    final var choices = new int[QuestionGenerator.CHOICES];
+    final var ordinal = ordinals[random.nextInt(ordinals.length)];
+    final var answer = data.getKanji().get(ordinal);
+    final var correct = questions.next(random, ordinal, choices);
+    final var meanings = new ArrayList<String>(choices.length);
+    for (var i : choices)
+      meanings.add(data.getKanji().get(i).getMeaning());
+    session.ask(correct, answer.getMeaning());
+    return "{\"session\":" + session.id + ",\"kanji\":" +
+           quote(answer.getName()) + ",\"choices\":" + quote(meanings) + "}";
+  }
+
+  private String answer(Map<String, String> params) {
+    final var id = params.get("session");
+    if (id == null)
+      throw new DomainException("missing 'session'");
+    final var session = session(id);
+    final var choice = number("choice", params.get("choice"));
+    return session.answer(choice);
+  }
+
+  private String kanji(Map<String, String> params) {
+    final var data = store.get();
+    final var names = new ArrayList<String>();
+    data.getQuery().select(filter(params))
+        .forEach(i -> names.add(data.getKanji().get(i).getName()));
+    return "{\"count\":" + names.size() + ",\"kanji\":" + quote(names) + "}";
+  }
+
+  private Session session(String id) {
+    final var now = System.nanoTime();
+    final var last = lastSweep.get();
+    if (now - last >= idleNanos / SWEEPS_PER_TIMEOUT &&
+        lastSweep.compareAndSet(last, now))
+      sweep(now);
+    if (id == null)
+      return newSession(now);
+    final var number = number("session", id);
+    final var session = sessions.get(number);
+    if (session == null || !session.use(now, idleNanos)) {
+      if (session != null)
+        remove(number, session);
+      throw new RequestException(NOT_FOUND, "unknown session: " + id);
+    }
+    return session;
+  }
+
+  private Session newSession(long now) {
+    for (var count = sessionCount.get(); ; count = sessionCount.get())
+      if (count >= limits.max)
+        throw new RequestException(UNAVAILABLE, "too many sessions");
+      else if (sessionCount.compareAndSet(count, count + 1))
+        break;
+    final var session = new Session(nextSession.incrementAndGet(), now);
+    sessions.put(session.id, session);
+    return session;
+  }
+
+  private void sweep(long now) {
+    sessions.forEach((id, session) -> {
+      if (session.isIdle(now, idleNanos))
+        remove(id, session);
+    });
+  }
+
+  private void remove(long id, Session session) {
+    if (sessions.remove(id, session))
+      sessionCount.decrementAndGet();
+  }
+
+  private static KanjiFilter filter(Map<String, String> params) {
+    final var filters = new ArrayList<KanjiFilter>();
+    addFilter(filters, params, "type", Type.class);
+    addFilter(filters, params, "grade", Grade.class);
+    addFilter(filters, params, "level", Level.class);
+    addFilter(filters, params, "kyu", Kyu.class);
+    return new And(filters);
+  }
+
+  private static <T extends Enum<T>> void addFilter(List<KanjiFilter> filters,
+      Map<String, String> params, String name, Class<T> type) {
+    final var value = params.get(name);
+    if (value != null)
+      try {
+        filters.add(new Is(Enum.valueOf(type, value)));
+      } catch (IllegalArgumentException e) {
+        throw new DomainException("bad '" + name + "': " + value);
+      }
+  }
+
+  private static long number(String name, String value) {
+    if (value == null)
+      throw new DomainException("missing '" + name + "'");
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new DomainException("bad '" + name + "': " + value);
+    }
+  }
+
+  private static Map<String, String> params(String query) {
+    final var result = new HashMap<String, String>();
+    if (query != null)
+      for (var param : query.split("&")) {
+        final var equals = param.indexOf('=');
+        if (equals > 0)
+          result.put(decode(param.substring(0, equals)),
+              decode(param.substring(equals + 1)));
+      }
+    return result;
+  }
+
+  private static String decode(String s) {
+    try {
+      return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new DomainException("bad query: " + s);
+    }
+  }
+
+  private static String error(String message) {
+    return "{\"error\":" + quote(message) + "}";
+  }
+
+  private static String quote(List<String> values) {
+    final var result = new StringBuilder("[");
+    for (var s : values) {
+      if (result.length() > 1)
+        result.append(',');
+      result.append(quote(s));
+    }
+    return result.append(']').toString();
+  }
+
+  private static String quote(String s) {
+    final var result = new StringBuilder(s.length() + 2).append('"');
+    for (var i = 0; i < s.length(); ++i) {
+      final var c = s.charAt(i);
+      if (c == '"' || c == '\\')
+        result.append('\\').append(c);
+      else if (c < ' ')
+        result.append(String.format("\\u%04x", (int) c));
+      else
+        result.append(c);
+    }
+    return result.append('"').toString();
+  }
+
+  /**
+   * @param max         maximum number of sessions
+   * @param idleTimeout sessions that aren't used for this long are removed
+   */
+  public record SessionLimits(int max, Duration idleTimeout) {
+    /**
+     * default limits: 100,000 sessions and a 30 minute idle timeout
+     */
+    public static final SessionLimits DEFAULT =
+        new SessionLimits(100_000, Duration.ofMinutes(30));
+
+    /**
+     * @throws DomainException if {@code max} or {@code idleTimeout} isn't
+     *                         positive
+     */
+    public SessionLimits {
+      if (max < 1)
+        throw new DomainException("invalid max sessions: " + max);
+      if (idleTimeout.isNegative() || idleTimeout.isZero())
+        throw new DomainException("invalid idle timeout: " + idleTimeout);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Handler {
+    String handle(Map<String, String> params);
+  }
+
+  private static final class RequestException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    RequestException(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+
+  /**
+   * state for one user (a session only handles one request at a time)
+   */
+  private static final class Session {
+    private static final int NO_QUESTION = -1;
+
+    private final long id;
+    private int choice = NO_QUESTION, asked, correct;
+    private String answer;
+    private long lastUsed; // System.nanoTime of the most recent request
+
+    Session(long id, long now) {
+      this.id = id;
+      lastUsed = now;
+    }
+
+    synchronized boolean isIdle(long now, long idleNanos) {
+      return now - lastUsed >= idleNanos;
+    }
+
+    /**
+     * @return false if the session has been idle for too long
+     */
+    synchronized boolean use(long now, long idleNanos) {
+      if (isIdle(now, idleNanos))
+        return false;
+      lastUsed = Math.max(lastUsed, now);
+      return true;
+    }
+
+    synchronized void ask(int choice, String answer) {
+      this.choice = choice;
+      this.answer = answer;
+      ++asked;
+    }
+
+    synchronized String answer(long choice) {
+      if (this.choice == NO_QUESTION)
+        throw new RequestException(CONFLICT, "no question for session: " + id);
+      final var result = choice == this.choice;
+      if (result)
+        ++correct;
+      this.choice = NO_QUESTION;
+      return "{\"correct\":" + result + ",\"answer\":" + quote(answer) +
+             ",\"score\":" + correct + ",\"asked\":" + asked + "}";
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.github.anzumura.kt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * inverted index from reading (読み) to the Kanji with that reading. Readings
+ * are 'normalized' by folding Katakana to Hiragana and removing the dash (-)
+ * used to mark Okurigana so On and Kun readings are searched the same way
+ * ('シ' and 'し' both normalize to 'し' and 'し-る' becomes 'しる' so it's
+ * found by an exact query for 'しる' or a prefix query for 'し'). Normalized
+ * readings are stored in a sorted array (so prefix queries are a binary
+ * search plus a scan) and each reading has a sorted array of Kanji ordinals
+ * (positions in the list used to build the index).
+ */
+public final class ReadingIndex {
+  private static final char KATAKANA_START = 'ァ', KATAKANA_END = 'ヶ',
+      KATAKANA_TO_HIRAGANA = 'ァ' - 'ぁ', OKURIGANA = '-';
+  private static final int[] NO_POSTINGS = new int[0];
+
+  private final int capacity; // number of Kanji
+  private final String[] readings;
+  private final int[][] postings;
+
+  private ReadingIndex(List<? extends Kanji> kanji) {
+    capacity = kanji.size();
+    final var result = new HashMap<String, Postings>();
+    for (var i = 0; i < capacity; ++i)
+      for (var token : split(kanji.get(i).getReading()))
+        result.computeIfAbsent(token, x -> new Postings()).add(i);
+    readings = result.keySet().toArray(new String[0]);
+    Arrays.sort(readings);
+    postings = new int[readings.length][];
+    for (var i = 0; i < readings.length; ++i)
+      postings[i] = result.get(readings[i]).toArray();
+  }
+
+  /**
+   * @param kanji list of Kanji
+   * @return new index of the readings of {@code kanji}
+   */
+  public static ReadingIndex of(List<? extends Kanji> kanji) {
+    return new ReadingIndex(kanji);
+  }
+
+  /**
+   * @param reading a reading (can be Katakana or Hiragana)
+   * @return normalized reading (Hiragana without any Okurigana dashes)
+   */
+  public static String normalize(String reading) {
+    final var result = new StringBuilder(reading.length());
+    for (var i = 0; i < reading.length(); ++i)
+      append(result, reading.charAt(i));
+    return result.toString();
+  }
+
+  /**
+   * @param reading Kanji reading (one or more readings separated by '、', ',' or
+   *                spaces)
+   * @return normalized readings in order (empty readings are skipped)
+   */
+  static List<String> split(String reading) {
+    final var result = new ArrayList<String>();
+    final var token = new StringBuilder();
+    for (var pos = 0; pos <= reading.length(); ++pos)
+      if (pos == reading.length() || isSeparator(reading.charAt(pos))) {
+        if (!token.isEmpty()) {
+          result.add(token.toString());
+          token.setLength(0);
+        }
+      } else
+        append(token, reading.charAt(pos));
+    return result;
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == '、' || c == ',' || c == ' ' || c == '　';
+  }
+
+  private static void append(StringBuilder s, char c) {
+    if (c >= KATAKANA_START && c <= KATAKANA_END)
+      s.append((char) (c - KATAKANA_TO_HIRAGANA));
+    else if (c != OKURIGANA)
+      s.append(c);
+  }
+
+  /**
+   * @return number of distinct normalized readings
+   */
+  public int size() {
+    return readings.length;
+  }
+
+  /**
+   * @param reading reading to find (normalized before searching)
+   * @return ordinals of Kanji with the reading (in ascending order)
+   */
+  public int[] ordinals(String reading) {
+    final var i = Arrays.binarySearch(readings, normalize(reading));
+    return i < 0 ? new int[0] : postings[i].clone();
+  }
+
+  /**
+   * @param normalized a normalized reading
+   * @return ordinals of Kanji with the reading (not a copy so it must not be
+   *     modified)
+   */
+  int[] postings(String normalized) {
+    final var i = Arrays.binarySearch(readings, normalized);
+    return i < 0 ? NO_POSTINGS : postings[i];
+  }
+
+  /**
+   * @param reading reading to find (normalized before searching)
+   * @return set of Kanji with the reading
+   */
+  public KanjiSet get(String reading) {
+    final var words = KanjiSet.words(capacity);
+    final var i = Arrays.binarySearch(readings, normalize(reading));
+    if (i >= 0)
+      for (var ordinal : postings[i])
+        KanjiSet.set(words, ordinal);
+    return new KanjiSet(words, capacity);
+  }
+
+  /**
+   * @param prefix start of a reading (normalized before searching)
+   * @return set of Kanji that have a reading starting with {@code prefix}
+   */
+  public KanjiSet getPrefix(String prefix) {
+    final var normalized = normalize(prefix);
+    final var words = KanjiSet.words(capacity);
+    final var start = Arrays.binarySearch(readings, normalized);
+    for (var i = start < 0 ? -start - 1 : start;
+         i < readings.length && readings[i].startsWith(normalized); ++i)
+      for (var ordinal : postings[i])
+        KanjiSet.set(words, ordinal);
+    return new KanjiSet(words, capacity);
+  }
+}
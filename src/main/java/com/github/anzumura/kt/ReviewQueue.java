@@ -0,0 +1,332 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+
+/**
+ * spaced repetition review queue for one user using the SM-2 algorithm. Cards
+ * are identified by Kanji ordinal and stored in parallel primitive arrays
+ * instead of an object per card with a binary min-heap on due time, so
+ * updating a card after an answer and finding the next due card are O(log n).
+ * Times are whole minutes (like the value returned by {@link #minutes}).
+ * <p>
+ * Each slot of capacity uses 21 bytes for card and heap data plus at least 8
+ * bytes for the hash table (which has at least twice as many entries as there
+ * are slots). Arrays double in size when they are full so a growing queue uses
+ * between 29 and 58 bytes per card, {@link #trimToSize} reduces this to 29 to
+ * 37 bytes per card once a queue stops growing.
+ * <p>
+ * Instances aren't thread-safe (see {@link ReviewScheduler} for sharing).
+ *
+ * @see <a href="https://super-memory.com/english/ol/sm2.htm">SM-2</a>
+ */
+public final class ReviewQueue {
+  /**
+   * value returned when there's no card
+   */
+  public static final int NONE = -1;
+
+  /**
+   * highest answer grade (SM-2 grades are 0 to 5 and 3 or more is correct)
+   */
+  public static final int MAX_GRADE = 5;
+
+  private static final int PASS_GRADE = 3, MINUTES_PER_DAY = 24 * 60;
+  // ease factors are stored as percent (SM-2 starts at 2.5 with a min of 1.3)
+  private static final short START_EASE = 250, MIN_EASE = 130;
+  private static final int MAX_INTERVAL_DAYS = Short.MAX_VALUE;
+  private static final int INITIAL_CAPACITY = 8;
+
+  // card data indexed by 'slot' (slots are assigned in the order cards are
+  // added and never change)
+  private int[] ordinals = new int[INITIAL_CAPACITY];
+  private int[] due = new int[INITIAL_CAPACITY];
+  private short[] intervals = new short[INITIAL_CAPACITY]; // days
+  private short[] eases = new short[INITIAL_CAPACITY];
+  private byte[] repetitions = new byte[INITIAL_CAPACITY];
+  // min-heap of slots ordered by due time plus position of each slot
+  private int[] heap = new int[INITIAL_CAPACITY];
+  private int[] positions = new int[INITIAL_CAPACITY];
+  // open addressing hash table from ordinal to 'slot + 1' (0 means empty)
+  private int[] table = new int[INITIAL_CAPACITY * 2];
+  private int shift = shift(table.length);
+  private int size;
+
+  /**
+   * @param epochMillis milliseconds since the epoch
+   * @return minutes since the epoch (fits in an int until the year 6000)
+   */
+  public static int minutes(long epochMillis) {
+    return (int) (epochMillis / 60_000);
+  }
+
+  /**
+   * @return number of cards
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param ordinal Kanji ordinal
+   * @return true if there's a card for {@code ordinal}
+   */
+  public boolean contains(int ordinal) {
+    return slot(ordinal) != NONE;
+  }
+
+  /**
+   * add a new card that's due at {@code now} (does nothing if the card
+   * already exists)
+   *
+   * @param ordinal Kanji ordinal
+   * @param now     current time in minutes
+   */
+  public void add(int ordinal, int now) {
+    if (ordinal < 0)
+      throw new DomainException("invalid ordinal: " + ordinal);
+    if (slot(ordinal) == NONE)
+      insert(ordinal, now);
+  }
+
+  /**
+   * update a card after an answer (a new card is added first if needed)
+   *
+   * @param ordinal Kanji ordinal
+   * @param grade   answer quality from 0 to {@link #MAX_GRADE} (below 3 means
+   *                the answer was wrong so the card starts again)
+   * @param now     current time in minutes
+   * @return new due time in minutes
+   * @throws DomainException if {@code grade} or {@code ordinal} is invalid
+   */
+  public int answer(int ordinal, int grade, int now) {
+    if (grade < 0 || grade > MAX_GRADE)
+      throw new DomainException("grade must be from 0 to " + MAX_GRADE +
+                                ": " + grade);
+    add(ordinal, now);
+    final var slot = slot(ordinal);
+    final int interval;
+    if (grade < PASS_GRADE) {
+      repetitions[slot] = 0;
+      interval = 1;
+    } else {
+      interval = switch (repetitions[slot]) {
+        case 0 -> 1;
+        case 1 -> 6;
+        default -> (int) Math.min(MAX_INTERVAL_DAYS,
+            Math.round(intervals[slot] * eases[slot] / 100.0));
+      };
+      if (repetitions[slot] < Byte.MAX_VALUE)
+        ++repetitions[slot];
+      // SM-2 only changes the ease factor for correct answers
+      final var miss = MAX_GRADE - grade;
+      eases[slot] = (short) Math.max(MIN_EASE,
+          eases[slot] + 10 - miss * (8 + miss * 2));
+    }
+    intervals[slot] = (short) interval;
+    final var oldDue = due[slot];
+    due[slot] = now + interval * MINUTES_PER_DAY;
+    if (due[slot] < oldDue)
+      siftUp(positions[slot]);
+    else
+      siftDown(positions[slot]);
+    return due[slot];
+  }
+
+  /**
+   * @return ordinal of the card with the earliest due time or {@link #NONE}
+   */
+  public int peek() {
+    return size == 0 ? NONE : ordinals[heap[0]];
+  }
+
+  /**
+   * @param ordinal Kanji ordinal
+   * @return due time in minutes or {@link #NONE} if there's no card
+   */
+  public int getDue(int ordinal) {
+    final var slot = slot(ordinal);
+    return slot == NONE ? NONE : due[slot];
+  }
+
+  /**
+   * @param ordinal Kanji ordinal
+   * @return current interval in days (0 for a new card) or {@link #NONE}
+   */
+  public int getInterval(int ordinal) {
+    final var slot = slot(ordinal);
+    return slot == NONE ? NONE : intervals[slot];
+  }
+
+  /**
+   * @param ordinal Kanji ordinal
+   * @return ease factor as a percentage (250 for a new card) or {@link #NONE}
+   */
+  public int getEase(int ordinal) {
+    final var slot = slot(ordinal);
+    return slot == NONE ? NONE : eases[slot];
+  }
+
+  /**
+   * find cards that are due without changing the queue (uses a small
+   * auxiliary heap so it's O(n log n) for 'n' results)
+   *
+   * @param now    current time in minutes
+   * @param result array to fill with ordinals (earliest due first)
+   * @return number of ordinals put in {@code result}
+   */
+  public int due(int now, int[] result) {
+    if (size == 0 || result.length == 0)
+      return 0;
+    // candidates are heap positions ordered by due time
+    final var candidates = new int[result.length + 1];
+    var count = 0;
+    var n = 0;
+    candidates[count++] = 0;
+    while (count > 0 && n < result.length) {
+      final var top = candidates[0];
+      if (due[heap[top]] > now)
+        break;
+      result[n++] = ordinals[heap[top]];
+      // replace 'top' with its children (at most one extra candidate)
+      final int left = 2 * top + 1, right = left + 1;
+      candidates[0] = candidates[--count];
+      siftDownCandidates(candidates, count);
+      for (var child = left; child <= right; ++child)
+        if (child < size && count < candidates.length) {
+          candidates[count] = child;
+          siftUpCandidates(candidates, count++);
+        }
+    }
+    return n;
+  }
+
+  /**
+   * shrink arrays to the current number of cards (adding a card afterwards
+   * grows them again)
+   */
+  public void trimToSize() {
+    if (size < ordinals.length)
+      resize(Math.max(size, 1));
+  }
+
+  /**
+   * @return estimated bytes used by the arrays (not including array headers),
+   *     this depends on capacity rather than the number of cards
+   */
+  public long memoryBytes() {
+    return (long) ordinals.length * (Integer.BYTES * 4 + Short.BYTES * 2 + 1) +
+           (long) table.length * Integer.BYTES;
+  }
+
+  private boolean less(int x, int y) {
+    return due[x] < due[y] || due[x] == due[y] && ordinals[x] < ordinals[y];
+  }
+
+  private void insert(int ordinal, int now) {
+    if (size == ordinals.length)
+      resize(ordinals.length * 2);
+    final var slot = size++;
+    ordinals[slot] = ordinal;
+    due[slot] = now;
+    eases[slot] = START_EASE;
+    heap[slot] = slot;
+    positions[slot] = slot;
+    siftUp(slot);
+    put(ordinal, slot);
+  }
+
+  private void resize(int capacity) {
+    ordinals = Arrays.copyOf(ordinals, capacity);
+    due = Arrays.copyOf(due, capacity);
+    intervals = Arrays.copyOf(intervals, capacity);
+    eases = Arrays.copyOf(eases, capacity);
+    repetitions = Arrays.copyOf(repetitions, capacity);
+    heap = Arrays.copyOf(heap, capacity);
+    positions = Arrays.copyOf(positions, capacity);
+    // a power of two that's at least twice the capacity
+    table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    shift = shift(table.length);
+    for (var slot = 0; slot < size; ++slot)
+      put(ordinals[slot], slot);
+  }
+
+  private void siftUp(int position) {
+    final var slot = heap[position];
+    while (position > 0) {
+      final var parent = (position - 1) / 2;
+      if (!less(slot, heap[parent]))
+        break;
+      move(heap[parent], position);
+      position = parent;
+    }
+    move(slot, position);
+  }
+
+  private void siftDown(int position) {
+    final var slot = heap[position];
+    for (int child; (child = 2 * position + 1) < size; position = child) {
+      if (child + 1 < size && less(heap[child + 1], heap[child]))
+        ++child;
+      if (!less(heap[child], slot))
+        break;
+      move(heap[child], position);
+    }
+    move(slot, position);
+  }
+
+  private void move(int slot, int position) {
+    heap[position] = slot;
+    positions[slot] = position;
+  }
+
+  private boolean lessAt(int x, int y) {
+    return less(heap[x], heap[y]);
+  }
+
+  private void siftUpCandidates(int[] candidates, int i) {
+    for (int parent; i > 0 &&
+                     lessAt(candidates[i], candidates[parent = (i - 1) / 2]);
+         i = parent)
+      swap(candidates, i, parent);
+  }
+
+  private void siftDownCandidates(int[] candidates, int count) {
+    for (int i = 0, child; (child = 2 * i + 1) < count; i = child) {
+      if (child + 1 < count && lessAt(candidates[child + 1], candidates[child]))
+        ++child;
+      if (!lessAt(candidates[child], candidates[i]))
+        break;
+      swap(candidates, i, child);
+    }
+  }
+
+  private static void swap(int[] values, int i, int j) {
+    final var t = values[i];
+    values[i] = values[j];
+    values[j] = t;
+  }
+
+  private static int shift(int tableSize) {
+    return Long.SIZE - Integer.numberOfTrailingZeros(tableSize);
+  }
+
+  // Fibonacci hashing: take the top bits of the product since ordinals can
+  // share their low bits (and multiplying keeps trailing zeros)
+  private int hash(int ordinal) {
+    return (int) ((ordinal * 0x9e3779b97f4a7c15L) >>> shift);
+  }
+
+  private void put(int ordinal, int slot) {
+    var i = hash(ordinal);
+    while (table[i] != 0)
+      i = (i + 1) & (table.length - 1);
+    table[i] = slot + 1;
+  }
+
+  private int slot(int ordinal) {
+    for (var i = hash(ordinal); table[i] != 0; i = (i + 1) & (table.length - 1))
+      if (ordinals[table[i] - 1] == ordinal)
+        return table[i] - 1;
+    return NONE;
+  }
+}
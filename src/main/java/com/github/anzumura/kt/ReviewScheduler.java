@@ -0,0 +1,126 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * spaced repetition schedules for many users. Each user has a
+ * {@link ReviewQueue} (primitive arrays, no objects per card) held in a
+ * concurrent map and operations on one user lock only that user's queue, so
+ * answers from different users never contend. {@link #due(int, int)} finds due
+ * cards for all users in parallel (using the common fork-join pool).
+ */
+public final class ReviewScheduler {
+  // users per task when searching all queues in parallel
+  private static final long PARALLELISM_THRESHOLD = 1024;
+
+  private final ConcurrentHashMap<Long, ReviewQueue> queues =
+      new ConcurrentHashMap<>();
+
+  /**
+   * @return number of users with a queue
+   */
+  public int users() {
+    return queues.size();
+  }
+
+  /**
+   * @param user user id
+   * @return number of cards for {@code user}
+   */
+  public int size(long user) {
+    final var queue = queues.get(user);
+    if (queue == null)
+      return 0;
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * add a new card for {@code user} (see {@link ReviewQueue#add})
+   *
+   * @param user    user id
+   * @param ordinal Kanji ordinal
+   * @param now     current time in minutes
+   */
+  public void add(long user, int ordinal, int now) {
+    final var queue = queue(user);
+    synchronized (queue) {
+      queue.add(ordinal, now);
+    }
+  }
+
+  /**
+   * update a card for {@code user} (see {@link ReviewQueue#answer})
+   *
+   * @param user    user id
+   * @param ordinal Kanji ordinal
+   * @param grade   answer quality from 0 to {@link ReviewQueue#MAX_GRADE}
+   * @param now     current time in minutes
+   * @return new due time in minutes
+   * @throws DomainException if {@code grade} or {@code ordinal} is invalid
+   */
+  public int answer(long user, int ordinal, int grade, int now) {
+    final var queue = queue(user);
+    synchronized (queue) {
+      return queue.answer(ordinal, grade, now);
+    }
+  }
+
+  /**
+   * @param user   user id
+   * @param now    current time in minutes
+   * @param result array to fill with due ordinals (earliest due first)
+   * @return number of ordinals put in {@code result}
+   */
+  public int due(long user, int now, int[] result) {
+    final var queue = queues.get(user);
+    if (queue == null)
+      return 0;
+    synchronized (queue) {
+      return queue.due(now, result);
+    }
+  }
+
+  /**
+   * find the next due cards for all users (users without any due cards are
+   * left out of the result)
+   *
+   * @param now   current time in minutes
+   * @param limit maximum ordinals per user
+   * @return map of user id to due ordinals (earliest due first)
+   */
+  public Map<Long, int[]> due(int now, int limit) {
+    final var result = new ConcurrentHashMap<Long, int[]>();
+    if (limit > 0)
+      queues.forEach(PARALLELISM_THRESHOLD, (user, queue) -> {
+        final var ordinals = new int[limit];
+        final int count;
+        synchronized (queue) {
+          count = queue.due(now, ordinals);
+        }
+        if (count > 0)
+          result.put(user,
+              count == limit ? ordinals : Arrays.copyOf(ordinals, count));
+      });
+    return result;
+  }
+
+  /**
+   * @return estimated bytes used by card data for all users (see
+   *     {@link ReviewQueue#memoryBytes})
+   */
+  public long memoryBytes() {
+    return queues.reduceValuesToLong(PARALLELISM_THRESHOLD, queue -> {
+      synchronized (queue) {
+        return queue.memoryBytes();
+      }
+    }, 0, Long::sum);
+  }
+
+  private ReviewQueue queue(long user) {
+    return queues.computeIfAbsent(user, x -> new ReviewQueue());
+  }
+}
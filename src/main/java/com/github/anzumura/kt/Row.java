@@ -0,0 +1,39 @@
+package com.github.anzumura.kt;
+
+import static com.github.anzumura.kt.ColumnFile.Column;
+
+/**
+ * provides access to values of the current row of a {@link ColumnFile}
+ */
+public interface Row {
+  /**
+   * @return current row number (starting at 1 for the first data row)
+   */
+  int currentRow();
+
+  /**
+   * @param column column contained in the file
+   * @return string value for the given {@code column} in current row
+   */
+  String get(Column column);
+
+  /**
+   * @param column column contained in the file
+   * @return unsigned int value for the given {@code column} in current row
+   */
+  int getUnsignedInt(Column column);
+
+  /**
+   * @param column   column contained in the file
+   * @param maxValue maximum value allowed (check is only applied if maxValue
+   *                 is non-negative)
+   * @return unsigned int value for the given {@code column} in current row
+   */
+  int getUnsignedInt(Column column, int maxValue);
+
+  /**
+   * @param column column contained in the file
+   * @return true for "Y" or "T", false for "N", "F" or ""
+   */
+  boolean getBoolean(Column column);
+}
@@ -0,0 +1,215 @@
+package com.github.anzumura.kt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * scans rows and delimiter separated values directly from UTF-8 encoded bytes
+ * (used by memory-mapped ColumnFiles). Values are tracked as [start, end)
+ * offsets into the buffer and only decoded to Strings when requested.
+ */
+final class RowScanner {
+  /**
+   * returned by {@link #singleByte} for an empty value
+   */
+  static final int EMPTY = -1;
+
+  private static final byte CR = '\r', LF = '\n';
+  private static final int NOT_SINGLE_BYTE = -2;
+  private static final long MAX_UNSIGNED_INT = 0xffff_ffffL;
+  private static final int INITIAL_SCRATCH_SIZE = 64;
+
+  private final ByteBuffer buffer;
+  private final byte[] delimiter;
+  private final int end;
+  private int position, rowStart, rowEnd;
+  private byte[] scratch = new byte[INITIAL_SCRATCH_SIZE];
+
+  /**
+   * @param buffer    UTF-8 encoded data (only absolute 'get' methods are used)
+   * @param delimiter UTF-8 encoded value delimiter (must be non-empty)
+   */
+  RowScanner(ByteBuffer buffer, byte[] delimiter) {
+    this(buffer, delimiter, 0, buffer.limit());
+  }
+
+  /**
+   * @param buffer    UTF-8 encoded data (only absolute 'get' methods are used)
+   * @param delimiter UTF-8 encoded value delimiter (must be non-empty)
+   * @param start     offset of the first byte to scan
+   * @param end       offset one past the last byte to scan
+   */
+  RowScanner(ByteBuffer buffer, byte[] delimiter, int start, int end) {
+    this.buffer = buffer;
+    this.delimiter = delimiter;
+    this.end = end;
+    position = start;
+  }
+
+  /**
+   * @return offset of the next byte to be scanned (start of the next row)
+   */
+  int position() {
+    return position;
+  }
+
+  /**
+   * @return offset one past the last byte to scan
+   */
+  int end() {
+    return end;
+  }
+
+  /**
+   * @param start offset of the first byte to scan
+   * @param end   offset one past the last byte to scan
+   * @return new scanner for the given range using the same buffer and delimiter
+   */
+  RowScanner range(int start, int end) {
+    return new RowScanner(buffer, delimiter, start, end);
+  }
+
+  /**
+   * @param from offset to start searching from
+   * @return offset just after the first line terminator found at or after
+   *     {@code from} (or {@link #end} if there are no more terminators)
+   */
+  int rowBoundary(int from) {
+    var i = from;
+    for (byte b; i < end && (b = buffer.get(i)) != LF && b != CR; ++i) {}
+    if (i < end && buffer.get(i++) == CR && i < end && buffer.get(i) == LF)
+      ++i;
+    return i;
+  }
+
+  /**
+   * @return number of rows from the current position to the end (the position
+   *     is moved to the end)
+   */
+  int countRows() {
+    var rows = 0;
+    while (nextRow())
+      ++rows;
+    return rows;
+  }
+
+  /**
+   * move to the next row - like {@code BufferedReader.readLine}, rows can be
+   * terminated by '\n', '\r' or "\r\n" and the terminator isn't part of the row
+   *
+   * @return true if a row was found or false if there are no more bytes
+   */
+  boolean nextRow() {
+    if (position >= end)
+      return false;
+    rowStart = position;
+    position = rowBoundary(position);
+    // back up over the terminator (if there is one) to find the end of the row
+    var i = position;
+    if (i > rowStart && buffer.get(i - 1) == LF)
+      --i;
+    if (i > rowStart && buffer.get(i - 1) == CR)
+      --i;
+    rowEnd = i;
+    return true;
+  }
+
+  /**
+   * split the current row into values, scanning stops as soon as there are
+   * more values than {@code starts.length}
+   *
+   * @param starts array to populate with start offsets of each value
+   * @param ends   array to populate with end offsets of each value
+   * @return number of values found (or {@code starts.length + 1} if there are
+   *     too many values)
+   */
+  int split(int[] starts, int[] ends) {
+    var count = 0;
+    for (var start = rowStart; ; ++count) {
+      if (count == starts.length)
+        return count + 1;
+      final var found = indexOfDelimiter(start);
+      starts[count] = start;
+      if (found < 0) {
+        ends[count] = rowEnd;
+        return count + 1;
+      }
+      ends[count] = found;
+      start = found + delimiter.length;
+    }
+  }
+
+  /**
+   * @return current row decoded as a String
+   */
+  String row() {
+    return string(rowStart, rowEnd);
+  }
+
+  /**
+   * @param start start offset (inclusive)
+   * @param end   end offset (exclusive)
+   * @return bytes in the given range decoded as a String
+   */
+  String string(int start, int end) {
+    final var length = end - start;
+    if (length > scratch.length)
+      scratch = new byte[Math.max(length, scratch.length * 2)];
+    buffer.get(start, scratch, 0, length);
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * parse an unsigned int without creating a String. Only ASCII digits with an
+   * optional leading '+' are handled (like {@code Integer.parseUnsignedInt},
+   * values up to 2^32 - 1 are accepted).
+   *
+   * @param start start offset (inclusive)
+   * @param end   end offset (exclusive)
+   * @return parsed value or -1 if the value couldn't be parsed
+   */
+  long unsignedInt(int start, int end) {
+    if (start < end && buffer.get(start) == '+')
+      ++start;
+    if (start == end)
+      return -1;
+    var result = 0L;
+    for (var i = start; i < end; ++i) {
+      final var digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9 ||
+          (result = result * 10 + digit) > MAX_UNSIGNED_INT)
+        return -1;
+    }
+    return result;
+  }
+
+  /**
+   * @param start start offset (inclusive)
+   * @param end   end offset (exclusive)
+   * @return the (unsigned) byte value if the range has exactly one byte,
+   *     {@link #EMPTY} if the range is empty, otherwise a different negative
+   *     value
+   */
+  int singleByte(int start, int end) {
+    return switch (end - start) {
+      case 0 -> EMPTY;
+      case 1 -> buffer.get(start) & 0xff;
+      default -> NOT_SINGLE_BYTE;
+    };
+  }
+
+  private int indexOfDelimiter(int from) {
+    final var first = delimiter[0];
+    for (var i = from; i <= rowEnd - delimiter.length; ++i)
+      if (buffer.get(i) == first && matchesDelimiter(i))
+        return i;
+    return -1;
+  }
+
+  private boolean matchesDelimiter(int pos) {
+    for (var i = 1; i < delimiter.length; ++i)
+      if (buffer.get(pos + i) != delimiter[i])
+        return false;
+    return true;
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.anzumura.kt;
+
+/**
+ * splits rows on a literal delimiter. Unlike {@code String.split} the delimiter
+ * isn't treated as a regular expression (so "|" or "." work as expected) and
+ * values are written into a caller supplied array instead of a new array.
+ */
+final class Splitter {
+  private final String delimiter;
+  private final char delimiterChar;
+  private final boolean singleChar;
+
+  /**
+   * @param delimiter literal delimiter (can be more than one character)
+   * @throws DomainException if {@code delimiter} is empty
+   */
+  Splitter(String delimiter) {
+    if (delimiter.isEmpty())
+      throw new DomainException("delimiter must not be empty");
+    this.delimiter = delimiter;
+    singleChar = delimiter.length() == 1;
+    delimiterChar = delimiter.charAt(0);
+  }
+
+  /**
+   * @return length of the delimiter
+   */
+  int length() {
+    return delimiter.length();
+  }
+
+  /**
+   * @param row  row to search
+   * @param from index to start searching from
+   * @return index of the next delimiter in {@code row} or -1 if not found
+   */
+  int indexOf(String row, int from) {
+    return singleChar ? row.indexOf(delimiterChar, from) :
+        row.indexOf(delimiter, from);
+  }
+
+  /**
+   * split {@code row} into {@code values} (empty values are kept), scanning
+   * stops as soon as there are more values than {@code values.length}
+   *
+   * @param row    row to split
+   * @param values array to populate with values
+   * @return number of values found (or {@code values.length + 1} if there are
+   *     too many values)
+   */
+  int split(String row, String[] values) {
+    var count = 0;
+    for (var start = 0; ; ++count) {
+      if (count == values.length)
+        return count + 1;
+      final var found = indexOf(row, start);
+      if (found < 0) {
+        values[count] = row.substring(start);
+        return count + 1;
+      }
+      values[count] = row.substring(start, found);
+      start = found + delimiter.length();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.anzumura.kt;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.anzumura.kt.ColumnFile.Column;
+
+/**
+ * pool of canonical Strings used while loading so repeated values (radicals,
+ * readings, link names, etc.) share one instance instead of each Kanji holding
+ * its own copy. Every pool starts with the same radical instances (from a
+ * fixed table of the 214 radicals) and other short Strings go through a
+ * concurrent map so a pool can be shared by parallel loaders
+ * ({@link ColumnFile#loadParallel}). Long Strings (like most meanings) are
+ * rarely repeated so they are returned as is.
+ */
+public final class StringPool {
+  /**
+   * number of (Kangxi) radicals
+   */
+  public static final int RADICALS = 214;
+
+  /**
+   * Strings longer than this aren't pooled
+   */
+  public static final int MAX_LENGTH = 16;
+
+  private static final int KANGXI_RADICALS_START = 0x2f00;
+  private static final String[] radicals = new String[RADICALS];
+
+  static {
+    // Kangxi Radical code points normalize to the equivalent CJK Kanji
+    for (var i = 0; i < RADICALS; ++i)
+      radicals[i] = Normalizer.normalize(
+          Character.toString(KANGXI_RADICALS_START + i), Normalizer.Form.NFKC);
+  }
+
+  private final ConcurrentHashMap<String, String> strings =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<List<String>, List<String>> lists =
+      new ConcurrentHashMap<>();
+
+  public StringPool() {
+    for (var r : radicals)
+      strings.put(r, r);
+  }
+
+  /**
+   * @param s a String
+   * @return canonical instance of {@code s} (or {@code s} itself if it's
+   *     longer than {@link #MAX_LENGTH})
+   */
+  public String get(String s) {
+    if (s.length() > MAX_LENGTH)
+      return s;
+    final var existing = strings.putIfAbsent(s, s);
+    return existing == null ? s : existing;
+  }
+
+  /**
+   * @param list list of Strings (like Kanji 'link names')
+   * @return canonical immutable list with canonical elements
+   */
+  public List<String> get(List<String> list) {
+    if (list.isEmpty())
+      return List.of();
+    final var existing = lists.get(list);
+    if (existing != null)
+      return existing;
+    final var values = new String[list.size()];
+    for (var i = 0; i < values.length; ++i)
+      values[i] = get(list.get(i));
+    final var result = List.of(values);
+    final var raced = lists.putIfAbsent(result, result);
+    return raced == null ? result : raced;
+  }
+
+  /**
+   * @param row    current row of a file
+   * @param column column to get
+   * @return canonical instance of the column value
+   * @throws DomainException if getting the value fails
+   */
+  public String get(Row row, Column column) {
+    return get(row.get(column));
+  }
+
+  /**
+   * @return number of distinct Strings in the pool (including radicals)
+   */
+  public int size() {
+    return strings.size();
+  }
+}
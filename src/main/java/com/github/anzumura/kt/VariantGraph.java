@@ -0,0 +1,165 @@
+package com.github.anzumura.kt;
+
+import java.util.Arrays;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * resolved graph of variant relationships between loaded Kanji. Edges go from
+ * an 'old' (or traditional) form to a 'new' (or simplified) form and are
+ * collected from:
+ * <ul>
+ *   <li>Linked Kanji: {@code getLink()} is the new form</li>
+ *   <li>Other Kanji: {@code getLinkNames()} are old forms if
+ *   {@code hasOldLinks()} is true, otherwise they are new forms</li>
+ *   <li>any Kanji: {@code getNewName()} and {@code getOldNames()}</li>
+ * </ul>
+ * Names are resolved once (via a {@link KanjiIndex}) and names that aren't
+ * loaded are skipped. Edges are stored as int adjacency arrays for each
+ * direction ('offsets' plus 'targets' like a sparse matrix) so traversal
+ * doesn't hash names, create Optionals or allocate.
+ */
+public final class VariantGraph {
+  private final int[] newerStarts, newer, olderStarts, older;
+
+  private VariantGraph(KanjiIndex index) {
+    final var kanji = index.getKanji();
+    final var size = kanji.size();
+    final var builder = new Builder(index);
+    for (var i = 0; i < size; ++i) {
+      final var k = kanji.get(i);
+      if (k.getLink().isPresent())
+        builder.add(i, k.getLink().get().getName(), true);
+      if (k.getNewName().isPresent())
+        builder.add(i, k.getNewName().get(), true);
+      for (var name : k.getOldNames())
+        builder.add(i, name, false);
+      if (k instanceof Other o && !o.hasOldLinks())
+        for (var name : o.getLinkNames())
+          builder.add(i, name, true);
+    }
+    final var edges = builder.edges();
+    newerStarts = new int[size + 1];
+    newer = new int[edges.length];
+    olderStarts = new int[size + 1];
+    older = new int[edges.length];
+    for (var e : edges) {
+      ++newerStarts[oldForm(e) + 1];
+      ++olderStarts[newForm(e) + 1];
+    }
+    for (var i = 0; i < size; ++i) {
+      newerStarts[i + 1] += newerStarts[i];
+      olderStarts[i + 1] += olderStarts[i];
+    }
+    final var olderPos = Arrays.copyOf(olderStarts, size);
+    for (var i = 0; i < edges.length; ++i) {
+      newer[i] = newForm(edges[i]); // already grouped by old form
+      older[olderPos[newForm(edges[i])]++] = oldForm(edges[i]);
+    }
+  }
+
+  private static long pack(int oldForm, int newForm) {
+    return (long) oldForm << Integer.SIZE | newForm;
+  }
+
+  private static int oldForm(long edge) {
+    return (int) (edge >>> Integer.SIZE);
+  }
+
+  private static int newForm(long edge) {
+    return (int) edge;
+  }
+
+  /**
+   * @param index index of loaded Kanji (ordinals in the graph are the same as
+   *              ordinals in the index)
+   * @return new graph
+   */
+  public static VariantGraph of(KanjiIndex index) {
+    return new VariantGraph(index);
+  }
+
+  /**
+   * @return total number of (old to new) edges
+   */
+  public int edges() {
+    return newer.length;
+  }
+
+  /**
+   * @param ordinal ordinal of a Kanji
+   * @return number of newer forms of the Kanji
+   */
+  public int newerCount(int ordinal) {
+    return newerStarts[ordinal + 1] - newerStarts[ordinal];
+  }
+
+  /**
+   * @param ordinal ordinal of a Kanji
+   * @param i       index from 0 to {@code newerCount(ordinal) - 1}
+   * @return ordinal of a newer form of the Kanji
+   */
+  public int newer(int ordinal, int i) {
+    return newer[newerStarts[ordinal] + i];
+  }
+
+  /**
+   * @param ordinal ordinal of a Kanji
+   * @return number of older forms of the Kanji
+   */
+  public int olderCount(int ordinal) {
+    return olderStarts[ordinal + 1] - olderStarts[ordinal];
+  }
+
+  /**
+   * @param ordinal ordinal of a Kanji
+   * @param i       index from 0 to {@code olderCount(ordinal) - 1}
+   * @return ordinal of an older form of the Kanji
+   */
+  public int older(int ordinal, int i) {
+    return older[olderStarts[ordinal] + i];
+  }
+
+  /**
+   * @param ordinal ordinal of a Kanji
+   * @return true if the Kanji has any older or newer forms
+   */
+  public boolean hasVariants(int ordinal) {
+    return newerCount(ordinal) > 0 || olderCount(ordinal) > 0;
+  }
+
+  /**
+   * collects edges packed into longs as 'old << 32 | new' so sorting groups
+   * them by old form
+   */
+  private static final class Builder {
+    private final KanjiIndex index;
+    private long[] edges = new long[64];
+    private int count;
+
+    Builder(KanjiIndex index) {
+      this.index = index;
+    }
+
+    /**
+     * @param from    ordinal of a Kanji
+     * @param name    name of a variant of the Kanji
+     * @param isNewer true if {@code name} is a newer form of the Kanji
+     */
+    void add(int from, String name, boolean isNewer) {
+      final var to = index.ordinal(name);
+      if (to == KanjiIndex.NOT_FOUND || to == from)
+        return;
+      if (count == edges.length)
+        edges = Arrays.copyOf(edges, count * 2);
+      edges[count++] = isNewer ? pack(from, to) : pack(to, from);
+    }
+
+    /**
+     * @return sorted edges without duplicates
+     */
+    long[] edges() {
+      return Arrays.stream(edges, 0, count).sorted().distinct().toArray();
+    }
+  }
+}
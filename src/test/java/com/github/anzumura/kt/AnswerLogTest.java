@@ -0,0 +1,238 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static com.github.anzumura.kt.AnswerLog.Aggregate;
+import static com.github.anzumura.kt.AnswerLog.RECORD_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerLogTest {
+  private static final long TIME = 1_700_000_000_000L;
+
+  @TempDir
+  private Path tempDir;
+  private AnswerLog log;
+
+  private record Answer(long sequence, long user, int ordinal, long time,
+                        boolean correct, int latency) {}
+
+  private List<Answer> read() {
+    final var result = new ArrayList<Answer>();
+    log.read((sequence, user, ordinal, time, correct, latency) -> result.add(
+        new Answer(sequence, user, ordinal, time, correct, latency)));
+    return result;
+  }
+
+  private void reopen() {
+    log.close();
+    log = new AnswerLog(tempDir);
+  }
+
+  private Path segment() throws IOException {
+    try (var files = Files.list(tempDir)) {
+      return files.filter(x -> x.getFileName().toString().endsWith(".log"))
+          .sorted().reduce((x, y) -> y).orElseThrow();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    log = new AnswerLog(tempDir);
+  }
+
+  @AfterEach
+  void tearDown() {
+    log.close();
+  }
+
+  @Test
+  void appendAndRead() {
+    assertEquals(0, log.append(1, 10, TIME, true, 800));
+    assertEquals(1, log.append(2, 11, TIME + 1, false, 1200));
+    log.sync(log.append(1, 12, TIME + 2, true, 0));
+    assertEquals(3, log.size());
+    assertEquals(List.of(new Answer(0, 1, 10, TIME, true, 800),
+        new Answer(1, 2, 11, TIME + 1, false, 1200),
+        new Answer(2, 1, 12, TIME + 2, true, 0)), read());
+  }
+
+  @Test
+  void reopenKeepsAnswers() {
+    log.append(1, 10, TIME, true, 800);
+    log.append(1, 11, TIME, false, 900);
+    reopen();
+    assertEquals(0, log.getTruncated());
+    assertEquals(2, log.size());
+    assertEquals(2, read().size());
+    assertEquals(2, log.append(1, 12, TIME, true, 700));
+  }
+
+  @Test
+  void truncatedTail() throws IOException {
+    for (var i = 0; i < 5; ++i)
+      log.append(1, i, TIME, true, 100);
+    log.close();
+    // partial record written before a crash
+    Files.write(segment(), new byte[RECORD_BYTES / 2],
+        StandardOpenOption.APPEND);
+    log = new AnswerLog(tempDir);
+    assertEquals(RECORD_BYTES / 2, log.getTruncated());
+    assertEquals(5, log.size());
+    log.close();
+    // last record has a bad checksum
+    try (var file = FileChannel.open(segment(), StandardOpenOption.WRITE)) {
+      file.write(ByteBuffer.wrap(new byte[]{9}), file.size() - 10);
+    }
+    log = new AnswerLog(tempDir);
+    assertEquals(RECORD_BYTES, log.getTruncated());
+    assertEquals(4, log.size());
+    assertEquals(List.of(0, 1, 2, 3),
+        read().stream().map(Answer::ordinal).toList());
+  }
+
+  @Test
+  void compact() {
+    log.append(1, 10, TIME, true, 800);
+    log.append(1, 10, TIME + 5, false, 1000);
+    log.append(1, 3, TIME, true, 500);
+    log.append(2, 10, TIME, true, 300);
+    assertEquals(4, log.compact());
+    assertEquals(List.of(new Aggregate(3, 1, 1, 500, TIME),
+        new Aggregate(10, 2, 1, 1800, TIME + 5)), log.getAggregates(1));
+    assertEquals(List.of(new Aggregate(10, 1, 1, 300, TIME)),
+        log.getAggregates(2));
+    assertEquals(List.of(), log.getAggregates(3));
+    assertTrue(read().isEmpty());
+    // nothing new to compact
+    assertEquals(0, log.compact());
+    // new answers are added to existing totals
+    log.append(2, 10, TIME + 9, true, 200);
+    assertEquals(1, log.compact());
+    assertEquals(List.of(new Aggregate(10, 2, 2, 500, TIME + 9)),
+        log.getAggregates(2));
+    assertEquals(5, log.size());
+  }
+
+  @Test
+  void repeatedCompaction() throws IOException {
+    log.append(1, 10, TIME, true, 800);
+    log.append(2, 10, TIME, true, 300);
+    log.close();
+    final var segment = segment();
+    final var bytes = Files.readAllBytes(segment);
+    log = new AnswerLog(tempDir);
+    log.append(1, 10, TIME, false, 100);
+    assertEquals(3, log.compact());
+    // simulate a crash before the compacted segment was deleted
+    Files.write(segment, bytes);
+    reopen();
+    assertEquals(2, log.compact());
+    assertEquals(List.of(new Aggregate(10, 2, 1, 900, TIME)),
+        log.getAggregates(1));
+    assertEquals(List.of(new Aggregate(10, 1, 1, 300, TIME)),
+        log.getAggregates(2));
+  }
+
+  @Test
+  void crashBetweenMoveAndDelete() throws IOException {
+    log.append(1, 10, TIME, true, 800);
+    log.append(2, 10, TIME, true, 300);
+    log.append(2, 11, TIME, false, 500);
+    log.close();
+    final var segment = segment();
+    final var bytes = Files.readAllBytes(segment);
+    log = new AnswerLog(tempDir);
+    assertEquals(3, log.compact());
+    log.close();
+    // simulate stopping after the file for user 1 was moved into place but
+    // before the one for user 2 (left as a temporary file) and the deletes
+    final var users = tempDir.resolve("users");
+    Files.move(users.resolve("2.agg"), users.resolve("user123.tmp"));
+    Files.write(segment, bytes);
+    log = new AnswerLog(tempDir);
+    assertFalse(Files.exists(users.resolve("user123.tmp")));
+    assertEquals(List.of(), log.getAggregates(2));
+    assertEquals(3, read().size());
+    assertEquals(3, log.compact());
+    assertFalse(Files.exists(segment));
+    // answers are only counted once for user 1
+    assertEquals(List.of(new Aggregate(10, 1, 1, 800, TIME)),
+        log.getAggregates(1));
+    assertEquals(List.of(new Aggregate(10, 1, 1, 300, TIME),
+        new Aggregate(11, 1, 0, 500, TIME)), log.getAggregates(2));
+  }
+
+  @Test
+  void errors() {
+    var e = assertThrows(DomainException.class,
+        () -> log.append(1, -1, TIME, true, 0));
+    assertEquals("invalid ordinal: -1", e.getMessage());
+    e = assertThrows(DomainException.class,
+        () -> log.append(1, 1, TIME, true, -5));
+    assertEquals("invalid latency: -5", e.getMessage());
+    e = assertThrows(DomainException.class, () -> log.sync(0));
+    assertEquals("unknown sequence: 0", e.getMessage());
+    log.close();
+    e = assertThrows(DomainException.class,
+        () -> log.append(1, 1, TIME, true, 0));
+    assertEquals("answer log is closed", e.getMessage());
+  }
+
+  @Test
+  void corruptHeader() throws IOException {
+    log.close();
+    Files.write(segment(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12,
+        13, 14, 15, 16});
+    final var e = assertThrows(DomainException.class,
+        () -> new AnswerLog(tempDir));
+    assertEquals("corrupt answer log: answers-0.log", e.getMessage());
+    log = new AnswerLog(tempDir.resolve("other"));
+  }
+
+  @Test
+  void concurrentAppends() {
+    final var threads = 8;
+    final var answers = 20_000;
+    final var executor = Executors.newFixedThreadPool(threads);
+    final var futures = new ArrayList<CompletableFuture<Void>>();
+    for (var t = 0; t < threads; ++t) {
+      final var user = t;
+      futures.add(CompletableFuture.runAsync(() -> {
+        for (var i = 0; i < answers; ++i) {
+          final var sequence = log.append(user, i, TIME + i, i % 3 == 0, i);
+          if (i % 1000 == 0)
+            log.sync(sequence);
+        }
+      }, executor));
+    }
+    futures.forEach(CompletableFuture::join);
+    executor.shutdown();
+    reopen();
+    final var result = read();
+    assertEquals(threads * answers, result.size());
+    for (var i = 0; i < result.size(); ++i)
+      assertEquals(i, result.get(i).sequence());
+    // answers from each user are in order
+    for (var t = 0; t < threads; ++t) {
+      final var user = t;
+      final var ordinals = result.stream().filter(x -> x.user() == user)
+          .mapToInt(Answer::ordinal).toArray();
+      for (var i = 0; i < answers; ++i)
+        assertEquals(i, ordinals[i]);
+    }
+  }
+}
@@ -3,12 +3,23 @@ package com.github.anzumura.kt;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.github.anzumura.kt.ColumnFile.Column;
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,6 +63,16 @@ class ColumnFileTest {
     return create(null, columns, lines);
   }
 
+  private ColumnFile createMapped(String contents, Set<Column> columns) {
+    try {
+      final var path = Files.createFile(tempDir.resolve(testFile));
+      Files.writeString(path, contents);
+      return new ColumnFile(path, columns, "\t", true);
+    } catch (IOException e) {
+      return fail("failed to create file - " + e.getMessage());
+    }
+  }
+
   @Nested
   class ColumnTest {
     @Test
@@ -71,6 +92,49 @@ class ColumnFileTest {
       assertNotEquals(col2.getNumber(), new Column("col22").getNumber());
     }
 
+    @Test
+    void hashCodeIsNumber() {
+      assertEquals(col1.getNumber(), col1.hashCode());
+      assertEquals(Set.of(col1), Set.of(new Column(col1.getName())));
+    }
+
+    @Test
+    void concurrentCreation() throws Exception {
+      final int threads = 16, names = 200;
+      final var executor = Executors.newFixedThreadPool(threads);
+      final var start = new CountDownLatch(1);
+      final var futures = new ArrayList<Future<List<Column>>>();
+      // every thread creates the same set of new names (in different orders)
+      // and also opens a ColumnFile to make sure that works concurrently
+      for (var t = 0; t < threads; ++t) {
+        final var offset = t;
+        final var path = tempDir.resolve(t + testFile);
+        Files.writeString(path, "stress" + t);
+        futures.add(executor.submit(() -> {
+          start.await();
+          final var result = new ArrayList<Column>();
+          for (var i = 0; i < names; ++i)
+            result.add(new Column("stress" + (i + offset) % names));
+          final var f = new ColumnFile(path, Set.of(result.get(0)));
+          assertFalse(f.nextRow());
+          return result;
+        }));
+      }
+      start.countDown();
+      final var numbers = new HashMap<String, Integer>();
+      for (var f : futures)
+        for (var c : f.get()) {
+          final int expected =
+              numbers.computeIfAbsent(c.getName(), k -> c.getNumber());
+          assertEquals(expected, c.getNumber());
+        }
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+      assertEquals(names, numbers.size());
+      // numbers must be unique per name
+      assertEquals(names, new HashSet<>(numbers.values()).size());
+    }
+
     @Test
     void toStringReturnsName() {
       assertEquals(col1.getName(), col1.toString());
@@ -88,6 +152,49 @@ class ColumnFileTest {
     }
   }
 
+  @Nested
+  class ColumnPositionsTest {
+    @Test
+    void sizeIsBasedOnNumberOfColumns() {
+      final var p = new ColumnPositions(new int[]{7, 8, 9});
+      assertEquals(8, p.size());
+      assertEquals(0, p.get(7));
+      assertEquals(1, p.get(8));
+      assertEquals(2, p.get(9));
+      assertEquals(ColumnPositions.NOT_FOUND, p.get(6));
+      assertEquals(ColumnPositions.NOT_FOUND, p.get(11));
+    }
+
+    @Test
+    void largeColumnNumbers() {
+      final var p = new ColumnPositions(new int[]{1000, 500, 3});
+      assertEquals(8, p.size());
+      assertEquals(0, p.get(1000));
+      assertEquals(1, p.get(500));
+      assertEquals(2, p.get(3));
+      assertEquals(ColumnPositions.NOT_FOUND, p.get(0));
+    }
+
+    @Test
+    void sparseHighColumnNumbers() {
+      // size only depends on the number of columns
+      final var numbers = new int[]{0, 256, 1 << 12, 1 << 20, 3 << 20, 65_537};
+      final var p = new ColumnPositions(numbers);
+      assertEquals(16, p.size());
+      for (var i = 0; i < numbers.length; ++i)
+        assertEquals(i, p.get(numbers[i]));
+      assertEquals(ColumnPositions.NOT_FOUND, p.get(2 << 20));
+      assertEquals(4, new ColumnPositions(new int[]{0, 256}).size());
+    }
+
+    @Test
+    void noColumns() {
+      final var p = new ColumnPositions(new int[0]);
+      assertEquals(2, p.size());
+      assertEquals(ColumnPositions.NOT_FOUND, p.get(0));
+    }
+  }
+
   @Nested
   class ConstructorTest {
     @Test
@@ -106,6 +213,18 @@ class ColumnFileTest {
           create(" ", Set.of(col1, col2), "col1 col2").numColumns());
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {",", "|", ".", "*", "\\", "::", "\\s"})
+    void createFileWithLiteralDelimiter(String delimiter) {
+      final var f = create(delimiter, Set.of(col1, col2, col3),
+          String.join(delimiter, "col1", "col2", "col3"),
+          String.join(delimiter, "A", "", "C"));
+      assertTrue(f.nextRow());
+      assertEquals("A", f.get(col1));
+      assertEquals("", f.get(col2));
+      assertEquals("C", f.get(col3));
+    }
+
     @Test
     void currentRowIsZeroBeforeAnyDataRowsAreProcessed() {
       assertEquals(0, create(Set.of(col1), "col1").currentRow());
@@ -124,6 +243,13 @@ class ColumnFileTest {
       assertEquals("failed to read header row: " + testFile, e.getMessage());
     }
 
+    @Test
+    void emptyDelimiterError() {
+      final var e = assertThrows(DomainException.class,
+          () -> create("", Set.of(col1), "col1"));
+      assertEquals("delimiter must not be empty", e.getMessage());
+    }
+
     @Test
     void missingHeaderRowError() {
       final var e =
@@ -145,6 +271,13 @@ class ColumnFileTest {
       assertEquals(errorMsg("unrecognized header 'col2'"), e.getMessage());
     }
 
+    @Test
+    void emptyHeaderError() {
+      final var e = assertThrows(DomainException.class,
+          () -> create(Set.of(col1), "col1\t"));
+      assertEquals(errorMsg("unrecognized header ''"), e.getMessage());
+    }
+
     @Test
     void oneMissingColumnError() {
       final var e = assertThrows(DomainException.class,
@@ -368,4 +501,360 @@ class ColumnFileTest {
           () -> assertFalse(f.getBoolean(col3)));
     }
   }
-}
\ No newline at end of file
+
+  @Nested
+  class MemoryMappedTest {
+    @Test
+    void createMultiColumnFile() {
+      assertEquals(2,
+          createMapped("col1\tcol2\n", Set.of(col1, col2)).numColumns());
+    }
+
+    @Test
+    void missingFileError() {
+      final var e = assertThrows(DomainException.class,
+          () -> new ColumnFile(Path.of(testFile), Set.of(col1), "\t", true));
+      assertEquals("failed to read header row: " + testFile, e.getMessage());
+    }
+
+    @Test
+    void missingHeaderRowError() {
+      final var e = assertThrows(DomainException.class,
+          () -> createMapped("", Set.of(col1)));
+      assertEquals(errorMsg("missing header row"), e.getMessage());
+    }
+
+    @Test
+    void emptyDelimiterError() {
+      final var e = assertThrows(DomainException.class,
+          () -> new ColumnFile(Path.of(testFile), Set.of(col1), "", true));
+      assertEquals("delimiter must not be empty", e.getMessage());
+    }
+
+    @Test
+    void getValues() {
+      final var f = createMapped("col1\tcol2\nA\tB\n\tC\nD\t\n",
+          Set.of(col1, col2));
+      assertTrue(f.nextRow());
+      assertEquals("A", f.get(col1));
+      assertEquals("B", f.get(col2));
+      assertTrue(f.nextRow());
+      assertEquals("", f.get(col1));
+      assertEquals("C", f.get(col2));
+      assertTrue(f.nextRow());
+      assertEquals("D", f.get(col1));
+      assertEquals("", f.get(col2));
+      assertFalse(f.nextRow());
+      // values from the last row can still be retrieved
+      assertEquals(3, f.currentRow());
+      assertEquals("D", f.get(col1));
+    }
+
+    @Test
+    void getMultiByteValues() {
+      final var f = createMapped("col1\tcol2\n海\tカイ、うみ\n", Set.of(col1,
+          col2));
+      assertTrue(f.nextRow());
+      assertEquals("海", f.get(col1));
+      assertEquals("カイ、うみ", f.get(col2));
+    }
+
+    @Test
+    void getReturnsSameValue() {
+      final var f = createMapped("col1\nA\n", Set.of(col1));
+      assertTrue(f.nextRow());
+      assertSame(f.get(col1), f.get(col1));
+    }
+
+    @Test
+    void lineTerminators() {
+      final var f = createMapped("col1\r\nA\rB\r\nC", Set.of(col1));
+      for (var expected : List.of("A", "B", "C")) {
+        assertTrue(f.nextRow());
+        assertEquals(expected, f.get(col1));
+      }
+      assertFalse(f.nextRow());
+    }
+
+    @Test
+    void tooManyColumnsError() {
+      final var f = createMapped("col1\nA\nB\tC\nD\n", Set.of(col1));
+      assertTrue(f.nextRow());
+      final var e = assertThrows(DomainException.class, f::nextRow);
+      assertEquals(errorMsg("too many columns", 2), e.getMessage());
+      assertTrue(f.nextRow());
+      assertEquals(3, f.currentRow());
+      assertEquals("D", f.get(col1));
+    }
+
+    @Test
+    void notEnoughColumnsError() {
+      final var f = createMapped("col1\tcol2\nA\nB\tC\n", Set.of(col1,
+          col2));
+      final var e = assertThrows(DomainException.class, f::nextRow);
+      assertEquals(errorMsg("not enough columns", 1), e.getMessage());
+      assertTrue(f.nextRow());
+      assertEquals("B", f.get(col1));
+      assertEquals("C", f.get(col2));
+    }
+
+    @Test
+    void getUnsignedInt() {
+      final var f = createMapped("col1\tcol2\n0\t+123\n4294967295\t99\n",
+          Set.of(col1, col2));
+      assertTrue(f.nextRow());
+      assertEquals(0, f.getUnsignedInt(col1));
+      assertEquals(123, f.getUnsignedInt(col2, 123));
+      assertTrue(f.nextRow());
+      // same as Integer.parseUnsignedInt
+      assertEquals(-1, f.getUnsignedInt(col1));
+      assertEquals(99, f.getUnsignedInt(col2));
+    }
+
+    @Test
+    void getUnsignedIntError() {
+      final var f = createMapped("col1\tcol2\tcol3\nbad\t-1\t4294967296\n",
+          Set.of(col1, col2, col3));
+      assertTrue(f.nextRow());
+      var e = assertThrows(DomainException.class, () -> f.getUnsignedInt(col1));
+      assertEquals(errorMsg("convert to unsigned int failed", 1, col1, "bad"),
+          e.getMessage());
+      e = assertThrows(DomainException.class, () -> f.getUnsignedInt(col2));
+      assertEquals(errorMsg("convert to unsigned int failed", 1, col2, "-1"),
+          e.getMessage());
+      e = assertThrows(DomainException.class, () -> f.getUnsignedInt(col3));
+      assertEquals(
+          errorMsg("convert to unsigned int failed", 1, col3, "4294967296"),
+          e.getMessage());
+    }
+
+    @Test
+    void getUnsignedIntWithMaxValueError() {
+      final var f = createMapped("col1\n100\n", Set.of(col1));
+      assertTrue(f.nextRow());
+      final var e =
+          assertThrows(DomainException.class, () -> f.getUnsignedInt(col1, 99));
+      assertEquals(errorMsg("exceeded max value of 99", 1, col1, "100"),
+          e.getMessage());
+    }
+
+    @Test
+    void getBoolean() {
+      final var f = createMapped("col1\tcol2\tcol3\nY\tT\tx\nN\tF\t\n",
+          Set.of(col1, col2, col3));
+      assertTrue(f.nextRow());
+      assertTrue(f.getBoolean(col1));
+      assertTrue(f.getBoolean(col2));
+      final var e =
+          assertThrows(DomainException.class, () -> f.getBoolean(col3));
+      assertEquals(errorMsg("convert to boolean failed", 1, col3, "x"),
+          e.getMessage());
+      assertTrue(f.nextRow());
+      assertFalse(f.getBoolean(col1));
+      assertFalse(f.getBoolean(col2));
+      assertFalse(f.getBoolean(col3));
+    }
+
+    @Test
+    void calledAfterCloseError() {
+      final var f = createMapped("col1\n", Set.of(col1));
+      assertFalse(f.nextRow());
+      final var e = assertThrows(DomainException.class, f::nextRow);
+      assertEquals("file: '" + testFile + "' has been closed", e.getMessage());
+    }
+  }
+
+  @Nested
+  class LoadParallelTest {
+    private static final int ROWS = 10;
+
+    private Path createFile(String terminator, String... rows) {
+      try {
+        final var path = Files.createFile(tempDir.resolve(testFile));
+        Files.writeString(path, String.join(terminator, rows));
+        return path;
+      } catch (IOException e) {
+        return fail("failed to create file - " + e.getMessage());
+      }
+    }
+
+    private Path createFile(String terminator) {
+      final var rows = new ArrayList<String>();
+      rows.add("col1\tcol2");
+      for (var i = 1; i <= ROWS; ++i)
+        rows.add(i + "\t" + "x".repeat(i));
+      return createFile(terminator, rows.toArray(new String[0]));
+    }
+
+    private static String toString(Row r) {
+      return r.currentRow() + ":" + r.getUnsignedInt(col1) + ":" + r.get(col2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 7, ROWS, 50})
+    void sameResultsAsNextRow(int chunks) {
+      final var expected = new ArrayList<String>();
+      for (var i = 1; i <= ROWS; ++i)
+        expected.add(i + ":" + i + ":" + "x".repeat(i));
+      for (var terminator : List.of("\n", "\r\n", "\r")) {
+        final var path = createFile(terminator);
+        assertEquals(expected, ColumnFile.loadParallel(path, Set.of(col1, col2),
+            "\t", LoadParallelTest::toString, chunks), terminator);
+        assertDoesNotThrow(() -> Files.delete(path));
+      }
+    }
+
+    @Test
+    void noDataRows() {
+      final var path = createFile("\n", "col1", "");
+      assertTrue(ColumnFile.loadParallel(path, Set.of(col1), "\t",
+          r -> r.get(col1)).isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7})
+    void errorHasCorrectRow(int chunks) {
+      final var path = createFile("\n", "col1", "1", "2", "3", "4", "5", "6",
+          "bad", "8");
+      final var e = assertThrows(DomainException.class,
+          () -> ColumnFile.loadParallel(path, Set.of(col1), "\t",
+              r -> r.getUnsignedInt(col1), chunks));
+      assertEquals(errorMsg("convert to unsigned int failed", 7, col1, "bad"),
+          e.getMessage());
+    }
+
+    @Test
+    void tooManyColumnsError() {
+      final var path = createFile("\n", "col1", "1", "2", "3\t4", "5");
+      final var e = assertThrows(DomainException.class,
+          () -> ColumnFile.loadParallel(path, Set.of(col1), "\t",
+              r -> r.get(col1), 2));
+      assertEquals(errorMsg("too many columns", 3), e.getMessage());
+    }
+  }
+
+  @Nested
+  class StreamTest {
+    private static final int ROWS = 1000;
+
+    private ColumnFile createLarge(boolean memoryMapped) {
+      final var contents = "col1\tcol2\n" +
+          IntStream.rangeClosed(1, ROWS).mapToObj(i -> i + (i % 2 == 0 ?
+              "\tY" : "\tN"))
+              .collect(Collectors.joining("\n"));
+      try {
+        final var path = Files.createFile(tempDir.resolve(testFile));
+        Files.writeString(path, contents);
+        return new ColumnFile(path, Set.of(col1, col2), "\t", memoryMapped);
+      } catch (IOException e) {
+        return fail("failed to create file - " + e.getMessage());
+      }
+    }
+
+    private static List<Integer> expected() {
+      return IntStream.rangeClosed(1, ROWS).boxed().toList();
+    }
+
+    @Test
+    void streamRows() {
+      final var f = create(Set.of(col1, col2), "col1\tcol2", "A\tB", "C\tD");
+      final var rows = f.stream().toList();
+      assertEquals(2, rows.size());
+      assertEquals(1, rows.get(0).currentRow());
+      assertEquals("A", rows.get(0).get(col1));
+      assertEquals("B", rows.get(0).get(col2));
+      assertEquals(2, rows.get(1).currentRow());
+      assertEquals("C", rows.get(1).get(col1));
+      assertEquals("D", rows.get(1).get(col2));
+      // file is closed after the stream is exhausted
+      assertThrows(DomainException.class, f::nextRow);
+    }
+
+    @Test
+    void streamRemainingRows() {
+      final var f = create(Set.of(col1), "col1", "A", "B", "C");
+      assertTrue(f.nextRow());
+      assertEquals(List.of("B", "C"),
+          f.stream(true).map(r -> r.get(col1)).toList());
+    }
+
+    @Test
+    void reusedRow() {
+      final var f = create(Set.of(col1), "col1", "A", "B");
+      final var rows = f.stream(true).toList();
+      assertSame(rows.get(0), rows.get(1));
+    }
+
+    @Test
+    void snapshotRowErrors() {
+      final var f = create(Set.of(col1), "col1", "A");
+      final var row = f.stream().findFirst().orElseThrow();
+      final var e =
+          assertThrows(DomainException.class, () -> row.getUnsignedInt(col1));
+      assertEquals(errorMsg("convert to unsigned int failed", 1, col1, "A"),
+          e.getMessage());
+    }
+
+    @Test
+    void badRowEndsStream() {
+      final var f = create(Set.of(col1), "col1", "A", "B\tC", "D");
+      final var rows = new ArrayList<String>();
+      final var e = assertThrows(DomainException.class,
+          () -> f.stream().forEach(r -> rows.add(r.get(col1))));
+      assertEquals(errorMsg("too many columns", 2), e.getMessage());
+      assertEquals(List.of("A"), rows);
+    }
+
+    @Test
+    void closeStreamClosesFile() {
+      final var f = create(Set.of(col1), "col1", "A", "B");
+      try (var s = f.stream()) {
+        assertEquals("A", s.findFirst().orElseThrow().get(col1));
+      }
+      final var e = assertThrows(DomainException.class, f::nextRow);
+      assertEquals("file: '" + testFile + "' has been closed", e.getMessage());
+    }
+
+    @Test
+    void streamAfterCloseError() {
+      final var f = create(Set.of(col1), "col1");
+      assertFalse(f.nextRow());
+      assertThrows(DomainException.class, f::stream);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void filterRows(boolean memoryMapped) {
+      assertEquals(expected().stream().filter(i -> i % 2 == 0).toList(),
+          createLarge(memoryMapped).stream(true)
+              .filter(r -> r.getBoolean(col2)).map(r -> r.getUnsignedInt(col1))
+              .toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void parallelStream(boolean reuseRow) {
+      final var f = createLarge(true);
+      // row numbers must still be correct after splitting
+      assertEquals(expected(), f.stream(reuseRow).parallel()
+          .map(r -> r.currentRow() == r.getUnsignedInt(col1) ?
+              r.currentRow() : -1).toList());
+    }
+
+    @Test
+    void mappedStreamCanSplit() {
+      final var s = createLarge(true).stream().spliterator();
+      final var prefix = s.trySplit();
+      assertNotNull(prefix);
+      final var rows = new ArrayList<Integer>();
+      prefix.forEachRemaining(r -> rows.add(r.currentRow()));
+      s.forEachRemaining(r -> rows.add(r.currentRow()));
+      assertEquals(expected(), rows);
+    }
+
+    @Test
+    void readerStreamCantSplit() {
+      assertNull(createLarge(false).stream().spliterator().trySplit());
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiDataTest {
+  private static final KanjiData data =
+      KanjiData.of(List.of(jouyou, linkedOld, sea, extra));
+
+  @Test
+  void typeLists() {
+    assertEquals(4, data.size());
+    assertEquals(List.of("辞", "海"),
+        data.getKanji(Type.Jouyou).stream().map(Kanji::getName).toList());
+    assertEquals(1, data.getKanji(Type.LinkedOld).size());
+    assertTrue(data.getKanji(Type.Kentei).isEmpty());
+    assertThrows(UnsupportedOperationException.class,
+        () -> data.getKanji(Type.Extra).add(jouyou));
+  }
+
+  @Test
+  void indexesUseSameOrdinals() {
+    assertEquals(1, data.getIndex().ordinal("辤"));
+    assertArrayEquals(new int[]{0, 2},
+        data.getQuery().getGroups().get(Type.Jouyou).toArray());
+    assertArrayEquals(new int[]{2}, data.getReadings().get("うみ").toArray());
+    assertArrayEquals(new int[]{3}, data.getMeanings().get("fragrant")
+        .toArray());
+    assertEquals(0, data.getVariants().newer(1, 0));
+    assertSame(jouyou, data.get("辞").orElseThrow());
+  }
+
+  @Test
+  void empty() {
+    final var empty = KanjiData.empty();
+    assertEquals(0, empty.size());
+    assertTrue(empty.get("辞").isEmpty());
+    for (var type : Type.values())
+      assertTrue(empty.getKanji(type).isEmpty());
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiGroupsTest {
+  private static final List<Kanji> kanji =
+      List.of(jouyou, jinmei, linkedJinmei, sea, ocean, kentei);
+  private static final KanjiGroups groups = KanjiGroups.of(kanji);
+
+  @Test
+  void size() {
+    assertEquals(kanji.size(), groups.size());
+    assertEquals(19, groups.getMaxStrokes());
+    assertEquals(0, KanjiGroups.of(List.of()).getMaxStrokes());
+  }
+
+  @Nested
+  class EnumTest {
+    @Test
+    void type() {
+      assertArrayEquals(new int[]{0, 3, 4}, groups.get(Type.Jouyou).toArray());
+      assertArrayEquals(new int[]{2},
+          groups.get(Type.LinkedJinmei).toArray());
+      assertTrue(groups.get(Type.Ucd).isEmpty());
+    }
+
+    @Test
+    void grade() {
+      assertArrayEquals(new int[]{3}, groups.get(Grade.G2).toArray());
+      assertArrayEquals(new int[]{1, 2, 5}, groups.get(Grade.None).toArray());
+    }
+
+    @Test
+    void level() {
+      assertArrayEquals(new int[]{0, 4}, groups.get(Level.N3).toArray());
+    }
+
+    @Test
+    void kyu() {
+      assertArrayEquals(new int[]{1}, groups.get(Kyu.KJ1).toArray());
+      assertArrayEquals(new int[]{2, 5}, groups.get(Kyu.K1).toArray());
+    }
+
+    @Test
+    void reason() {
+      assertArrayEquals(new int[]{1},
+          groups.get(JinmeiReason.Names).toArray());
+    }
+  }
+
+  @Nested
+  class RadicalAndStrokesTest {
+    @Test
+    void radical() {
+      assertArrayEquals(new int[]{0, 2}, groups.getRadical("辛").toArray());
+      assertArrayEquals(new int[]{3, 4}, groups.getRadical("水").toArray());
+      assertTrue(groups.getRadical("木").isEmpty());
+    }
+
+    @Test
+    void strokes() {
+      assertArrayEquals(new int[]{3, 4}, groups.getStrokes(9).toArray());
+      assertArrayEquals(new int[]{2}, groups.getStrokes(19).toArray());
+      for (var count : new int[]{-1, 0, 7, 20})
+        assertTrue(groups.getStrokes(count).isEmpty());
+    }
+  }
+
+  @Test
+  void intersection() {
+    assertArrayEquals(new int[]{4},
+        groups.get(Type.Jouyou).and(groups.get(Level.N3))
+            .and(groups.getRadical("水")).toArray());
+    assertArrayEquals(new int[]{5},
+        groups.get(Kyu.K1).and(groups.getStrokes(8)).toArray());
+    // all sets share the same capacity (including empty ones)
+    assertTrue(groups.get(Type.Ucd).and(groups.getRadical("木")).isEmpty());
+  }
+}
@@ -0,0 +1,93 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.KanjiIndex.NOT_FOUND;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiIndexTest {
+  // includes a Kanji from a supplementary plane (𠮟 is U+20B9F)
+  private static final List<Kanji> kanji =
+      List.of(ucd("一"), ucd("𠮟"), ucd("丁"), ucd("龠"));
+  private static final KanjiIndex index = KanjiIndex.of(kanji);
+
+  @Test
+  void size() {
+    assertEquals(kanji.size(), index.size());
+    assertEquals(kanji, index.getKanji());
+    assertEquals(0, KanjiIndex.of(List.of()).size());
+  }
+
+  @Nested
+  class CodePointTest {
+    @Test
+    void singleCodePoint() {
+      assertEquals(0x4e00, KanjiIndex.codePoint("一"));
+      assertEquals(0x20b9f, KanjiIndex.codePoint("𠮟"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "一丁", "\ud842", "\udf9f\ud842", "一二三"})
+    void notSingleCodePoint(String name) {
+      assertEquals(NOT_FOUND, KanjiIndex.codePoint(name));
+    }
+  }
+
+  @Nested
+  class LookupTest {
+    @Test
+    void ordinal() {
+      for (var i = 0; i < kanji.size(); ++i) {
+        final var name = kanji.get(i).getName();
+        assertEquals(i, index.ordinal(name));
+        assertEquals(i, index.ordinal(name.codePointAt(0)));
+      }
+    }
+
+    @Test
+    void get() {
+      for (var k : kanji) {
+        assertSame(k, index.get(k.getName()).orElseThrow());
+        assertSame(k, index.get(k.getName().codePointAt(0)).orElseThrow());
+      }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 0x4e8c, 0x20b9e, Character.MAX_CODE_POINT,
+        Character.MAX_CODE_POINT + 1})
+    void missingCodePoint(int codePoint) {
+      assertEquals(NOT_FOUND, index.ordinal(codePoint));
+      assertTrue(index.get(codePoint).isEmpty());
+    }
+
+    @Test
+    void missingName() {
+      assertEquals(NOT_FOUND, index.ordinal("二"));
+      assertEquals(NOT_FOUND, index.ordinal("一丁"));
+      assertTrue(index.get("").isEmpty());
+    }
+  }
+
+  @Nested
+  class BuildTest {
+    @Test
+    void duplicateNameError() {
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiIndex.of(List.of(ucd("丁"), ucd("一"), ucd("丁"))));
+      assertEquals("duplicate name: '丁'", e.getMessage());
+    }
+
+    @Test
+    void multipleCodePointsError() {
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiIndex.of(List.of(ucd("一丁"))));
+      assertEquals("name must be a single code point: '一丁'", e.getMessage());
+    }
+  }
+}
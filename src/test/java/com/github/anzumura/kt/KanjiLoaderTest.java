@@ -0,0 +1,199 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.anzumura.kt.ColumnFile.Column;
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.KanjiLoader.Stage;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiLoaderTest {
+  private static final Column name = new Column("Name"), link =
+      new Column("Link");
+  private static final Set<Column> columns = Set.of(name);
+  private static final Set<Column> linkColumns = Set.of(name, link);
+
+  @TempDir
+  private Path tempDir;
+  private ExecutorService executor;
+
+  private static JouyouKanji jouyou(Row row) {
+    return new JouyouKanji(row.get(name), "一", 1, "", "", Kyu.K5,
+        row.currentRow(), Level.N3, 1, 2010, Grade.S);
+  }
+
+  private static JinmeiKanji jinmei(Row row) {
+    return new JinmeiKanji(row.get(name), "一", 1, "", "", Kyu.K1,
+        row.currentRow(), Level.None, 0, 1951, JinmeiReason.Names);
+  }
+
+  private static KenteiKanji kentei(Row row) {
+    return new KenteiKanji(row.get(name), "一", 1, "", "", false, List.of(),
+        false, Kyu.K1);
+  }
+
+  private static UcdKanji ucd(Row row) {
+    return TestKanji.ucd(row.get(name));
+  }
+
+  private static List<Kanji> linked(List<String[]> rows, KanjiIndex earlier) {
+    final var result = new ArrayList<Kanji>();
+    for (var row : rows)
+      result.add(new LinkedOldKanji(row[0], "一", 1, earlier.get(row[1])
+          .orElseThrow(() -> new DomainException("link not found: " + row[1])),
+          0, Kyu.K1));
+    return result;
+  }
+
+  private Path file(String fileName, String... rows) throws IOException {
+    return write(fileName, "Name", rows);
+  }
+
+  private Path write(String fileName, String header, String... rows)
+      throws IOException {
+    final var lines = new ArrayList<String>();
+    lines.add(header);
+    lines.addAll(List.of(rows));
+    return Files.write(tempDir.resolve(fileName), lines);
+  }
+
+  private Stage<String[]> linkedStage(String... rows) throws IOException {
+    return linkedStage(rows, "jouyou");
+  }
+
+  private Stage<String[]> linkedStage(String[] rows, String... dependsOn)
+      throws IOException {
+    return Stage.of("linked", write("linked.txt", "Name\tLink", rows),
+        linkColumns,
+        (row, pool) -> new String[]{row.get(name), row.get(link)},
+        KanjiLoaderTest::linked, dependsOn);
+  }
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  void loadStages() throws IOException {
+    final var loader = new KanjiLoader(List.of(
+        Stage.of("jouyou", file("jouyou.txt", "辞", "学"), columns,
+            (row, pool) -> jouyou(row)),
+        Stage.of("jinmei", file("jinmei.txt", "亘"), columns,
+            (row, pool) -> jinmei(row)),
+        linkedStage(new String[]{"辤\t辞", "斈\t学"}, "jouyou", "jinmei"),
+        Stage.of("kentei", file("kentei.txt", "乖", "辞"), columns,
+            (row, pool) -> kentei(row)),
+        Stage.of("ucd", file("ucd.txt", "丟", "乖", "亘"), columns,
+            (row, pool) -> ucd(row))));
+    final var result = loader.load(executor);
+    final var data = result.data();
+    // merged by type precedence: Kentei '辞' and Ucd '乖', '亘' are dropped
+    assertEquals(List.of("辞", "学", "亘", "辤", "斈", "乖", "丟"),
+        data.getKanji().stream().map(Kanji::getName).toList());
+    assertSame(data.get("辞").orElseThrow(),
+        data.get("辤").orElseThrow().getLink().orElseThrow());
+    assertEquals(List.of("jouyou", "jinmei", "linked", "kentei", "ucd"),
+        result.timings().stream().map(KanjiLoader.Timing::stage).toList());
+    assertEquals(List.of(2, 1, 2, 2, 3),
+        result.timings().stream().map(KanjiLoader.Timing::kanji).toList());
+    for (var t : result.timings())
+      assertTrue(t.done().compareTo(result.total()) <= 0);
+    assertTrue(result.index().compareTo(result.total()) <= 0);
+  }
+
+  @Test
+  void filesAreParsedConcurrently() throws IOException {
+    final var latch = new CountDownLatch(2);
+    // each mapper waits until both files have started parsing
+    final KanjiLoader.Mapper<Kanji> waiting = (row, pool) -> {
+      latch.countDown();
+      try {
+        if (!latch.await(10, TimeUnit.SECONDS))
+          throw new DomainException("files weren't parsed concurrently");
+      } catch (InterruptedException e) {
+        throw new DomainException("interrupted");
+      }
+      return kentei(row);
+    };
+    final var result = new KanjiLoader(List.of(
+        Stage.of("a", file("a.txt", "乖"), columns, waiting),
+        Stage.of("b", file("b.txt", "丟"), columns, waiting))).load(executor);
+    assertEquals(2, result.data().size());
+  }
+
+  @Test
+  void stringsArePooledAcrossStages() throws IOException {
+    final var reading = new Column("Reading");
+    final KanjiLoader.Mapper<Kanji> mapper = (row, pool) -> new KenteiKanji(
+        row.get(name), "一", 1, "", pool.get(row, reading), false, List.of(),
+        false, Kyu.K1);
+    final var data = new KanjiLoader(List.of(
+        Stage.of("a", write("a.txt", "Name\tReading", "乖\tカイ"),
+            Set.of(name, reading), mapper),
+        Stage.of("b", write("b.txt", "Name\tReading", "丟\tカイ", "丢\tカイ"),
+            Set.of(name, reading), mapper))).load(executor).data();
+    final var first = data.get("乖").orElseThrow().getReading();
+    for (var k : data.getKanji())
+      assertSame(first, k.getReading());
+  }
+
+  @Test
+  void buildError() throws IOException {
+    final var loader = new KanjiLoader(List.of(
+        Stage.of("jouyou", file("jouyou.txt", "学"), columns,
+            (row, pool) -> jouyou(row)),
+        linkedStage("辤\t辞")));
+    final var e = assertThrows(DomainException.class,
+        () -> loader.load(executor));
+    assertEquals("link not found: 辞", e.getMessage());
+  }
+
+  @Test
+  void parseError() throws IOException {
+    final var loader = new KanjiLoader(List.of(
+        Stage.of("ucd", tempDir.resolve("missing.txt"), columns,
+            (row, pool) -> ucd(row))));
+    final var e = assertThrows(DomainException.class,
+        () -> loader.load(executor));
+    assertTrue(e.getMessage().startsWith("failed to read header row"));
+  }
+
+  @Test
+  void unknownDependencyError() throws IOException {
+    final var linked = linkedStage("辤\t辞");
+    final var e = assertThrows(DomainException.class,
+        () -> new KanjiLoader(List.of(linked, Stage.of("jouyou",
+            file("jouyou.txt", "辞"), columns, (row, pool) -> jouyou(row)))));
+    assertEquals("stage 'linked' depends on unknown stage 'jouyou' " +
+                 "(dependencies must come first)", e.getMessage());
+  }
+
+  @Test
+  void duplicateStageError() throws IOException {
+    final var stage = Stage.of("ucd", file("ucd.txt", "丟"), columns,
+        (row, pool) -> ucd(row));
+    final var e = assertThrows(DomainException.class,
+        () -> new KanjiLoader(List.of(stage, stage)));
+    assertEquals("duplicate stage: ucd", e.getMessage());
+  }
+}
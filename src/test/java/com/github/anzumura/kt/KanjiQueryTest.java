@@ -0,0 +1,116 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static com.github.anzumura.kt.KanjiFilter.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiQueryTest {
+  private static final List<Kanji> kanji =
+      List.of(jouyou, jinmei, linkedJinmei, sea, ocean, frequency);
+  private static final KanjiQuery query = KanjiQuery.of(kanji);
+
+  private static int[] select(KanjiFilter filter) {
+    return query.select(filter).toArray();
+  }
+
+  @Nested
+  class ValueTest {
+    @Test
+    void enums() {
+      assertArrayEquals(new int[]{0, 3, 4}, select(is(Type.Jouyou)));
+      assertArrayEquals(new int[]{4}, select(is(Grade.G3)));
+      assertArrayEquals(new int[]{0, 4}, select(is(Level.N3)));
+      assertArrayEquals(new int[]{2, 5}, select(is(Kyu.K1)));
+      assertArrayEquals(new int[]{1}, select(is(JinmeiReason.Names)));
+    }
+
+    @Test
+    void radical() {
+      assertArrayEquals(new int[]{3, 4}, select(KanjiFilter.radical("水")));
+      assertArrayEquals(new int[0], select(KanjiFilter.radical("木")));
+    }
+
+    @Test
+    void unsupportedValueError() {
+      final var e = assertThrows(DomainException.class,
+          () -> new Is(Field.Year));
+      assertEquals("unsupported value: Year", e.getMessage());
+    }
+  }
+
+  @Nested
+  class RangeTest {
+    @Test
+    void strokesRange() {
+      assertArrayEquals(new int[]{3, 4, 5}, select(strokes(8, 9)));
+      assertArrayEquals(new int[]{2}, select(strokes(19, 19)));
+      assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5},
+          select(strokes(Integer.MIN_VALUE, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void frequencyRange() {
+      // Kanji without a frequency have 0
+      assertArrayEquals(new int[]{0, 3, 4, 5}, select(frequency(1, 2000)));
+      assertArrayEquals(new int[]{1, 2}, select(frequency(0, 0)));
+      assertArrayEquals(new int[]{3}, select(frequency(200, 200)));
+    }
+
+    @Test
+    void yearRange() {
+      assertArrayEquals(new int[]{1, 3, 4}, select(year(1900, 2000)));
+    }
+
+    @Test
+    void emptyRange() {
+      assertArrayEquals(new int[0], select(strokes(10, 9)));
+      assertArrayEquals(new int[0], select(strokes(20, 30)));
+      assertArrayEquals(new int[0], select(strokes(-5, 5)));
+    }
+  }
+
+  @Nested
+  class CombineTest {
+    @Test
+    void and() {
+      assertArrayEquals(new int[]{4}, select(
+          KanjiFilter.and(is(Type.Jouyou), is(Level.N3), strokes(9, 9))));
+      // empty 'and' matches everything
+      assertEquals(kanji.size(), query.select(new And(List.of())).size());
+    }
+
+    @Test
+    void or() {
+      assertArrayEquals(new int[]{1, 2, 5},
+          select(KanjiFilter.or(is(JinmeiReason.Names), is(Kyu.K1))));
+      assertTrue(query.select(new Or(List.of())).isEmpty());
+    }
+
+    @Test
+    void not() {
+      assertArrayEquals(new int[]{1, 2, 5}, select(KanjiFilter.not(
+          is(Type.Jouyou))));
+    }
+
+    @Test
+    void nested() {
+      // Jouyou or Jinmei, with 6 to 9 strokes, but not radical 水
+      assertArrayEquals(new int[]{1}, select(KanjiFilter.and(
+          KanjiFilter.or(is(Type.Jouyou), is(Type.Jinmei)), strokes(6, 9),
+          KanjiFilter.not(KanjiFilter.radical("水")))));
+    }
+  }
+
+  @Test
+  void filtersAreValues() {
+    assertEquals(KanjiFilter.and(is(Kyu.K1), strokes(1, 5)),
+        KanjiFilter.and(is(Kyu.K1), strokes(1, 5)));
+    assertNotEquals(strokes(1, 5), frequency(1, 5));
+  }
+}
@@ -0,0 +1,263 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiReloaderTest {
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  private final Set<StringPool> pools = ConcurrentHashMap.newKeySet();
+  @TempDir
+  private Path tempDir;
+  private List<KanjiReloader.Source> sources;
+
+  private static List<String> lines(Path file) {
+    try {
+      return Files.readAllLines(file);
+    } catch (IOException e) {
+      throw new DomainException("failed to read '" + file.getFileName() + "'");
+    }
+  }
+
+  private KanjiReloader.Parser counted(KanjiReloader.Parser parser) {
+    return (file, earlier, pool) -> {
+      calls.computeIfAbsent(tempDir.relativize(file).toString(),
+          x -> new AtomicInteger()).incrementAndGet();
+      pools.add(pool);
+      return parser.parse(file, earlier, pool);
+    };
+  }
+
+  private int calls(String file) {
+    final var result = calls.get(file);
+    return result == null ? 0 : result.get();
+  }
+
+  private void write(String file, String... names) throws IOException {
+    final var path = tempDir.resolve(file);
+    Files.createDirectories(path.getParent());
+    Files.write(path, List.of(names));
+  }
+
+  private String type(KanjiData data, String name) {
+    return data.get(name).map(k -> k.getType().toString()).orElse("");
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    write("jouyou.txt", "辞", "学");
+    write("linked-old.txt", "辤 辞");
+    write("extra.txt", "匂");
+    write("kentei/k1.txt", "乖", "匂");
+    write("kentei/k2.txt", "丟");
+    sources = List.of(new KanjiReloader.Source("jouyou.txt", counted(
+            (file, earlier, pool) -> {
+              final var result = new ArrayList<Kanji>();
+              for (var name : lines(file))
+                result.add(new JouyouKanji(name, "一", 1, "", "", Kyu.K5,
+                    result.size() + 1, Level.N3, 1, 2010, Grade.S));
+              return result;
+            })),
+        // extra comes before linked to show that precedence is by type
+        new KanjiReloader.Source("extra.txt", counted((file, earlier, pool) -> {
+          final var result = new ArrayList<Kanji>();
+          for (var name : lines(file))
+            result.add(new ExtraKanji(name, "一", 1, "", "", Kyu.K1,
+                result.size() + 1, ""));
+          return result;
+        })), new KanjiReloader.Source("linked-old.txt", true,
+            counted((file, earlier, pool) -> {
+              final var result = new ArrayList<Kanji>();
+              for (var line : lines(file)) {
+                final var names = line.split(" ");
+                result.add(new LinkedOldKanji(names[0], "一", 1,
+                    earlier.get(names[1]).orElseThrow(() -> new DomainException(
+                        "link not found: " + names[1])), 0, Kyu.K1));
+              }
+              return result;
+            })), kentei("kentei/k1.txt"), kentei("kentei/k2.txt"));
+  }
+
+  private KanjiReloader.Source kentei(String file) {
+    return new KanjiReloader.Source(file, counted((path, earlier, pool) -> {
+      final var result = new ArrayList<Kanji>();
+      for (var name : lines(path))
+        result.add(new KenteiKanji(name, "一", 1, "", "", false, List.of(),
+            false, Kyu.K1));
+      return result;
+    }));
+  }
+
+  @Test
+  void initialLoad() {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      final var data = reloader.get();
+      assertEquals(6, data.size());
+      // Kanji are in type order and 'Extra' wins over 'Kentei'
+      assertEquals(List.of("辞", "学", "辤", "匂", "乖", "丟"),
+          data.getKanji().stream().map(Kanji::getName).toList());
+      assertEquals("Extra", type(data, "匂"));
+      assertSame(data.get("辞").orElseThrow(),
+          data.get("辤").orElseThrow().getLink().orElseThrow());
+      for (var source : sources)
+        assertEquals(1, calls(source.file()));
+    }
+  }
+
+  @Test
+  void onlyChangedSourceIsParsed() throws IOException {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      final var before = reloader.get();
+      write("kentei/k2.txt", "丟", "丢");
+      assertTrue(reloader.reload(List.of(Path.of("kentei/k2.txt"))));
+      final var after = reloader.get();
+      assertNotSame(before, after);
+      assertEquals(7, after.size());
+      assertEquals(2, calls("kentei/k2.txt"));
+      assertEquals(1, calls("kentei/k1.txt"));
+      assertEquals(1, calls("jouyou.txt"));
+      // unchanged sources keep the same instances
+      for (var name : List.of("辞", "辤", "匂", "乖"))
+        assertSame(before.get(name).orElseThrow(),
+            after.get(name).orElseThrow());
+      // all parses share one pool
+      assertEquals(1, pools.size());
+    }
+  }
+
+  @Test
+  void lowerPrecedenceKanjiIsVisibleAfterRemoval() throws IOException {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      write("extra.txt");
+      assertTrue(reloader.reload(List.of(tempDir.resolve("extra.txt"))));
+      assertEquals("Kentei", type(reloader.get(), "匂"));
+      // 'linked-old.txt' uses earlier sources so it's also parsed again
+      assertEquals(2, calls("linked-old.txt"));
+      assertEquals(1, calls("kentei/k1.txt"));
+    }
+  }
+
+  @Test
+  void dependentSourceIsParsedAgain() throws IOException {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      write("jouyou.txt", "辞");
+      assertTrue(reloader.reload(List.of(Path.of("jouyou.txt"))));
+      final var data = reloader.get();
+      assertEquals(2, calls("linked-old.txt"));
+      assertEquals(1, calls("extra.txt"));
+      assertSame(data.get("辞").orElseThrow(),
+          data.get("辤").orElseThrow().getLink().orElseThrow());
+      assertTrue(data.get("学").isEmpty());
+    }
+  }
+
+  @Test
+  void failedReloadKeepsPreviousSnapshot() throws IOException {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      final var before = reloader.get();
+      write("jouyou.txt", "学");
+      assertFalse(reloader.reload(List.of(Path.of("jouyou.txt"))));
+      assertSame(before, reloader.get());
+      assertEquals("link not found: 辞",
+          reloader.getLastError().orElseThrow().getMessage());
+      // fixing the file allows the next reload to succeed
+      write("jouyou.txt", "学", "辞");
+      assertTrue(reloader.reload(List.of(Path.of("jouyou.txt"))));
+      assertTrue(reloader.getLastError().isEmpty());
+      assertEquals(2, reloader.get().get("辞").orElseThrow().getNumber());
+    }
+  }
+
+  @Test
+  void unexpectedErrorKeepsWatching() throws IOException,
+      InterruptedException {
+    final KanjiReloader.Parser parser = (file, earlier, pool) -> {
+      final var result = new ArrayList<Kanji>();
+      for (var name : lines(file))
+        if (name.equals("?"))
+          throw new IllegalStateException("parser bug");
+        else
+          result.add(new KenteiKanji(name, "一", 1, "", "", false, List.of(),
+              false, Kyu.K1));
+      return result;
+    };
+    final var list = new ArrayList<>(sources);
+    list.set(4, new KanjiReloader.Source("kentei/k2.txt", parser));
+    try (var reloader = new KanjiReloader(tempDir, list)) {
+      final var before = reloader.get();
+      reloader.start();
+      write("kentei/k2.txt", "丟", "?");
+      for (var i = 0; i < 500 && reloader.getLastError().isEmpty(); ++i)
+        Thread.sleep(20);
+      final var e = reloader.getLastError().orElseThrow();
+      assertTrue(e instanceof IllegalStateException);
+      assertEquals("parser bug", e.getMessage());
+      assertSame(before, reloader.get());
+      // the watch thread is still running so fixing the file is picked up
+      write("kentei/k2.txt", "丟", "丢");
+      for (var i = 0; i < 500 && reloader.get() == before; ++i)
+        Thread.sleep(20);
+      assertEquals("Kentei", type(reloader.get(), "丢"));
+      assertTrue(reloader.getLastError().isEmpty());
+    }
+  }
+
+  @Test
+  void restartAfterClose() throws IOException, InterruptedException {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      reloader.start();
+      assertThrows(DomainException.class, reloader::start);
+      reloader.close();
+      reloader.close(); // does nothing
+      final var before = reloader.get();
+      reloader.start();
+      write("kentei/k2.txt", "丟", "丢");
+      for (var i = 0; i < 500 && reloader.get() == before; ++i)
+        Thread.sleep(20);
+      assertEquals("Kentei", type(reloader.get(), "丢"));
+    }
+  }
+
+  @Test
+  void unknownFileIsIgnored() {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      final var before = reloader.get();
+      assertFalse(reloader.reload(List.of(Path.of("other.txt"))));
+      assertSame(before, reloader.get());
+    }
+  }
+
+  @Test
+  void duplicateSourceError() {
+    final var e = assertThrows(DomainException.class,
+        () -> new KanjiReloader(tempDir,
+            List.of(sources.get(0), kentei("./jouyou.txt"))));
+    assertEquals("duplicate source: ./jouyou.txt", e.getMessage());
+  }
+
+  @Test
+  void watchForChanges() throws IOException, InterruptedException {
+    try (var reloader = new KanjiReloader(tempDir, sources)) {
+      final var before = reloader.get();
+      reloader.start();
+      write("kentei/k1.txt", "乖", "匂", "丢");
+      for (var i = 0; i < 500 && reloader.get() == before; ++i)
+        Thread.sleep(20);
+      assertEquals("Kentei", type(reloader.get(), "丢"));
+      assertEquals(1, calls("extra.txt"));
+    }
+  }
+}
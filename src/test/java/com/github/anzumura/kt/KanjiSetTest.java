@@ -0,0 +1,93 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiSetTest {
+  private static KanjiSet set(int capacity, int... ordinals) {
+    final var words = KanjiSet.words(capacity);
+    for (var i : ordinals)
+      KanjiSet.set(words, i);
+    return new KanjiSet(words, capacity);
+  }
+
+  @Test
+  void empty() {
+    final var s = KanjiSet.empty(100);
+    assertTrue(s.isEmpty());
+    assertEquals(0, s.size());
+    assertEquals(100, s.capacity());
+    assertArrayEquals(new int[0], s.toArray());
+  }
+
+  @Test
+  void contains() {
+    final var s = set(130, 0, 63, 64, 129);
+    assertEquals(4, s.size());
+    for (var i : new int[]{0, 63, 64, 129})
+      assertTrue(s.contains(i));
+    for (var i : new int[]{-1, 1, 62, 65, 128, 130, 200})
+      assertFalse(s.contains(i));
+  }
+
+  @Test
+  void toArrayAndForEach() {
+    final var s = set(200, 150, 3, 64, 65);
+    assertArrayEquals(new int[]{3, 64, 65, 150}, s.toArray());
+    final var visited = new ArrayList<Integer>();
+    s.forEach(visited::add);
+    assertEquals(List.of(3, 64, 65, 150), visited);
+    assertEquals("[3, 64, 65, 150]", s.toString());
+  }
+
+  @Test
+  void and() {
+    final var result = set(100, 1, 2, 70, 99).and(set(100, 2, 3, 70));
+    assertEquals(set(100, 2, 70), result);
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  void or() {
+    assertEquals(set(100, 1, 2, 3, 70, 99),
+        set(100, 1, 2, 70, 99).or(set(100, 2, 3, 70)));
+  }
+
+  @Test
+  void andNot() {
+    assertEquals(set(100, 1, 99),
+        set(100, 1, 2, 70, 99).andNot(set(100, 2, 3, 70)));
+  }
+
+  @Test
+  void not() {
+    final var s = set(66, 0, 64).not();
+    assertEquals(64, s.size());
+    assertFalse(s.contains(0));
+    assertTrue(s.contains(1));
+    assertTrue(s.contains(65));
+    assertFalse(s.contains(64));
+    // capacity that's a multiple of the word size
+    assertEquals(128, KanjiSet.empty(128).not().size());
+    assertEquals(KanjiSet.empty(0), KanjiSet.empty(0).not());
+  }
+
+  @Test
+  void differentCapacityError() {
+    final var e = assertThrows(DomainException.class,
+        () -> set(100).and(set(101)));
+    assertEquals("capacity 101 doesn't match 100", e.getMessage());
+  }
+
+  @Test
+  void equalsAndHashCode() {
+    assertEquals(set(10, 1, 5), set(10, 5, 1));
+    assertEquals(set(10, 1, 5).hashCode(), set(10, 5, 1).hashCode());
+    assertNotEquals(set(10, 1), set(10, 2));
+    assertNotEquals(set(10, 1), set(11, 1));
+  }
+}
@@ -0,0 +1,175 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiSnapshotTest {
+  @TempDir
+  private Path tempDir;
+
+  private static void checkEqual(Kanji expected, Kanji actual) {
+    assertAll(() -> assertEquals(expected.getType(), actual.getType()),
+        () -> assertEquals(expected.getName(), actual.getName()),
+        () -> assertEquals(expected.getRadical(), actual.getRadical()),
+        () -> assertEquals(expected.getStrokes(), actual.getStrokes()),
+        () -> assertEquals(expected.getMeaning(), actual.getMeaning()),
+        () -> assertEquals(expected.getReading(), actual.getReading()),
+        () -> assertEquals(expected.getFrequency(), actual.getFrequency()),
+        () -> assertEquals(expected.getYear(), actual.getYear()),
+        () -> assertEquals(expected.hasLinkedReading(),
+            actual.hasLinkedReading()),
+        () -> assertEquals(expected.getOldNames(), actual.getOldNames()),
+        () -> assertEquals(expected.getNewName(), actual.getNewName()),
+        () -> assertEquals(expected.getGrade(), actual.getGrade()),
+        () -> assertEquals(expected.getLevel(), actual.getLevel()),
+        () -> assertEquals(expected.getKyu(), actual.getKyu()),
+        () -> assertEquals(expected.getNumber(), actual.getNumber()),
+        () -> assertEquals(expected.getReason(), actual.getReason()),
+        () -> assertEquals(expected.getLink().map(Kanji::getName),
+            actual.getLink().map(Kanji::getName)));
+  }
+
+  private Path source(String contents) {
+    try {
+      return Files.writeString(tempDir.resolve("source.txt"), contents);
+    } catch (IOException e) {
+      return fail("failed to create file - " + e.getMessage());
+    }
+  }
+
+  @Nested
+  class ReadWriteTest {
+    @Test
+    void roundTripAllTypes() {
+      final var path = tempDir.resolve("snapshot.bin");
+      KanjiSnapshot.write(path, allTypes, 123);
+      final var result = KanjiSnapshot.read(path, 123).orElseThrow();
+      assertEquals(allTypes.size(), result.size());
+      for (var i = 0; i < result.size(); ++i)
+        checkEqual(allTypes.get(i), result.get(i));
+      // links refer to the loaded Kanji (not a copy)
+      assertSame(result.get(0), result.get(2).getLink().orElseThrow());
+      // repeated values share one instance
+      assertSame(result.get(0).getRadical(), result.get(2).getRadical());
+      assertEquals(List.of("丢", "丟"),
+          ((Other) result.get(result.size() - 1)).getLinkNames());
+    }
+
+    @Test
+    void missingSnapshot() {
+      assertTrue(KanjiSnapshot.read(tempDir.resolve("missing"), 1).isEmpty());
+    }
+
+    @Test
+    void differentChecksum() {
+      final var path = tempDir.resolve("snapshot.bin");
+      KanjiSnapshot.write(path, allTypes, 123);
+      assertTrue(KanjiSnapshot.read(path, 124).isEmpty());
+    }
+
+    @Test
+    void corruptSnapshotError() throws IOException {
+      final var path = tempDir.resolve("snapshot.bin");
+      KanjiSnapshot.write(path, allTypes, 123);
+      final var bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiSnapshot.read(path, 123));
+      assertEquals("corrupt snapshot: snapshot.bin", e.getMessage());
+    }
+
+    @Test
+    void corruptStringCountError() throws IOException {
+      final var path = tempDir.resolve("snapshot.bin");
+      final var ucd = allTypes.get(allTypes.size() - 1);
+      KanjiSnapshot.write(path, List.of(ucd), 123);
+      final var bytes = Files.readAllBytes(path);
+      // header (20), type (1), name (2 + 3), radical (2 + 3), strokes (2),
+      // meaning (2), reading (2 + 9) and 'oldLinks' (1) come before the
+      // count of link names (set it to a negative 'short' value)
+      final var count = 47;
+      assertEquals(2, bytes[count + 1]);
+      bytes[count] = bytes[count + 1] = (byte) 0xff;
+      Files.write(path, bytes);
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiSnapshot.read(path, 123));
+      assertEquals("corrupt snapshot: snapshot.bin", e.getMessage());
+    }
+
+    @Test
+    void linkMustComeFirstError() {
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiSnapshot.write(tempDir.resolve("snapshot.bin"),
+              List.of(allTypes.get(2)), 1));
+      assertEquals("link for '辭' must come earlier in the list",
+          e.getMessage());
+    }
+
+    @Test
+    void failedWriteRemovesTempFile() throws IOException {
+      // can't replace a non-empty directory so the move fails
+      final var path = tempDir.resolve("snapshot.bin");
+      Files.createFile(Files.createDirectory(path).resolve("file"));
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiSnapshot.write(path, allTypes, 123));
+      assertTrue(e.getMessage().startsWith("failed to write snapshot: "));
+      try (var files = Files.list(tempDir)) {
+        assertEquals(List.of(path), files.toList());
+      }
+    }
+  }
+
+  @Nested
+  class LoadTest {
+    @Test
+    void loaderIsOnlyCalledWhenSnapshotIsStale() throws IOException {
+      final var snapshot = tempDir.resolve("snapshot.bin");
+      final var sources = List.of(source("v1"));
+      final var calls = new AtomicInteger();
+      for (var i = 0; i < 2; ++i)
+        assertEquals(allTypes.size(), KanjiSnapshot.load(snapshot, sources,
+            () -> {
+              calls.incrementAndGet();
+              return allTypes;
+            }).size());
+      assertEquals(1, calls.get());
+      // changing a source file causes the snapshot to be re-created
+      Files.writeString(sources.get(0), "v2");
+      assertEquals(1, KanjiSnapshot.load(snapshot, sources, () -> {
+        calls.incrementAndGet();
+        return List.of(jouyou);
+      }).size());
+      assertEquals(2, calls.get());
+    }
+
+    @Test
+    void corruptSnapshotIsRecreated() throws IOException {
+      final var snapshot = Files.writeString(tempDir.resolve("snapshot.bin"),
+          "bad");
+      final var sources = List.of(source("v1"));
+      assertEquals(allTypes.size(),
+          KanjiSnapshot.load(snapshot, sources, () -> allTypes).size());
+      assertTrue(KanjiSnapshot.read(snapshot, KanjiSnapshot.checksum(sources))
+          .isPresent());
+    }
+
+    @Test
+    void missingSourceError() {
+      final var e = assertThrows(DomainException.class,
+          () -> KanjiSnapshot.checksum(List.of(tempDir.resolve("x.txt"))));
+      assertTrue(e.getMessage().startsWith("failed to read '"));
+    }
+  }
+}
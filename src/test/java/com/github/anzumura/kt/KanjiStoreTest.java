@@ -0,0 +1,141 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiStoreTest {
+  private static final int CJK_START = 0x4e00;
+
+  // 'count' Jouyou Kanji that each have a LinkedOldKanji plus one Extra Kanji
+  private static List<Kanji> kanji(int count) {
+    final var result = new ArrayList<Kanji>();
+    var next = CJK_START;
+    for (var i = 0; i < count; ++i) {
+      final var jouyou = new JouyouKanji(Character.toString(next++), "一", 1,
+          "meaning", "ヨミ", Kyu.K5, i + 1, Level.N3, i + 1, 2010, Grade.S);
+      result.add(jouyou);
+      result.add(new LinkedOldKanji(Character.toString(next++), "一", 1,
+          jouyou, 0, Kyu.K1));
+    }
+    result.add(new ExtraKanji(Character.toString(next), "一", 1, "", "",
+        Kyu.K1, 1, ""));
+    return result;
+  }
+
+  private static void checkInvariants(KanjiData data) {
+    if (data.size() == 0) {
+      assertSame(KanjiData.empty(), data); // nothing has been published yet
+      return;
+    }
+    final var jouyou = data.getKanji(Type.Jouyou);
+    final var linked = data.getKanji(Type.LinkedOld);
+    // each snapshot is complete (never a mix of two loads)
+    assertEquals(jouyou.size(), linked.size());
+    assertEquals(jouyou.size() * 2 + 1, data.size());
+    assertEquals(1, data.getKanji(Type.Extra).size());
+    assertEquals(jouyou.size(),
+        data.getQuery().getGroups().get(Type.Jouyou).size());
+    for (var k : linked) {
+      final var link = k.getLink().orElseThrow();
+      assertTrue(link instanceof JouyouKanji);
+      assertSame(link, data.get(link.getName()).orElseThrow());
+    }
+    final var index = data.getIndex();
+    for (var i = 0; i < data.size(); ++i)
+      assertEquals(i, index.ordinal(data.getKanji().get(i).getName()));
+  }
+
+  @Test
+  void emptyBeforeFirstLoad() {
+    assertEquals(0, new KanjiStore().get().size());
+  }
+
+  @Test
+  void loadPublishesWhenComplete() {
+    final var store = new KanjiStore();
+    final var executor = Executors.newSingleThreadExecutor();
+    try {
+      final var result = store.load(() -> kanji(10), executor).join();
+      assertSame(result, store.get());
+      assertEquals(21, result.size());
+      // a failed load keeps the current snapshot
+      assertThrows(CompletionException.class, () -> store.load(() -> {
+        throw new DomainException("bad file");
+      }, executor).join());
+      assertSame(result, store.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void newestLoadWins() {
+    final var store = new KanjiStore();
+    final var executor = Executors.newFixedThreadPool(2);
+    try {
+      final var release = new CountDownLatch(1);
+      final var older = store.load(() -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new DomainException("interrupted");
+        }
+        return kanji(1);
+      }, executor);
+      final var newer = store.load(() -> kanji(2), executor).join();
+      assertSame(newer, store.get());
+      release.countDown();
+      // the older load finishes last, but doesn't replace the newer snapshot
+      assertSame(newer, older.join());
+      assertSame(newer, store.get());
+      // a later 'set' supersedes both loads
+      final var data = KanjiData.of(kanji(3));
+      store.set(data);
+      assertSame(data, store.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void readersAlwaysSeeCompleteSnapshots() throws InterruptedException {
+    final var store = new KanjiStore();
+    final var done = new AtomicBoolean();
+    final var error = new AtomicReference<Throwable>();
+    final var checked = new AtomicInteger();
+    final var readers = new ArrayList<Thread>();
+    for (var i = 0; i < 4; ++i)
+      readers.add(new Thread(() -> {
+        try {
+          while (!done.get()) {
+            checkInvariants(store.get()); // one volatile read per 'request'
+            checked.incrementAndGet();
+          }
+        } catch (Throwable e) {
+          error.compareAndSet(null, e);
+        }
+      }));
+    readers.forEach(Thread::start);
+    try {
+      for (var i = 0; i < 200 && error.get() == null; ++i)
+        store.set(KanjiData.of(kanji(1 + i % 50)));
+    } finally {
+      done.set(true);
+      for (var t : readers)
+        t.join();
+    }
+    assertNull(error.get());
+    assertTrue(checked.get() > 0);
+  }
+}
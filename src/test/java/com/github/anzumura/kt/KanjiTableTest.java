@@ -0,0 +1,147 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KanjiTableTest {
+  private static final KanjiTable table = KanjiTable.of(allTypes);
+
+  @TempDir
+  private Path tempDir;
+
+  private static List<Object> values(Kanji k) {
+    return Arrays.asList(k.getType(), k.getName(), k.getRadical(),
+        k.getStrokes(), k.getMeaning(), k.getReading(), k.getFrequency(),
+        k.getYear(), k.hasLinkedReading(), k.getOldNames(), k.getNewName(),
+        k.getGrade(), k.getLevel(), k.getKyu(), k.getNumber(), k.getReason(),
+        k.getLink().map(Kanji::getName));
+  }
+
+  private static List<Object> values(KanjiTable.Entry e) {
+    return Arrays.asList(e.getType(), e.getName(), e.getRadical(),
+        e.getStrokes(), e.getMeaning(), e.getReading(), e.getFrequency(),
+        e.getYear(), e.hasLinkedReading(), e.getOldNames(), e.getNewName(),
+        e.getGrade(), e.getLevel(), e.getKyu(), e.getNumber(), e.getReason(),
+        e.getLink().map(KanjiTable.Entry::getName));
+  }
+
+  private static void assertSameKanji(List<Kanji> actual) {
+    assertEquals(allTypes.size(), actual.size());
+    for (var i = 0; i < allTypes.size(); ++i) {
+      assertEquals(allTypes.get(i).getClass(), actual.get(i).getClass());
+      assertEquals(values(allTypes.get(i)), values(actual.get(i)));
+    }
+  }
+
+  @Test
+  void size() {
+    assertEquals(allTypes.size(), table.size());
+    assertEquals(0, KanjiTable.of(List.of()).size());
+  }
+
+  @Test
+  void linkNotInListError() {
+    final var e = assertThrows(DomainException.class,
+        () -> KanjiTable.of(List.of(allTypes.get(2))));
+    assertEquals("link for '辭' isn't in the list", e.getMessage());
+  }
+
+  @Test
+  void memoryBytes() {
+    // 5 byte arrays, 2 boolean arrays, 1 short array and 10 int arrays (one
+    // of them is 'linkNameStarts' which has an extra element) so 49 bytes per
+    // Kanji plus 4. The Kanji has 2 link names (8 bytes) and 5 distinct
+    // Strings ("丟", "一", "", "チュウ" and "丢") with 6 chars gives 12 bytes
+    // for chars and 24 for String starts.
+    assertEquals(49 + 4 + 8 + 12 + 24,
+        KanjiTable.of(List.of(ucd)).memoryBytes());
+    // Strings shared by different Kanji are only stored once
+    assertEquals(2 * 49 + 4 + 2 * 8 + 12 + 24,
+        KanjiTable.of(List.of(ucd, ucd)).memoryBytes());
+  }
+
+  @Nested
+  class EntryTest {
+    @Test
+    void sameValuesAsOriginal() {
+      for (var i = 0; i < allTypes.size(); ++i)
+        assertEquals(values(allTypes.get(i)), values(table.get(i)));
+    }
+
+    @Test
+    void link() {
+      final var linked = table.get(2);
+      assertEquals(table.get(0), linked.getLink().orElseThrow());
+      assertEquals(0, table.get(3).getLink().orElseThrow().getOrdinal());
+      assertTrue(table.get(0).getLink().isEmpty());
+    }
+
+    @Test
+    void toKanji() {
+      final var k = table.get(3).toKanji();
+      assertTrue(k instanceof LinkedOldKanji);
+      assertEquals(values(allTypes.get(3)), values(k));
+    }
+
+    @Test
+    void equalsAndHashCode() {
+      assertEquals(table.get(1), table.get(1));
+      assertEquals(table.get(1).hashCode(), table.get(1).hashCode());
+      assertNotEquals(table.get(1), table.get(2));
+      // entries from different tables aren't equal
+      assertNotEquals(table.get(1), KanjiTable.of(allTypes).get(1));
+    }
+  }
+
+  @Nested
+  class ToKanjiTest {
+    @Test
+    void sameValuesAsOriginal() {
+      final var kanji = table.toKanji();
+      assertSameKanji(kanji);
+      // links refer to Kanji in the returned list
+      assertSame(kanji.get(0), kanji.get(2).getLink().orElseThrow());
+      assertSame(kanji.get(0), kanji.get(3).getLink().orElseThrow());
+    }
+
+    @Test
+    void snapshotRoundTrip() {
+      final var snapshot = tempDir.resolve("snapshot.bin");
+      KanjiSnapshot.write(snapshot, table.toKanji(), 1);
+      assertSameKanji(KanjiSnapshot.read(snapshot, 1).orElseThrow());
+    }
+  }
+
+  @Nested
+  class OrdinalTest {
+    @Test
+    void values() {
+      assertEquals(Type.Jouyou, table.getType(0));
+      assertEquals(Grade.G4, table.getGrade(0));
+      assertEquals(Level.N3, table.getLevel(0));
+      assertEquals(Kyu.K7, table.getKyu(0));
+      assertEquals(JinmeiReason.Names, table.getReason(1));
+      assertEquals(13, table.getStrokes(0));
+      assertEquals(632, table.getFrequency(0));
+      assertEquals(1951, table.getYear(1));
+      assertEquals(3, table.getNumber(5));
+      assertEquals("匂", table.getName(5));
+    }
+
+    @Test
+    void link() {
+      assertEquals(0, table.getLink(2));
+      assertEquals(0, table.getLink(3));
+      assertEquals(KanjiTable.NO_LINK, table.getLink(0));
+    }
+  }
+}
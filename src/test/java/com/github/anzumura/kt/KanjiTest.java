@@ -39,6 +39,9 @@ class KanjiTest {
         () -> assertEquals(link.getReading(), k.getReading()),
         () -> assertEquals(link.getMeaning(), k.getMeaning()),
         () -> assertEquals(Optional.of(link), k.getLink()),
+        // Optionals are created once (getters don't allocate)
+        () -> assertSame(k.getLink(), k.getLink()),
+        () -> assertSame(k.getNewName(), k.getNewName()),
         () -> assertTrue(k.hasLinkedReading()),
         () -> assertEquals(differentFrequency, k.getFrequency()),
         () -> assertEquals(differentKyu, k.getKyu()),
@@ -144,6 +147,7 @@ class KanjiTest {
           new ExtraKanji(name, radical, strokes, meaning, reading, kyu, number,
               newName);
       assertEquals(Optional.of(newName), k.getNewName());
+      assertSame(k.getNewName(), k.getNewName());
     }
 
     @ParameterizedTest
@@ -279,7 +283,9 @@ class KanjiTest {
               false);
       checkLoadedKanjiFields(k);
       assertAll(() -> assertEquals(links, k.getOldNames()),
-          () -> assertTrue(k.getNewName().isEmpty()));
+          () -> assertTrue(k.getNewName().isEmpty()),
+          () -> assertTrue(k.hasOldLinks()),
+          () -> assertEquals(links, k.getLinkNames()));
     }
 
     @Test
@@ -290,7 +296,10 @@ class KanjiTest {
               List.of(newName), false);
       checkLoadedKanjiFields(k);
       assertAll(() -> assertTrue(k.getOldNames().isEmpty()),
-          () -> assertEquals(Optional.of(newName), k.getNewName()));
+          () -> assertEquals(Optional.of(newName), k.getNewName()),
+          () -> assertSame(k.getNewName(), k.getNewName()),
+          () -> assertFalse(k.hasOldLinks()),
+          () -> assertEquals(List.of(newName), k.getLinkNames()));
     }
   }
 
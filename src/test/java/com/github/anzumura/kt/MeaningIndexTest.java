@@ -0,0 +1,102 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeaningIndexTest {
+  private static final List<Kanji> kanji =
+      List.of(ucd("海", "sea", ""), ucd("洋", "ocean, sea; foreign", ""),
+          ucd("辞", "resign, word, term", ""), ucd("丫"),
+          ucd("語", "Word; Speech", ""), ucd("二", "two, 2", ""));
+  private static final MeaningIndex index = MeaningIndex.of(kanji);
+
+  @Test
+  void terms() {
+    assertEquals(List.of("ocean", "sea", "foreign"),
+        MeaningIndex.terms("ocean, sea; foreign"));
+    assertEquals(List.of("kokuji", "a", "b2"),
+        MeaningIndex.terms("(Kokuji) A/b2"));
+    assertEquals(List.of(), MeaningIndex.terms(" ,; "));
+  }
+
+  @Test
+  void size() {
+    // sea, ocean, foreign, resign, word, term, speech, two, 2
+    assertEquals(9, index.size());
+    assertEquals(0, MeaningIndex.of(List.of()).size());
+  }
+
+  @Nested
+  class ExactTest {
+    @Test
+    void get() {
+      assertArrayEquals(new int[]{0, 1}, index.get("sea").toArray());
+      assertArrayEquals(new int[]{2, 4}, index.get("word").toArray());
+      assertArrayEquals(new int[]{5}, index.get("2").toArray());
+      assertEquals(kanji.size(), index.get("sea").capacity());
+    }
+
+    @Test
+    void caseInsensitive() {
+      assertArrayEquals(new int[]{2, 4}, index.get("WORD").toArray());
+      assertArrayEquals(new int[]{4}, index.get("speech").toArray());
+    }
+
+    @Test
+    void notFound() {
+      assertTrue(index.get("se").isEmpty());
+      assertTrue(index.get("seas").isEmpty());
+      assertTrue(index.get("").isEmpty());
+      assertTrue(index.get("zzz").isEmpty());
+    }
+  }
+
+  @Nested
+  class PrefixTest {
+    @Test
+    void getPrefix() {
+      assertArrayEquals(new int[]{0, 1, 4}, index.getPrefix("s").toArray());
+      assertArrayEquals(new int[]{2}, index.getPrefix("Re").toArray());
+      assertArrayEquals(new int[]{2, 5}, index.getPrefix("t").toArray());
+      assertTrue(index.getPrefix("x").isEmpty());
+      // empty prefix matches Kanji with any meaning
+      assertEquals(5, index.getPrefix("").size());
+    }
+
+    @Test
+    void search() {
+      assertArrayEquals(new int[]{1}, index.search("sea oce").toArray());
+      assertArrayEquals(new int[]{2, 4}, index.search("wor").toArray());
+      assertArrayEquals(new int[]{2}, index.search("W, res").toArray());
+      assertTrue(index.search("sea word").isEmpty());
+      assertTrue(index.search("").isEmpty());
+    }
+  }
+
+  @Test
+  void largeOrdinalGaps() {
+    // gaps between ordinals larger than 127 need multi-byte varints
+    final var list = new ArrayList<Kanji>();
+    for (var i = 0; i < 40_000; ++i)
+      list.add(ucd(Character.toString(0x4e00 + i),
+          i % 300 == 0 || i == 39_999 ? "rare" : "common", ""));
+    final var result = MeaningIndex.of(list).get("rare").toArray();
+    assertEquals(135, result.length);
+    assertEquals(16_500, result[55]);
+    assertEquals(39_999, result[134]);
+    assertEquals(40_000 - 135, MeaningIndex.of(list).get("common").size());
+  }
+
+  @Test
+  void memoryBytes() {
+    // one term 'sea' (3 chars, 1 posting byte) plus two arrays of 2 ints
+    assertEquals(3 * 2 + 1 + 4 * 4,
+        MeaningIndex.of(List.of(ucd("海", "Sea", ""))).memoryBytes());
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionGeneratorTest {
+  private static final KanjiData data = KanjiData.of(List.of(jouyou, sea,
+      ocean,
+      new JouyouKanji("池", "水", 6, "pond", "チ、いけ", Kyu.K8, 183, Level.N3,
+          1142, 1946, Grade.G2),
+      new JouyouKanji("界", "田", 9, "world", "カイ", Kyu.K8, 205, Level.N3,
+          103, 1946, Grade.G3),
+      linkedOld, extra, ucd));
+  private static final QuestionGenerator questions = data.getQuestions();
+
+  private static int ordinal(String name) {
+    return data.getIndex().ordinal(name);
+  }
+
+  private static List<String> pool(String name) {
+    final var ordinal = ordinal(name);
+    return IntStream.range(0, questions.poolSize(ordinal))
+        .mapToObj(i -> data.getKanji().get(questions.pool(ordinal, i))
+            .getName()).toList();
+  }
+
+  @Test
+  void poolsAreRankedBySimilarity() {
+    // same radical and strokes, then same radical with close strokes or same
+    // strokes and shared reading
+    assertEquals(List.of("洋", "界", "池"), pool("海").subList(0, 3));
+    // distractors never have the same meaning as the answer
+    assertFalse(pool("辞").contains("辤"));
+    // pools are filled with nearby Kanji if there aren't enough similar ones
+    assertEquals(5, pool("匂").size());
+  }
+
+  @Test
+  void askable() {
+    // 'Ucd' Kanji doesn't have a meaning
+    assertEquals(data.size() - 1, questions.getAskable().size());
+    assertFalse(questions.getAskable().contains(ordinal("丟")));
+  }
+
+  @Test
+  void next() {
+    final var random = new SplittableRandom(1);
+    final var choices = new int[QuestionGenerator.CHOICES];
+    final var answer = ordinal("海");
+    for (var i = 0; i < 100; ++i) {
+      final var correct = questions.next(random, answer, choices);
+      assertEquals(answer, choices[correct]);
+      final var meanings = new HashSet<String>();
+      for (var c : choices)
+        meanings.add(data.getKanji().get(c).getMeaning());
+      assertEquals(choices.length, meanings.size());
+    }
+    for (var i = 0; i < 100; ++i) {
+      final var correct = questions.next(random, choices);
+      assertTrue(questions.getAskable().contains(choices[correct]));
+    }
+  }
+
+  @Test
+  void tooManyChoicesError() {
+    final var e = assertThrows(DomainException.class,
+        () -> questions.next(new SplittableRandom(), ordinal("海"), new int[7]));
+    assertEquals("can't create 7 choices for '海'", e.getMessage());
+  }
+
+  @Test
+  void noAskableKanjiError() {
+    final var empty = KanjiData.empty().getQuestions();
+    final var e = assertThrows(DomainException.class,
+        () -> empty.next(new SplittableRandom(), new int[2]));
+    assertEquals("no Kanji can be asked", e.getMessage());
+  }
+}
@@ -0,0 +1,221 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizServerTest {
+  private static final Pattern sessionPattern =
+      Pattern.compile("\"session\":(\\d+)");
+  private static final Pattern choicesPattern =
+      Pattern.compile("\"choices\":\\[(.*)]");
+  private static final KanjiData data =
+      KanjiData.of(List.of(sea, ocean, jouyou, extra, ucd));
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final KanjiStore store = new KanjiStore();
+  private QuizServer server;
+
+  private HttpResponse<String> send(String method, String path)
+      throws IOException, InterruptedException {
+    final var request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getPort() + path))
+        .method(method, HttpRequest.BodyPublishers.noBody()).build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static String find(Pattern pattern, String body) {
+    final var m = pattern.matcher(body);
+    assertTrue(m.find(), body);
+    return m.group(1);
+  }
+
+  private void restart(QuizServer.SessionLimits limits) {
+    server.close();
+    server = QuizServer.start(store, new InetSocketAddress("localhost", 0),
+        QuizServer.newExecutor(4), limits);
+  }
+
+  @BeforeEach
+  void setUp() {
+    store.set(data);
+    server = QuizServer.start(store, new InetSocketAddress("localhost", 0));
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  @Test
+  void kanji() throws Exception {
+    var response = send("GET", "/kanji?type=Jouyou&level=N3");
+    assertEquals(200, response.statusCode());
+    assertEquals("{\"count\":2,\"kanji\":[\"洋\",\"辞\"]}", response.body());
+    response = send("GET", "/kanji");
+    assertEquals("{\"count\":5,\"kanji\":[\"海\",\"洋\",\"辞\",\"匂\",\"丟\"]}",
+        response.body());
+  }
+
+  @Test
+  void questionAndAnswer() throws Exception {
+    final var question = send("GET", "/question?grade=G2").body();
+    final var session = find(sessionPattern, question);
+    assertTrue(question.contains("\"kanji\":\"海\""), question);
+    // distractors come from all Kanji (not just ones matching the filters)
+    final var choices =
+        List.of(find(choicesPattern, question).split(","));
+    assertEquals(QuestionGenerator.CHOICES, choices.size());
+    assertEquals(Set.of("\"sea\"", "\"ocean\"", "\"resign\"",
+        "\"fragrant\""), Set.copyOf(choices));
+    assertEquals(1, server.sessions());
+    final var answer = send("POST", "/answer?session=" + session +
+                                    "&choice=" + choices.indexOf("\"sea\""));
+    assertEquals(200, answer.statusCode());
+    assertEquals("{\"correct\":true,\"answer\":\"sea\",\"score\":1," +
+                 "\"asked\":1}", answer.body());
+    // a question can only be answered once
+    final var again =
+        send("POST", "/answer?session=" + session + "&choice=0");
+    assertEquals(409, again.statusCode());
+    assertEquals("{\"error\":\"no question for session: " + session + "\"}",
+        again.body());
+  }
+
+  @Test
+  void wrongAnswer() throws Exception {
+    final var question = send("GET", "/question?grade=G3").body();
+    final var choices =
+        List.of(find(choicesPattern, question).split(","));
+    final var wrong = choices.indexOf("\"ocean\"") == 0 ? 1 : 0;
+    assertEquals("{\"correct\":false,\"answer\":\"ocean\",\"score\":0," +
+                 "\"asked\":1}", send("POST", "/answer?session=" +
+        find(sessionPattern, question) + "&choice=" + wrong).body());
+  }
+
+  @Test
+  void choicesHaveDistinctMeanings() throws Exception {
+    for (var i = 0; i < 20; ++i) {
+      final var choices = find(choicesPattern,
+          send("GET", "/question?type=Jouyou").body()).split(",");
+      assertEquals(QuestionGenerator.CHOICES, Set.of(choices).size());
+      // 'Ucd' Kanji in the data doesn't have a meaning
+      assertFalse(List.of(choices).contains("\"\""));
+    }
+  }
+
+  @Test
+  void errors() throws Exception {
+    var response = send("GET", "/kanji?grade=G9");
+    assertEquals(400, response.statusCode());
+    assertEquals("{\"error\":\"bad 'grade': G9\"}", response.body());
+    response = send("POST", "/kanji");
+    assertEquals(405, response.statusCode());
+    assertEquals("{\"error\":\"expected GET\"}", response.body());
+    response = send("POST", "/answer?session=99&choice=1");
+    assertEquals(404, response.statusCode());
+    assertEquals("{\"error\":\"unknown session: 99\"}", response.body());
+    response = send("POST", "/answer?choice=1");
+    assertEquals("{\"error\":\"missing 'session'\"}", response.body());
+    response = send("GET", "/question?type=Ucd");
+    assertEquals(404, response.statusCode());
+    assertEquals("{\"error\":\"no Kanji match the filters\"}", response.body());
+    response = send("GET", "/question?grade=G9");
+    assertEquals(400, response.statusCode());
+    // sessions aren't created for bad requests
+    assertEquals(0, server.sessions());
+  }
+
+  @Test
+  void internalError() throws Exception {
+    store.set(null);
+    final var response = send("GET", "/kanji");
+    assertEquals(500, response.statusCode());
+    assertEquals("{\"error\":\"internal error\"}", response.body());
+  }
+
+  @Test
+  void sessionLimit() throws Exception {
+    restart(new QuizServer.SessionLimits(2, Duration.ofHours(1)));
+    final var session =
+        find(sessionPattern, send("GET", "/question").body());
+    assertEquals(200, send("GET", "/question").statusCode());
+    final var response = send("GET", "/question");
+    assertEquals(503, response.statusCode());
+    assertEquals("{\"error\":\"too many sessions\"}", response.body());
+    assertEquals(2, server.sessions());
+    // existing sessions can still be used
+    assertEquals(200,
+        send("GET", "/question?session=" + session).statusCode());
+  }
+
+  @Test
+  void idleSessionsAreRemoved() throws Exception {
+    restart(new QuizServer.SessionLimits(1, Duration.ofMillis(100)));
+    final var session =
+        find(sessionPattern, send("GET", "/question").body());
+    Thread.sleep(200);
+    final var response =
+        send("POST", "/answer?session=" + session + "&choice=0");
+    assertEquals(404, response.statusCode());
+    assertEquals("{\"error\":\"unknown session: " + session + "\"}",
+        response.body());
+    // the idle session no longer counts towards the limit
+    assertEquals(200, send("GET", "/question").statusCode());
+    assertEquals(1, server.sessions());
+  }
+
+  @Test
+  void sessionLimitsErrors() {
+    var e = assertThrows(DomainException.class,
+        () -> new QuizServer.SessionLimits(0, Duration.ofMinutes(1)));
+    assertEquals("invalid max sessions: 0", e.getMessage());
+    e = assertThrows(DomainException.class,
+        () -> new QuizServer.SessionLimits(1, Duration.ZERO));
+    assertEquals("invalid idle timeout: PT0S", e.getMessage());
+  }
+
+  @Test
+  void newExecutorError() {
+    final var e = assertThrows(DomainException.class,
+        () -> QuizServer.newExecutor(0));
+    assertEquals("invalid threads: 0", e.getMessage());
+  }
+
+  @Test
+  void concurrentSessions() {
+    final var executor = QuizServer.newExecutor(QuizServer.DEFAULT_THREADS);
+    final var futures = new ArrayList<CompletableFuture<Boolean>>();
+    for (var i = 0; i < 200; ++i)
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          final var session =
+              find(sessionPattern, send("GET", "/question").body());
+          return send("POST", "/answer?session=" + session + "&choice=0")
+                     .statusCode() == 200;
+        } catch (IOException | InterruptedException e) {
+          return false;
+        }
+      }, executor));
+    for (var f : futures)
+      assertTrue(f.join());
+    executor.shutdown();
+    assertEquals(200, server.sessions());
+  }
+}
@@ -0,0 +1,93 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingIndexTest {
+  private static final List<Kanji> kanji =
+      List.of(jouyou, ucd("正", "", "セイ、ショウ、ただ-しい、まさ"),
+          ucd("生", "", "セイ、ショウ、い-きる、う-まれる、なま"), linkedJinmei,
+          // ucd readings don't have dashes and can have the same reading twice
+          // after normalizing
+          ucd("丟", "", "チュウ,ちゅう"), ucd("丫"));
+  private static final ReadingIndex index = ReadingIndex.of(kanji);
+
+  @Test
+  void normalize() {
+    assertEquals("しょう", ReadingIndex.normalize("しょう"));
+    assertEquals("しょう", ReadingIndex.normalize("ショウ"));
+    assertEquals("やめる", ReadingIndex.normalize("や-める"));
+    assertEquals("ゔぁ", ReadingIndex.normalize("ヴァ"));
+    assertEquals("ゖ", ReadingIndex.normalize("ヶ"));
+    // long vowel mark is the same for Katakana and Hiragana
+    assertEquals("けーき", ReadingIndex.normalize("ケーキ"));
+    assertEquals("", ReadingIndex.normalize(""));
+  }
+
+  @Test
+  void size() {
+    // じ, やめる, せい, しょう, ただしい, まさ, いきる, うまれる, なま, ちゅう
+    assertEquals(10, index.size());
+    assertEquals(0, ReadingIndex.of(List.of()).size());
+  }
+
+  @Nested
+  class ExactTest {
+    @Test
+    void ordinals() {
+      assertArrayEquals(new int[]{1, 2}, index.ordinals("しょう"));
+      assertArrayEquals(new int[]{1, 2}, index.ordinals("ショウ"));
+      // linked Kanji use the readings of their link
+      assertArrayEquals(new int[]{0, 3}, index.ordinals("やめる"));
+      assertArrayEquals(new int[]{0, 3}, index.ordinals("や-める"));
+      assertArrayEquals(new int[]{4}, index.ordinals("ちゅう"));
+      assertArrayEquals(new int[0], index.ordinals("しょ"));
+      assertArrayEquals(new int[0], index.ordinals(""));
+    }
+
+    @Test
+    void ordinalsAreCopies() {
+      index.ordinals("しょう")[0] = 5;
+      assertArrayEquals(new int[]{1, 2}, index.ordinals("しょう"));
+    }
+
+    @Test
+    void get() {
+      final var result = index.get("ただしい");
+      assertArrayEquals(new int[]{1}, result.toArray());
+      assertEquals(kanji.size(), result.capacity());
+      assertTrue(index.get("あ").isEmpty());
+    }
+  }
+
+  @Nested
+  class PrefixTest {
+    @Test
+    void prefix() {
+      assertArrayEquals(new int[]{1, 2}, index.getPrefix("しょ").toArray());
+      assertArrayEquals(new int[]{1, 2}, index.getPrefix("セ").toArray());
+      assertArrayEquals(new int[]{0, 3}, index.getPrefix("や").toArray());
+      assertArrayEquals(new int[]{1, 2}, index.getPrefix("しょう").toArray());
+      assertTrue(index.getPrefix("しょうが").isEmpty());
+      assertTrue(index.getPrefix("ん").isEmpty());
+    }
+
+    @Test
+    void emptyPrefixMatchesKanjiWithReadings() {
+      assertArrayEquals(new int[]{0, 1, 2, 3, 4},
+          index.getPrefix("").toArray());
+    }
+
+    @Test
+    void combineWithOtherSets() {
+      // Kanji read 'せい' that can also be read 'なま'
+      assertArrayEquals(new int[]{2},
+          index.get("せい").and(index.get("なま")).toArray());
+    }
+  }
+}
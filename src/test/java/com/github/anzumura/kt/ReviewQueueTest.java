@@ -0,0 +1,150 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static com.github.anzumura.kt.ReviewQueue.NONE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewQueueTest {
+  private static final int DAY = 24 * 60, NOW = 1_000_000;
+
+  private final ReviewQueue queue = new ReviewQueue();
+
+  @Test
+  void newCard() {
+    assertEquals(NONE, queue.peek());
+    queue.add(7, NOW);
+    queue.add(7, NOW + 5); // already added so nothing changes
+    assertEquals(1, queue.size());
+    assertTrue(queue.contains(7));
+    assertFalse(queue.contains(8));
+    assertEquals(7, queue.peek());
+    assertEquals(NOW, queue.getDue(7));
+    assertEquals(0, queue.getInterval(7));
+    assertEquals(250, queue.getEase(7));
+    assertEquals(NONE, queue.getDue(8));
+  }
+
+  @Test
+  void correctAnswers() {
+    // SM-2 intervals are 1 day, 6 days, then previous interval * ease
+    assertEquals(NOW + DAY, queue.answer(3, 5, NOW));
+    assertEquals(260, queue.getEase(3));
+    assertEquals(NOW + 6 * DAY, queue.answer(3, 4, NOW));
+    assertEquals(260, queue.getEase(3));
+    assertEquals(NOW + 16 * DAY, queue.answer(3, 3, NOW));
+    assertEquals(246, queue.getEase(3));
+    assertEquals(16, queue.getInterval(3));
+  }
+
+  @Test
+  void wrongAnswerStartsAgain() {
+    queue.answer(3, 5, NOW);
+    queue.answer(3, 5, NOW);
+    assertEquals(6, queue.getInterval(3));
+    assertEquals(NOW + DAY, queue.answer(3, 1, NOW));
+    assertEquals(1, queue.getInterval(3));
+    assertEquals(270, queue.getEase(3)); // unchanged by wrong answers
+    assertEquals(NOW + 2 * DAY, queue.answer(3, 5, NOW + DAY));
+  }
+
+  @Test
+  void minEase() {
+    for (var i = 0; i < 10; ++i)
+      queue.answer(3, 3, NOW);
+    assertEquals(130, queue.getEase(3));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {-1, 6})
+  void badGrade(int grade) {
+    final var e = assertThrows(DomainException.class,
+        () -> queue.answer(3, grade, NOW));
+    assertEquals("grade must be from 0 to 5: " + grade, e.getMessage());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void badOrdinal() {
+    final var e = assertThrows(DomainException.class,
+        () -> queue.add(-2, NOW));
+    assertEquals("invalid ordinal: -2", e.getMessage());
+  }
+
+  @Test
+  void dueOrder() {
+    // add cards in random order with random answers and compare with sorting
+    final var random = new SplittableRandom(1);
+    final var count = 3000;
+    for (var i = 0; i < 20_000; ++i) {
+      final var ordinal = random.nextInt(count);
+      if (random.nextBoolean())
+        queue.add(ordinal, NOW + random.nextInt(10 * DAY));
+      else
+        queue.answer(ordinal, random.nextInt(6), NOW + random.nextInt(DAY));
+    }
+    final var expected = IntStream.range(0, count).filter(queue::contains)
+        .boxed().sorted((x, y) -> queue.getDue(x) != queue.getDue(y) ?
+            Integer.compare(queue.getDue(x), queue.getDue(y)) :
+            Integer.compare(x, y)).mapToInt(Integer::intValue).toArray();
+    assertEquals(expected.length, queue.size());
+    assertEquals(expected[0], queue.peek());
+    final var now = NOW + 5 * DAY;
+    final var dueCount =
+        (int) Arrays.stream(expected).filter(i -> queue.getDue(i) <= now)
+            .count();
+    // fewer results than due cards
+    var result = new int[50];
+    assertEquals(50, queue.due(now, result));
+    assertArrayEquals(Arrays.copyOf(expected, 50), result);
+    // more space than due cards
+    result = new int[expected.length];
+    assertEquals(dueCount, queue.due(now, result));
+    assertArrayEquals(Arrays.copyOf(expected, dueCount),
+        Arrays.copyOf(result, dueCount));
+  }
+
+  @Test
+  void ordinalsWithSameLowBits() {
+    // multiples of a large power of two all have the same low bits
+    for (var i = 0; i < 4096; ++i)
+      queue.add(i << 16, NOW + i);
+    assertEquals(4096, queue.size());
+    for (var i = 0; i < 4096; ++i) {
+      assertEquals(NOW + i, queue.getDue(i << 16));
+      assertFalse(queue.contains((i << 16) + 1));
+    }
+  }
+
+  @Test
+  void memoryPerCard() {
+    for (var i = 0; i < 4096; ++i)
+      queue.add(i * 3, NOW);
+    assertEquals(4096 * 29, queue.memoryBytes());
+  }
+
+  @Test
+  void trimToSize() {
+    for (var i = 0; i < 2136; ++i)
+      queue.add(i * 3, NOW + i);
+    assertEquals(4096 * 29, queue.memoryBytes());
+    queue.trimToSize();
+    // 21 bytes per card plus a table of 8192 ints
+    assertEquals(2136 * 21 + 8192 * 4, queue.memoryBytes());
+    assertEquals(3, queue.due(NOW + 2, new int[5]));
+    assertEquals(NOW + 100, queue.getDue(300));
+    // adding after trimming grows the arrays again
+    queue.add(1, NOW - 1);
+    assertEquals(1, queue.peek());
+    assertEquals(2137, queue.size());
+    final var empty = new ReviewQueue();
+    empty.trimToSize();
+    assertEquals(21 + 2 * 4, empty.memoryBytes());
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewSchedulerTest {
+  private static final int DAY = 24 * 60, NOW = 1_000_000;
+
+  private final ReviewScheduler scheduler = new ReviewScheduler();
+
+  @Test
+  void usersHaveSeparateQueues() {
+    scheduler.add(1, 10, NOW);
+    scheduler.answer(2, 10, 5, NOW);
+    assertEquals(2, scheduler.users());
+    assertEquals(1, scheduler.size(1));
+    assertEquals(0, scheduler.size(3));
+    final var result = new int[4];
+    assertEquals(1, scheduler.due(1, NOW, result));
+    assertEquals(10, result[0]);
+    assertEquals(0, scheduler.due(2, NOW, result));
+    assertEquals(1, scheduler.due(2, NOW + DAY, result));
+    assertEquals(0, scheduler.due(3, NOW, result));
+  }
+
+  @Test
+  void batchDue() {
+    for (var user = 0; user < 5000; ++user)
+      for (var ordinal = 0; ordinal < user % 7; ++ordinal)
+        scheduler.add(user, ordinal, NOW + ordinal * DAY);
+    final var due = scheduler.due(NOW + DAY, 3);
+    // users with 0 cards or whose only card isn't due are left out
+    assertEquals(5000 - 5000 / 7 - 1, due.size());
+    assertArrayEquals(new int[]{0}, due.get(1L));
+    assertArrayEquals(new int[]{0, 1}, due.get(6L));
+    assertFalse(due.containsKey(0L));
+    assertTrue(scheduler.due(NOW, 0).isEmpty());
+  }
+
+  @Test
+  void concurrentAnswers() {
+    final var executor = Executors.newFixedThreadPool(8);
+    final var futures = new ArrayList<CompletableFuture<Void>>();
+    for (var t = 0; t < 8; ++t)
+      futures.add(CompletableFuture.runAsync(() -> {
+        for (var i = 0; i < 10_000; ++i)
+          scheduler.answer(i % 16, i / 16 % 500, 5, NOW);
+      }, executor));
+    futures.forEach(CompletableFuture::join);
+    executor.shutdown();
+    assertEquals(16, scheduler.users());
+    for (var user = 0; user < 16; ++user)
+      assertEquals(500, scheduler.size(user));
+    assertEquals(0, scheduler.due(NOW, 10).size());
+  }
+}
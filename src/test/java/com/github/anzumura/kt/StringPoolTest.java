@@ -0,0 +1,78 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+  private final StringPool pool = new StringPool();
+
+  // create a new String instance with the same value
+  private static String copy(String s) {
+    return new String(s.toCharArray());
+  }
+
+  @Test
+  void radicalsArePooled() {
+    // pools start with one instance for each radical
+    assertEquals(StringPool.RADICALS, pool.size());
+    for (var radical : List.of("一", "辛", "龠"))
+      assertSame(pool.get(copy(radical)), pool.get(copy(radical)));
+    assertSame(pool.get(copy("辛")), new StringPool().get(copy("辛")));
+    assertEquals(StringPool.RADICALS, pool.size());
+  }
+
+  @Nested
+  class StringTest {
+    @Test
+    void get() {
+      final var first = pool.get(copy("ジ、や-める"));
+      assertSame(first, pool.get(copy("ジ、や-める")));
+      assertEquals(StringPool.RADICALS + 1, pool.size());
+    }
+
+    @Test
+    void longStringsAreNotPooled() {
+      final var s = "x".repeat(StringPool.MAX_LENGTH + 1);
+      assertSame(s, pool.get(s));
+      assertNotSame(s, pool.get(copy(s)));
+      assertEquals(StringPool.RADICALS, pool.size());
+    }
+
+    @Test
+    void lists() {
+      final var first = pool.get(List.of(copy("丢"), copy("丟")));
+      final var second = pool.get(new ArrayList<>(List.of("丢", "丟")));
+      assertSame(first, second);
+      assertSame(first.get(0), pool.get(copy("丢")));
+      assertSame(List.of(), pool.get(new ArrayList<>()));
+    }
+
+    @Test
+    void concurrentGet() throws InterruptedException {
+      final int threadCount = 8, values = 10;
+      final var results = new String[threadCount][values];
+      final var threads = new ArrayList<Thread>();
+      for (var i = 0; i < threadCount; ++i) {
+        final var result = results[i];
+        threads.add(new Thread(() -> {
+          for (var j = 0; j < values; ++j)
+            result[j] = pool.get(copy("value" + j));
+        }));
+      }
+      for (var t : threads)
+        t.start();
+      for (var t : threads)
+        t.join();
+      assertEquals(StringPool.RADICALS + values, pool.size());
+      // all threads got the same instances
+      for (var result : results)
+        for (var j = 0; j < values; ++j)
+          assertSame(results[0][j], result[j]);
+    }
+  }
+}
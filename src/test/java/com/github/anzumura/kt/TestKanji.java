@@ -0,0 +1,60 @@
+package com.github.anzumura.kt;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+
+/**
+ * Kanji shared by tests, each test builds its own list from these (plus any
+ * extra Kanji it needs)
+ */
+final class TestKanji {
+  static final JouyouKanji jouyou =
+      new JouyouKanji("辞", "辛", 13, "resign", "ジ、や-める", Kyu.K7, 1,
+          Level.N3, 632, 2010, Grade.G4);
+  static final JouyouKanji sea =
+      new JouyouKanji("海", "水", 9, "sea", "カイ、うみ", Kyu.K9, 182, Level.N4,
+          200, 1946, Grade.G2);
+  static final JouyouKanji ocean =
+      new JouyouKanji("洋", "水", 9, "ocean", "ヨウ", Kyu.K8, 500, Level.N3, 785,
+          1946, Grade.G3);
+  static final JinmeiKanji jinmei =
+      new JinmeiKanji("亘", "二", 6, "span", "コウ、わた-る", Kyu.KJ1, 2,
+          Level.None, 0, 1951, JinmeiReason.Names);
+  static final LinkedJinmeiKanji linkedJinmei =
+      new LinkedJinmeiKanji("辭", "辛", 19, jouyou, 0, Kyu.K1);
+  static final LinkedOldKanji linkedOld =
+      new LinkedOldKanji("辤", "辛", 12, jouyou, 0, Kyu.K1);
+  static final FrequencyKanji frequency =
+      new FrequencyKanji("呵", "口", 8, "scold", "カ", false, List.of(), true,
+          Kyu.K1, 2000);
+  static final ExtraKanji extra =
+      new ExtraKanji("匂", "勹", 4, "fragrant", "にお-う", Kyu.K4, 3, "匂");
+  static final KenteiKanji kentei =
+      new KenteiKanji("乖", "丿", 8, "betray", "カイ、そむ-く", true,
+          List.of("乖"), false, Kyu.K1);
+  static final UcdKanji ucd =
+      new UcdKanji("丟", "一", 6, "", "チュウ", false, List.of("丢", "丟"),
+          true);
+
+  /**
+   * one Kanji of each type (Linked Kanji refer to {@link #jouyou})
+   */
+  static final List<Kanji> allTypes = List.of(jouyou, jinmei, linkedJinmei,
+      linkedOld, frequency, extra, kentei, ucd);
+
+  private TestKanji() {}
+
+  static UcdKanji ucd(String name) {
+    return ucd(name, "", "");
+  }
+
+  static UcdKanji ucd(String name, String meaning, String reading) {
+    return new UcdKanji(name, "一", 1, meaning, reading, false, List.of(),
+        false);
+  }
+
+  static UcdKanji ucd(String name, boolean oldLinks, List<String> linkNames) {
+    return new UcdKanji(name, "一", 1, "", "", oldLinks, linkNames, false);
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.anzumura.kt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.anzumura.kt.Kanji.*;
+import static com.github.anzumura.kt.TestKanji.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariantGraphTest {
+  private static final JouyouKanji ben =
+      new JouyouKanji("弁", "廾", 5, "valve", "ベン", Kyu.K6, 1, Level.N1, 1000,
+          1946, Grade.G5);
+
+  private static LinkedOldKanji old(String name) {
+    return new LinkedOldKanji(name, "辛", 16, ben, 0, Kyu.K1);
+  }
+
+  // ordinals: 弁=0, 辨=1, 瓣=2, 辯=3, 丟=4, 丢=5, 壹=6, 壱=7, 乖=8
+  private static final List<Kanji> kanji = List.of(ben, old("辨"), old("瓣"),
+      old("辯"),
+      // 'new' links (simplified), including a self link and an unloaded name
+      ucd("丟", false, List.of("丢", "丟", "㐀")), ucd("丢", false, List.of()),
+      // old links given from both sides (the duplicate edge is removed)
+      ucd("壹", false, List.of("壱")), ucd("壱", true, List.of("壹")),
+      ucd("乖", true, List.of()));
+  private static final VariantGraph graph =
+      VariantGraph.of(KanjiIndex.of(kanji));
+
+  private static int[] newer(int ordinal) {
+    final var result = new int[graph.newerCount(ordinal)];
+    for (var i = 0; i < result.length; ++i)
+      result[i] = graph.newer(ordinal, i);
+    return result;
+  }
+
+  private static int[] older(int ordinal) {
+    final var result = new int[graph.olderCount(ordinal)];
+    for (var i = 0; i < result.length; ++i)
+      result[i] = graph.older(ordinal, i);
+    return result;
+  }
+
+  @Test
+  void edges() {
+    assertEquals(5, graph.edges());
+    assertEquals(0, VariantGraph.of(KanjiIndex.of(List.of())).edges());
+  }
+
+  @Test
+  void linkedKanji() {
+    assertArrayEquals(new int[]{1, 2, 3}, older(0));
+    assertArrayEquals(new int[0], newer(0));
+    for (var i = 1; i <= 3; ++i) {
+      assertArrayEquals(new int[]{0}, newer(i));
+      assertArrayEquals(new int[0], older(i));
+    }
+  }
+
+  @Test
+  void newLinks() {
+    assertArrayEquals(new int[]{5}, newer(4));
+    assertArrayEquals(new int[]{4}, older(5));
+  }
+
+  @Test
+  void oldLinks() {
+    assertArrayEquals(new int[]{7}, newer(6));
+    assertArrayEquals(new int[]{6}, older(7));
+  }
+
+  @Test
+  void hasVariants() {
+    for (var i = 0; i < 8; ++i)
+      assertTrue(graph.hasVariants(i));
+    assertFalse(graph.hasVariants(8));
+  }
+}